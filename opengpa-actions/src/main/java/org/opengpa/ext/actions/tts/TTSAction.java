@@ -31,6 +31,7 @@ public class TTSAction implements Action {
     private final SpeechModel speechModel;
     private final Workspace workspace;
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private volatile JsonNode jsonSchema;
 
     public TTSAction(SpeechModel speechModel, Workspace workspace) {
         log.info("Creating TTSAction");
@@ -55,7 +56,12 @@ public class TTSAction implements Action {
 
     @Override
     public JsonNode getJsonSchema() {
-        return org.opengpa.core.action.JsonSchemaUtils.generateSchemaFromClass(TTSInput.class);
+        JsonNode schema = jsonSchema;
+        if (schema == null) {
+            schema = org.opengpa.core.action.JsonSchemaUtils.generateSchemaFromClass(TTSInput.class);
+            jsonSchema = schema;
+        }
+        return schema;
     }
 
     @Override
@@ -68,6 +68,11 @@ class TTSActionTest {
         assertTrue(schema.get("properties").has("script"));
     }
 
+    @Test
+    void testGetJsonSchemaIsMemoized() {
+        assertSame(ttsAction.getJsonSchema(), ttsAction.getJsonSchema());
+    }
+
     @Test
     void testApplyWithScript() {
         // Create a spy that can verify method calls but return our mock response
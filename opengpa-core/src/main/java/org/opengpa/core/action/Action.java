@@ -24,6 +24,12 @@ public interface Action {
         return Collections.emptyMap();
     }
 
+    // Actions overriding getData must return true so that their data is read again at each step. The rendering of
+    // a returned map may be reused as long as the same instance is returned, it must not be modified afterwards.
+    default boolean hasDynamicData() {
+        return false;
+    }
+
     default ActionResult continueAction(Agent agent, String actionId,
                                         Map<String, String> stateData, Map<String, String> context) {
         // Default implementation just treats continuation as a new action
@@ -24,6 +24,24 @@ public class JsonSchemaUtils {
     private static final JsonSchemaGenerator schemaGenerator = new JsonSchemaGenerator(mapper);
     private static final JsonSchemaFactory schemaFactory = JsonSchemaFactory.getInstance(SpecVersion.VersionFlag.V7);
 
+    // Keywords that do not constrain an object input, a schema made only of those accepts any input
+    private static final Set<String> ANNOTATION_KEYWORDS = Set.of(
+            "$schema", "$id", "id", "$comment", "title", "description", "default", "examples", "type", "additionalProperties");
+
+    private static final int MAX_CACHED_VALIDATORS = 256;
+
+    // Compiled validators keyed by action name and schema hash, least recently used are evicted first
+    private static final Map<String, CachedValidator> validators = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedValidator> eldest) {
+                    return size() > MAX_CACHED_VALIDATORS;
+                }
+            });
+
+    private record CachedValidator(JsonNode schema, com.networknt.schema.JsonSchema validator, boolean permissive) {
+    }
+
     /**
      * Generate a JSON schema from an action's parameter list
      * This provides backward compatibility for actions that haven't been updated to use JSON Schema
@@ -79,17 +97,33 @@ public class JsonSchemaUtils {
      * @return List of validation errors, empty list if valid
      */
     public static List<String> validateAgainstSchema(JsonNode schema, Map<String, Object> input) {
+        return validateAgainstSchema("", schema, input);
+    }
+
+    /**
+     * Validate the input parameters of an action against its JSON schema
+     * The compiled schema is cached per action name and schema, so it is only built once
+     *
+     * @param actionName The name of the action owning the schema
+     * @param schema The JSON schema to validate against
+     * @param input The input parameters to validate
+     * @return List of validation errors, empty list if valid
+     */
+    public static List<String> validateAgainstSchema(String actionName, JsonNode schema, Map<String, Object> input) {
         List<String> errors = new ArrayList<>();
         
         try {
+            // Get the compiled schema validator, skip validation if the schema accepts anything
+            CachedValidator cachedValidator = getValidator(actionName, schema);
+            if (cachedValidator.permissive()) {
+                return errors;
+            }
+
             // Convert input map to JsonNode
             JsonNode inputNode = mapper.valueToTree(input);
             
-            // Create schema validator
-            com.networknt.schema.JsonSchema validator = schemaFactory.getSchema(schema);
-            
             // Validate
-            Set<ValidationMessage> validationResult = validator.validate(inputNode);
+            Set<ValidationMessage> validationResult = cachedValidator.validator().validate(inputNode);
             
             // Convert validation messages to strings
             if (!validationResult.isEmpty()) {
@@ -116,6 +150,68 @@ public class JsonSchemaUtils {
         return validateAgainstSchema(schema, input).isEmpty();
     }
 
+    /**
+     * Check if a schema accepts any object input, in which case validation can be skipped
+     *
+     * @param schema The JSON schema to inspect
+     * @return true if any object is valid against this schema
+     */
+    public static boolean isTriviallyPermissive(JsonNode schema) {
+        if (schema.isBoolean()) {
+            return schema.booleanValue();
+        }
+        if (!schema.isObject()) {
+            return false;
+        }
+
+        Iterator<Map.Entry<String, JsonNode>> fields = schema.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            switch (field.getKey()) {
+                case "type" -> {
+                    if (!"object".equals(field.getValue().asText())) return false;
+                }
+                case "additionalProperties" -> {
+                    if (!field.getValue().isBoolean() || !field.getValue().booleanValue()) return false;
+                }
+                default -> {
+                    if (!ANNOTATION_KEYWORDS.contains(field.getKey())) return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    static void clearValidatorCache() {
+        validators.clear();
+    }
+
+    static int cachedValidatorCount() {
+        return validators.size();
+    }
+
+    private static CachedValidator getValidator(String actionName, JsonNode schema) {
+        String key = actionName + "#" + schema.hashCode();
+        CachedValidator cached = validators.get(key);
+        if (cached != null && cached.schema().equals(schema)) {
+            return cached;
+        }
+
+        CachedValidator compiled = compile(schema);
+        validators.put(key, compiled);
+        return compiled;
+    }
+
+    private static CachedValidator compile(JsonNode schema) {
+        if (isTriviallyPermissive(schema)) {
+            return new CachedValidator(schema, null, true);
+        }
+
+        com.networknt.schema.JsonSchema validator = schemaFactory.getSchema(schema);
+        validator.initializeValidators();
+        return new CachedValidator(schema, validator, false);
+    }
+
     private static void removeIdFields(JsonNode node) {
         if (node.isObject()) {
             ObjectNode objectNode = (ObjectNode) node;
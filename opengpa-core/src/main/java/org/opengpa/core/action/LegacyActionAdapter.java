@@ -15,9 +15,19 @@ import java.util.Map;
  */
 public abstract class LegacyActionAdapter implements Action {
 
+    private volatile JsonNode jsonSchema;
+
+    /**
+     * The schema is generated from the parameters on first use and then reused, callers must not modify it
+     */
     @Override
     public JsonNode getJsonSchema() {
-        return JsonSchemaUtils.generateSchemaFromParameters(getParameters());
+        JsonNode schema = jsonSchema;
+        if (schema == null) {
+            schema = JsonSchemaUtils.generateSchemaFromParameters(getParameters());
+            jsonSchema = schema;
+        }
+        return schema;
     }
 
     @Override
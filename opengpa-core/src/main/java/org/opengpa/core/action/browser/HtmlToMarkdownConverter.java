@@ -0,0 +1,122 @@
+package org.opengpa.core.action.browser;
+
+import com.vladsch.flexmark.html2md.converter.FlexmarkHtmlConverter;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Converts html pages to markdown, sharing a single thread safe Flexmark converter.
+ *
+ * The Jsoup document is converted directly, after removing the elements that are not part of the content
+ * such as scripts, navigation and footers. The page is split in blocks which are converted in batches, and
+ * the conversion stops as soon as the markdown reaches the requested length.
+ */
+@Component
+public class HtmlToMarkdownConverter {
+
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private static final String BOILERPLATE = "script, style, noscript, template, iframe, object, embed, svg, canvas, "
+            + "img, picture, video, audio, form, button, nav, footer, aside, "
+            + "[role=navigation], [role=banner], [role=contentinfo], [role=complementary], [aria-hidden=true]";
+
+    // Elements descended into when they contain blocks, so that their blocks are converted one batch at a time
+    private static final Set<String> CONTAINERS = Set.of("body", "div", "main", "article", "section", "center");
+
+    private final FlexmarkHtmlConverter converter = FlexmarkHtmlConverter.builder().build();
+
+    public String convert(String html, String baseUri, int maxLength) {
+        if (html == null || html.isEmpty()) {
+            return "";
+        }
+        return convert(Jsoup.parse(html, baseUri != null ? baseUri : ""), maxLength);
+    }
+
+    /**
+     * Convert a document to markdown of at most maxLength characters. The document is modified.
+     */
+    public String convert(Document document, int maxLength) {
+        removeBoilerplate(document);
+
+        if (document.body().text().length() < maxLength) {
+            // Everything fits, moving the blocks to batches would only cost a reindexing of their siblings
+            String markdown = converter.convert(document).stripTrailing();
+            return markdown.length() > maxLength ? markdown.substring(0, maxLength) : markdown;
+        }
+
+        List<Node> blocks = new ArrayList<>();
+        collectBlocks(document.body(), blocks);
+
+        StringBuilder markdown = new StringBuilder();
+        int next = 0;
+        while (next < blocks.size() && markdown.length() < maxLength) {
+            // The text of the blocks is a lower bound of the length of their markdown
+            Document batch = Document.createShell(document.location());
+            long textLength = 0;
+            long remaining = maxLength - markdown.length();
+            while (next < blocks.size() && textLength < remaining) {
+                Node block = blocks.get(next++);
+                textLength += textLength(block);
+                batch.body().appendChild(block);
+            }
+
+            String converted = converter.convert(batch);
+            if (!converted.isBlank()) {
+                if (!markdown.isEmpty()) {
+                    markdown.append('\n');
+                }
+                markdown.append(converted);
+            }
+        }
+
+        if (markdown.length() > maxLength) {
+            return markdown.substring(0, maxLength);
+        }
+        return markdown.toString().stripTrailing();
+    }
+
+    private static void removeBoilerplate(Document document) {
+        document.select(BOILERPLATE).remove();
+
+        // Page headers hold the site navigation, while article headers hold the title of the article
+        for (Element header : document.select("header")) {
+            if (header.closest("article") == null) {
+                header.remove();
+            }
+        }
+    }
+
+    private static void collectBlocks(Element container, List<Node> blocks) {
+        for (Node child : container.childNodes()) {
+            if (child instanceof Element element && CONTAINERS.contains(element.normalName()) && hasBlockChild(element)) {
+                collectBlocks(element, blocks);
+            } else if (!(child instanceof TextNode textNode && textNode.isBlank())) {
+                blocks.add(child);
+            }
+        }
+    }
+
+    private static boolean hasBlockChild(Element element) {
+        for (Element child : element.children()) {
+            if (child.isBlock()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int textLength(Node node) {
+        if (node instanceof TextNode textNode) {
+            return textNode.text().length();
+        }
+        return node instanceof Element element ? element.text().length() : 0;
+    }
+}
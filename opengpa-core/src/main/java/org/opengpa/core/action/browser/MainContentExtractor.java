@@ -0,0 +1,133 @@
+package org.opengpa.core.action.browser;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import java.util.IdentityHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the element holding the main content of a page, in the way of the readability algorithms.
+ *
+ * Each paragraph with enough text adds to the score of its parent, and half of it to its grandparent. The
+ * candidates are weighted by their class and id names and penalized by the share of their text in links, so
+ * that menus, related stories and comments lose to the article.
+ */
+public class MainContentExtractor {
+
+    private static final String PARAGRAPHS = "p, pre, td, blockquote, li";
+
+    private static final int MIN_PARAGRAPH_LENGTH = 25;
+
+    private static final Pattern POSITIVE = Pattern.compile("article|body|content|entry|main|page|post|text|story");
+
+    private static final Pattern NEGATIVE = Pattern.compile(
+            "comment|sidebar|footer|related|share|social|promo|sponsor|banner|menu|nav|ad-|advert|cookie|popup|toc");
+
+    private MainContentExtractor() {
+    }
+
+    /**
+     * Keep only the main content in the body of the document. The document is left as is when no element
+     * stands out, like on pages without paragraphs.
+     */
+    public static void extract(Document document) {
+        Element body = document.body();
+        if (body == null) {
+            return;
+        }
+
+        Element content = findMainContent(body);
+        if (content != null && content != body && isInside(content, body)) {
+            body.empty().appendChild(content);
+        }
+    }
+
+    static Element findMainContent(Element body) {
+        Map<Element, Double> scores = new IdentityHashMap<>();
+        for (Element paragraph : body.select(PARAGRAPHS)) {
+            String text = paragraph.text();
+            if (text.length() < MIN_PARAGRAPH_LENGTH) {
+                continue;
+            }
+
+            double score = 1 + countCommas(text) + Math.min(text.length() / 100, 3);
+            Element parent = paragraph.parent();
+            if (parent == null) {
+                continue;
+            }
+            scores.merge(parent, score, Double::sum);
+
+            // Candidates are never above the body, the whole document would be moved into it
+            Element grandparent = parent == body ? null : parent.parent();
+            if (grandparent != null) {
+                scores.merge(grandparent, score / 2, Double::sum);
+            }
+        }
+
+        Element best = null;
+        double bestScore = 0;
+        for (Map.Entry<Element, Double> entry : scores.entrySet()) {
+            Element candidate = entry.getKey();
+            double score = (entry.getValue() + classWeight(candidate)) * (1 - linkDensity(candidate));
+            if (score > bestScore) {
+                best = candidate;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    private static boolean isInside(Element element, Element ancestor) {
+        for (Element parent = element.parent(); parent != null; parent = parent.parent()) {
+            if (parent == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int classWeight(Element element) {
+        int weight = 0;
+        for (String name : new String[]{element.className(), element.id()}) {
+            if (name.isEmpty()) {
+                continue;
+            }
+            String lowerCase = name.toLowerCase(Locale.ROOT);
+            if (NEGATIVE.matcher(lowerCase).find()) {
+                weight -= 25;
+            }
+            if (POSITIVE.matcher(lowerCase).find()) {
+                weight += 25;
+            }
+        }
+        if (element.normalName().equals("article") || element.normalName().equals("main")) {
+            weight += 25;
+        }
+        return weight;
+    }
+
+    private static double linkDensity(Element element) {
+        int textLength = element.text().length();
+        if (textLength == 0) {
+            return 1;
+        }
+        int linkLength = 0;
+        for (Element link : element.select("a")) {
+            linkLength += link.text().length();
+        }
+        return Math.min((double) linkLength / textLength, 1);
+    }
+
+    private static int countCommas(String text) {
+        int commas = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == ',') {
+                commas++;
+            }
+        }
+        return commas;
+    }
+}
@@ -1,13 +1,10 @@
 package org.opengpa.core.action.browser;
 
-import com.vladsch.flexmark.html2md.converter.FlexmarkHtmlConverter;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
+import org.opengpa.core.http.FetchCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.WebClient;
 
 import java.util.Map;
 
@@ -19,8 +16,14 @@ public class MarkdownBrowserAction extends RawBrowserAction {
 
     private static final int MAX_CONTENT_SIZE = 2500;
 
-    public MarkdownBrowserAction(WebClient webClient)  {
-        super(webClient);
+    // The markdown is found after the head and the navigation of the page
+    private static final int MAX_HTML_SIZE = 512 * 1024;
+
+    private final HtmlToMarkdownConverter markdownConverter;
+
+    public MarkdownBrowserAction(FetchCache fetchCache, HtmlToMarkdownConverter markdownConverter)  {
+        super(fetchCache);
+        this.markdownConverter = markdownConverter;
         log.info("Creating MarkdownBrowserAction");
     }
 
@@ -34,25 +37,16 @@ public class MarkdownBrowserAction extends RawBrowserAction {
         return "web";
     }
 
+    @Override
+    protected int fetchLength() {
+        return MAX_HTML_SIZE;
+    }
+
     protected Map<String, String> formatResult(String url, String content) {
+        // Only the markdown kept in the result is converted
         return Map.of(
                 "url", url,
-                "content", trimContent(convertHtmlToMd(content))
+                "content", markdownConverter.convert(content, url, MAX_CONTENT_SIZE)
         );
     }
-
-    private String convertHtmlToMd(String html) {
-        if (html == null || html.isEmpty()) return "";
-
-        Document document = Jsoup.parse(html);
-        String markdown = FlexmarkHtmlConverter.builder().build().convert(document.html());
-        return markdown;
-    }
-
-    private String trimContent(String content) {
-        if (content == null || content.isEmpty()) return "";
-        if (content.length() < MAX_CONTENT_SIZE) return content;
-        return content.substring(0, MAX_CONTENT_SIZE);
-
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,172 @@
+package org.opengpa.core.action.browser;
+
+import org.opengpa.core.util.TextTokenizer;
+
+import java.util.*;
+
+/**
+ * Selects the passages of a markdown page that are the most relevant to a query, within a token budget.
+ *
+ * The page is split in blocks separated by blank lines, code blocks being kept whole. The blocks are scored
+ * against the query with BM25, earlier blocks winning ties, and the best ones are kept in their page order
+ * along with the heading of their section. Omitted blocks are marked with [...]. Tokens are estimated as one
+ * per four characters.
+ */
+public class PassageSelector {
+
+    static final String OMITTED = "[...]";
+
+    private static final int CHARACTERS_PER_TOKEN = 4;
+
+    private static final double K1 = 1.2;
+
+    private static final double B = 0.75;
+
+    private PassageSelector() {
+    }
+
+    public static String select(String markdown, String query, int maxTokens) {
+        if (markdown == null || markdown.isEmpty() || estimateTokens(markdown) <= maxTokens) {
+            return markdown;
+        }
+
+        List<Block> blocks = split(markdown);
+        double[] scores = score(blocks, TextTokenizer.tokenize(query));
+
+        Integer[] ranking = new Integer[blocks.size()];
+        for (int i = 0; i < ranking.length; i++) {
+            ranking[i] = i;
+        }
+        Arrays.sort(ranking, (a, b) -> Double.compare(scores[b], scores[a]));
+
+        TreeSet<Integer> selected = new TreeSet<>();
+        int tokens = 0;
+        for (int index : ranking) {
+            Block block = blocks.get(index);
+            int cost = selected.contains(index) ? 0 : block.tokens();
+            int heading = block.heading();
+            if (heading >= 0 && !selected.contains(heading) && heading != index) {
+                cost += blocks.get(heading).tokens();
+            }
+            if (tokens + cost > maxTokens) {
+                continue;
+            }
+
+            tokens += cost;
+            selected.add(index);
+            if (heading >= 0) {
+                selected.add(heading);
+            }
+        }
+
+        if (selected.isEmpty()) {
+            // Even the best block does not fit, it is cut at the budget
+            String text = blocks.get(ranking[0]).text();
+            return text.substring(0, Math.min(text.length(), maxTokens * CHARACTERS_PER_TOKEN));
+        }
+
+        StringBuilder result = new StringBuilder();
+        int previous = -1;
+        for (int index : selected) {
+            if (!result.isEmpty()) {
+                result.append("\n\n");
+            }
+            if (index != previous + 1) {
+                result.append(OMITTED).append("\n\n");
+            }
+            result.append(blocks.get(index).text());
+            previous = index;
+        }
+        if (previous < blocks.size() - 1) {
+            result.append("\n\n").append(OMITTED);
+        }
+        return result.toString();
+    }
+
+    static int estimateTokens(CharSequence text) {
+        return (text.length() + CHARACTERS_PER_TOKEN - 1) / CHARACTERS_PER_TOKEN;
+    }
+
+    static List<Block> split(String markdown) {
+        List<Block> blocks = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inCode = false;
+        int heading = -1;
+
+        for (String line : markdown.split("\n", -1)) {
+            if (line.startsWith("```") || line.startsWith("~~~")) {
+                inCode = !inCode;
+            }
+            if (line.isBlank() && !inCode) {
+                heading = addBlock(blocks, current, heading);
+                continue;
+            }
+            if (!current.isEmpty()) {
+                current.append('\n');
+            }
+            current.append(line);
+        }
+        addBlock(blocks, current, heading);
+        return blocks;
+    }
+
+    // Returns the index of the heading of the next blocks
+    private static int addBlock(List<Block> blocks, StringBuilder current, int heading) {
+        if (current.isEmpty()) {
+            return heading;
+        }
+
+        String text = current.toString();
+        current.setLength(0);
+        boolean isHeading = text.startsWith("#") || text.matches("(?s)[^\n]+\n(=+|-+)");
+        blocks.add(new Block(text, estimateTokens(text), isHeading ? -1 : heading));
+        return isHeading ? blocks.size() - 1 : heading;
+    }
+
+    private static double[] score(List<Block> blocks, List<String> queryTokens) {
+        int count = blocks.size();
+        double[] scores = new double[count];
+        // Earlier blocks win ties, and fill the budget when the query matches nothing
+        for (int i = 0; i < count; i++) {
+            scores[i] = 1e-3 / (i + 1);
+        }
+        Set<String> terms = new HashSet<>(queryTokens);
+        if (terms.isEmpty()) {
+            return scores;
+        }
+
+        List<Map<String, Integer>> frequencies = new ArrayList<>(count);
+        Map<String, Integer> documentFrequencies = new HashMap<>();
+        int[] lengths = new int[count];
+        long totalLength = 0;
+        for (int i = 0; i < count; i++) {
+            List<String> tokens = TextTokenizer.tokenize(blocks.get(i).text());
+            lengths[i] = tokens.size();
+            totalLength += tokens.size();
+            Map<String, Integer> frequency = new HashMap<>();
+            for (String token : tokens) {
+                if (terms.contains(token)) {
+                    frequency.merge(token, 1, Integer::sum);
+                }
+            }
+            frequency.keySet().forEach(term -> documentFrequencies.merge(term, 1, Integer::sum));
+            frequencies.add(frequency);
+        }
+
+        double averageLength = Math.max((double) totalLength / count, 1);
+        for (int i = 0; i < count; i++) {
+            double lengthNorm = K1 * (1 - B + B * lengths[i] / averageLength);
+            for (Map.Entry<String, Integer> entry : frequencies.get(i).entrySet()) {
+                int df = documentFrequencies.get(entry.getKey());
+                double idf = Math.log(1 + (count - df + 0.5) / (df + 0.5));
+                int tf = entry.getValue();
+                scores[i] += idf * tf * (K1 + 1) / (tf + lengthNorm);
+            }
+        }
+        return scores;
+    }
+
+    // heading is the index of the heading of the section of the block, or -1
+    record Block(String text, int tokens, int heading) {
+    }
+}
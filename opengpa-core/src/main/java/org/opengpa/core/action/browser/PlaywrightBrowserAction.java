@@ -1,8 +1,7 @@
 package org.opengpa.core.action.browser;
 
-import com.microsoft.playwright.*;
+import com.microsoft.playwright.Page;
 import com.microsoft.playwright.options.WaitUntilState;
-import com.vladsch.flexmark.html2md.converter.FlexmarkHtmlConverter;
 import lombok.extern.slf4j.Slf4j;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
@@ -11,15 +10,20 @@ import org.opengpa.core.action.ActionResult;
 import org.opengpa.core.action.LegacyActionAdapter;
 import org.opengpa.core.agent.Agent;
 import org.opengpa.core.config.PlaywrightConfig;
+import org.opengpa.core.http.FetchCache;
 import org.opengpa.core.util.InputSanitizer;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.model.Generation;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
@@ -28,7 +32,7 @@ import java.util.Map;
 @ConditionalOnProperty(prefix = "opengpa.actions", name = "browse", havingValue = "playwright", matchIfMissing = false)
 public class PlaywrightBrowserAction extends LegacyActionAdapter {
 
-    public static final String BROWSER_AGENT = "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_13_1) AppleWebKit/537.36 (K HTML, like Gecko) Chrome/61.0.3163.100 Safari/537.36";
+    public static final String BROWSER_AGENT = PlaywrightBrowserPool.USER_AGENT;
 
     private static final String PROMPT = """
             The following is a web page content. Using this content, try to answer the question below. If you cannot answer the question, explain
@@ -43,27 +47,19 @@ public class PlaywrightBrowserAction extends LegacyActionAdapter {
     public static final String NAME = "browse_web";
 
     private final PlaywrightConfig playwrightConfig;
-    private final Playwright playwright;
-    private final Browser browser;
-    private final BrowserContext browserContext;
+    private final PlaywrightBrowserPool browserPool;
+    private final FetchCache fetchCache;
+    private final HtmlToMarkdownConverter markdownConverter;
     private final ChatModel chatModel;
 
-    public PlaywrightBrowserAction(PlaywrightConfig playwrightConfig, ChatModel chatModel) {
+    public PlaywrightBrowserAction(PlaywrightConfig playwrightConfig, ChatModel chatModel, PlaywrightBrowserPool browserPool,
+                                   FetchCache fetchCache, HtmlToMarkdownConverter markdownConverter) {
         this.playwrightConfig = playwrightConfig;
         this.chatModel = chatModel;
-
-        this.playwright = Playwright.create();
-
-        // Use chromium instead of chrome
-        BrowserType browserType = playwright.chromium();
-        this.browser = browserType.launch(new BrowserType.LaunchOptions()
-                .setHeadless(playwrightConfig.isHeadless()));
-
-        Browser.NewContextOptions contextOptions = new Browser.NewContextOptions()
-                .setUserAgent(BROWSER_AGENT);
-
-        this.browserContext = browser.newContext(contextOptions);
-        log.info("Creating PlaywrightBrowserAction with Chromium configuration");
+        this.browserPool = browserPool;
+        this.fetchCache = fetchCache;
+        this.markdownConverter = markdownConverter;
+        log.info("Creating PlaywrightBrowserAction with Chromium configuration and {} render mode", playwrightConfig.getRenderMode());
     }
 
     @Override
@@ -109,24 +105,29 @@ public class PlaywrightBrowserAction extends LegacyActionAdapter {
     }
 
     private ActionResult browsePage(String url, String query) {
-        Page page = browserContext.newPage();
-        Page.NavigateOptions navigateOptions = new Page.NavigateOptions();
-        navigateOptions.setTimeout(playwrightConfig.getTimeout());
-        navigateOptions.setWaitUntil(WaitUntilState.DOMCONTENTLOADED);
+        PageContent page = null;
+        if (playwrightConfig.getRenderMode() == PlaywrightConfig.RenderMode.ADAPTIVE) {
+            page = fetchStaticPage(url);
+        }
+        if (page == null) {
+            page = renderPage(url);
+        }
 
-        page.navigate(url, navigateOptions);
-        String title = InputSanitizer.sanitize(page.title());
-        String content = page.content();
+        String title = page.title();
+
+        // Only the main content of the page, and its passages closest to the query within the budget
+        MainContentExtractor.extract(page.document());
+        String markdown = markdownConverter.convert(page.document(), HtmlToMarkdownConverter.UNLIMITED);
+        String content = PassageSelector.select(markdown, query, playwrightConfig.getMaxContentTokens());
+        log.debug("Sending {} of {} characters of {} to the LLM", content.length(), markdown.length(), url);
 
         StringBuilder stringBuilder = new StringBuilder();
         stringBuilder.append(String.format(PROMPT, query, title));
-        stringBuilder.append(convertHtmlToMd(content));
+        stringBuilder.append(content);
 
         String prompt = stringBuilder.toString();
         Generation response = chatModel.call(new Prompt(prompt)).getResult();
 
-        page.close();
-
         return ActionResult.builder()
                 .status(ActionResult.Status.SUCCESS)
                 .result(response.getOutput().getText())
@@ -134,6 +135,56 @@ public class PlaywrightBrowserAction extends LegacyActionAdapter {
                 .build();
     }
 
+    private PageContent renderPage(String url) {
+        // The page belongs to a worker of the pool, only the LLM call runs on this thread
+        RenderedPage rendered = browserPool.withPage(browserPage -> {
+            Page.NavigateOptions navigateOptions = new Page.NavigateOptions();
+            navigateOptions.setTimeout(playwrightConfig.getTimeout());
+            navigateOptions.setWaitUntil(WaitUntilState.DOMCONTENTLOADED);
+
+            browserPage.navigate(url, navigateOptions);
+            return new RenderedPage(browserPage.title(), browserPage.content());
+        });
+
+        // Parsed once the page is released, the worker is free for the next navigation
+        return new PageContent(InputSanitizer.sanitize(rendered.title()), Jsoup.parse(rendered.html(), url));
+    }
+
+    /**
+     * Fetch the static html of a page, or return null if it must be rendered in the browser: the fetch failed,
+     * the content is not html, or the page has too little text as a shell filled by scripts.
+     */
+    private PageContent fetchStaticPage(String url) {
+        ResponseEntity<String> response;
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.USER_AGENT, BROWSER_AGENT);
+            response = fetchCache.get(url, headers, Duration.ofMillis(playwrightConfig.getTimeout()));
+        } catch (RuntimeException e) {
+            log.debug("Static fetch of {} failed, rendering it in the browser", url, e);
+            return null;
+        }
+
+        MediaType contentType = response != null ? response.getHeaders().getContentType() : null;
+        if (response == null || response.getBody() == null || contentType == null || !contentType.isCompatibleWith(MediaType.TEXT_HTML)) {
+            log.debug("Static fetch of {} returned no html, rendering it in the browser", url);
+            return null;
+        }
+
+        Document document = Jsoup.parse(response.getBody(), url);
+        int textLength = staticTextLength(document);
+        if (textLength < playwrightConfig.getMinStaticTextLength()) {
+            log.debug("Static html of {} has {} characters of text, rendering it in the browser", url, textLength);
+            return null;
+        }
+        return new PageContent(InputSanitizer.sanitize(document.title()), document);
+    }
+
+    static int staticTextLength(Document document) {
+        document.select("script, style, noscript, template").remove();
+        return document.body() != null ? document.body().text().length() : 0;
+    }
+
     private static ActionResult errorResult(String userMessage, String errorMessage) {
         return ActionResult.builder()
                 .status(ActionResult.Status.FAILURE)
@@ -142,14 +193,6 @@ public class PlaywrightBrowserAction extends LegacyActionAdapter {
                 .build();
     }
 
-    private String convertHtmlToMd(String html) {
-        if (html == null || html.isEmpty()) return "";
-
-        Document document = Jsoup.parse(html);
-        String markdown = FlexmarkHtmlConverter.builder().build().convert(document.html());
-        return markdown;
-    }
-
     private String getHostFromUrl(String urlString) {
         try {
             return new URL(urlString).getHost();
@@ -157,4 +200,10 @@ public class PlaywrightBrowserAction extends LegacyActionAdapter {
             return "";
         }
     }
+
+    private record RenderedPage(String title, String html) {
+    }
+
+    private record PageContent(String title, Document document) {
+    }
 }
@@ -0,0 +1,294 @@
+package org.opengpa.core.action.browser;
+
+import com.microsoft.playwright.*;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.opengpa.core.config.PlaywrightConfig;
+import org.opengpa.core.http.FetchCache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool of browser workers. Playwright objects are not thread safe, so each worker is a thread owning
+ * its own Playwright instance and browser, launched on its first task. Tasks wait in a queue for a free worker,
+ * and the time they wait is recorded as opengpa.browser.queue.wait.
+ *
+ * Tasks are isolated from each other: each one runs in a new browser context, closed once it is done, so that
+ * cookies, storage, cache and service workers of a task are never seen by the tasks of other agents or users.
+ * Only the browser is reused, and it is replaced if it was disconnected. Requests of the blocked resource types
+ * or domains are aborted, since only the document is read.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "opengpa.actions", name = "browse", havingValue = "playwright", matchIfMissing = false)
+public class PlaywrightBrowserPool {
+
+    public static final String USER_AGENT = FetchCache.USER_AGENT;
+
+    private final PlaywrightConfig playwrightConfig;
+
+    private final Supplier<Playwright> playwrightFactory;
+
+    private final BlockingQueue<Task<?>> tasks = new LinkedBlockingQueue<>();
+
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+
+    private final Timer queueWait;
+
+    private volatile boolean closed;
+
+    @Autowired
+    public PlaywrightBrowserPool(PlaywrightConfig playwrightConfig, ObjectProvider<MeterRegistry> meterRegistry) {
+        this(playwrightConfig, Playwright::create, meterRegistry.getIfAvailable());
+    }
+
+    PlaywrightBrowserPool(PlaywrightConfig playwrightConfig, Supplier<Playwright> playwrightFactory, MeterRegistry meterRegistry) {
+        this.playwrightConfig = playwrightConfig;
+        this.playwrightFactory = playwrightFactory;
+
+        if (meterRegistry != null) {
+            this.queueWait = Timer.builder("opengpa.browser.queue.wait")
+                    .description("Time spent by browser tasks waiting for a free worker")
+                    .register(meterRegistry);
+            Gauge.builder("opengpa.browser.queue.size", tasks, BlockingQueue::size).register(meterRegistry);
+            Gauge.builder("opengpa.browser.active", activeWorkers, AtomicInteger::get).register(meterRegistry);
+        } else {
+            this.queueWait = null;
+        }
+
+        int concurrency = Math.max(playwrightConfig.getMaxConcurrency(), 1);
+        ThreadFactory threadFactory = Thread.ofPlatform().name("playwright-worker-", 0).daemon().factory();
+        for (int i = 0; i < concurrency; i++) {
+            Thread worker = threadFactory.newThread(new Worker());
+            workers.add(worker);
+            worker.start();
+        }
+        log.info("Created a pool of {} Playwright workers", concurrency);
+    }
+
+    /**
+     * Run a task with a page of a free worker, waiting at most the queue timeout for a worker. Exceptions
+     * thrown by the task are rethrown as is.
+     */
+    public <T> T withPage(Function<Page, T> function) {
+        if (closed) {
+            throw new IllegalStateException("The browser pool is closed");
+        }
+
+        Task<T> task = new Task<>(function, new CompletableFuture<>(), System.nanoTime());
+        tasks.add(task);
+        try {
+            return task.result().get(playwrightConfig.getQueueTimeout() + playwrightConfig.getTimeout(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            task.result().cancel(false);
+            throw new IllegalStateException("Interrupted while waiting for a browser", e);
+        } catch (TimeoutException e) {
+            task.result().cancel(false);
+            throw new IllegalStateException("No browser available after " + playwrightConfig.getQueueTimeout() + "ms", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Browser task failed", e.getCause());
+        }
+    }
+
+    public int getQueueSize() {
+        return tasks.size();
+    }
+
+    public int getActiveCount() {
+        return activeWorkers.get();
+    }
+
+    @PreDestroy
+    public void close() {
+        closed = true;
+        workers.forEach(Thread::interrupt);
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        Task<?> task;
+        while ((task = tasks.poll()) != null) {
+            task.result().completeExceptionally(new IllegalStateException("The browser pool is closed"));
+        }
+    }
+
+    /**
+     * Whether a request is blocked by resource type or domain. The document itself is never blocked.
+     */
+    static boolean isBlocked(String resourceType, String url, Set<String> resourceTypes, List<String> domains) {
+        if ("document".equals(resourceType)) {
+            return false;
+        }
+        if (resourceTypes.contains(resourceType)) {
+            return true;
+        }
+        if (domains.isEmpty()) {
+            return false;
+        }
+
+        String host;
+        try {
+            host = URI.create(url).getHost();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (host == null) {
+            return false;
+        }
+
+        host = host.toLowerCase(Locale.ROOT);
+        for (String domain : domains) {
+            String blocked = domain.toLowerCase(Locale.ROOT);
+            if (host.equals(blocked) || host.endsWith("." + blocked)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Task<T>(Function<Page, T> function, CompletableFuture<T> result, long enqueuedAt) {
+    }
+
+    /**
+     * Runs the tasks on its own Playwright objects, which are only used and closed by its thread
+     */
+    private class Worker implements Runnable {
+
+        private Playwright playwright;
+
+        private Browser browser;
+
+        @Override
+        public void run() {
+            try {
+                while (!closed) {
+                    Task<?> task = tasks.take();
+                    if (task.result().isDone()) {
+                        // Cancelled by a caller which stopped waiting
+                        continue;
+                    }
+
+                    long waited = System.nanoTime() - task.enqueuedAt();
+                    if (queueWait != null) {
+                        queueWait.record(waited, TimeUnit.NANOSECONDS);
+                    }
+
+                    activeWorkers.incrementAndGet();
+                    try {
+                        execute(task);
+                    } finally {
+                        activeWorkers.decrementAndGet();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                closeBrowser();
+            }
+        }
+
+        // The context is closed before the result is returned, nothing of the task is left for the next one
+        private <T> void execute(Task<T> task) {
+            BrowserContext context = null;
+            T value;
+            try {
+                context = newContext();
+                value = task.function().apply(context.newPage());
+            } catch (RuntimeException e) {
+                closeContext(context);
+                if (browser != null && !browser.isConnected()) {
+                    log.warn("Browser disconnected, it will be launched again", e);
+                    closeBrowser();
+                }
+                task.result().completeExceptionally(e);
+                return;
+            }
+
+            closeContext(context);
+            task.result().complete(value);
+        }
+
+        private BrowserContext newContext() {
+            if (playwright == null) {
+                try {
+                    playwright = playwrightFactory.get();
+                    browser = playwright.chromium().launch(new BrowserType.LaunchOptions()
+                            .setHeadless(playwrightConfig.isHeadless()));
+                } catch (RuntimeException e) {
+                    closeBrowser();
+                    throw e;
+                }
+                log.debug("Launched the browser of {}", Thread.currentThread().getName());
+            }
+
+            BrowserContext context = browser.newContext(new Browser.NewContextOptions().setUserAgent(USER_AGENT));
+            installRouting(context);
+            return context;
+        }
+
+        private void installRouting(BrowserContext context) {
+            Set<String> resourceTypes = new HashSet<>(playwrightConfig.getBlockedResourceTypes());
+            List<String> domains = playwrightConfig.getBlockedDomains();
+            if (resourceTypes.isEmpty() && domains.isEmpty()) {
+                // Routing sends every request through this thread, it is only worth it when blocking
+                return;
+            }
+
+            context.route("**/*", route -> {
+                Request request = route.request();
+                if (isBlocked(request.resourceType(), request.url(), resourceTypes, domains)) {
+                    route.abort();
+                } else {
+                    route.resume();
+                }
+            });
+        }
+
+        private void closeContext(BrowserContext context) {
+            if (context != null) {
+                try {
+                    // Closes its pages as well
+                    context.close();
+                } catch (RuntimeException e) {
+                    log.debug("Failed to close browser context", e);
+                }
+            }
+        }
+
+        private void closeBrowser() {
+            if (playwright != null) {
+                try {
+                    // Closes the browser and its contexts as well
+                    playwright.close();
+                } catch (RuntimeException e) {
+                    log.warn("Failed to close Playwright", e);
+                }
+            }
+            playwright = null;
+            browser = null;
+        }
+    }
+}
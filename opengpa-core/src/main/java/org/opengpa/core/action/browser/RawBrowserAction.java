@@ -4,11 +4,12 @@ import org.opengpa.core.action.ActionParameter;
 import org.opengpa.core.action.ActionResult;
 import org.opengpa.core.action.LegacyActionAdapter;
 import org.opengpa.core.agent.Agent;
+import org.opengpa.core.http.FetchCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 import java.util.List;
@@ -22,11 +23,11 @@ public class RawBrowserAction extends LegacyActionAdapter {
 
     private static final int MAX_CONTENT_SIZE = 1000;
 
-    private final WebClient webClient;
+    private final FetchCache fetchCache;
 
-    public RawBrowserAction(WebClient webClient) {
+    public RawBrowserAction(FetchCache fetchCache) {
         log.info("Creating RawBrowserAction");
-        this.webClient = webClient;
+        this.fetchCache = fetchCache;
     }
 
     @Override
@@ -59,11 +60,8 @@ public class RawBrowserAction extends LegacyActionAdapter {
 
         String content;
         try {
-            content = webClient.get()
-                    .uri(url)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
+            // Only the characters kept in the result are downloaded
+            content = fetchCache.get(url, new HttpHeaders(), null, fetchLength()).getBody();
         } catch (WebClientResponseException e) {
             return handleWebFetchError(agent, url, String.format("Could not fetch url, error with http status code %d", e.getStatusCode().value()));
         } catch (Exception e) {
@@ -78,6 +76,10 @@ public class RawBrowserAction extends LegacyActionAdapter {
                 .build();
     }
 
+    protected int fetchLength() {
+        return MAX_CONTENT_SIZE;
+    }
+
     protected Map<String, String> formatResult(String url, String content) {
         return Map.of(
                 "url", url,
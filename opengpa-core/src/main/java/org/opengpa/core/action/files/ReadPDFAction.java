@@ -1,13 +1,12 @@
 package org.opengpa.core.action.files;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.text.PDFTextStripper;
 import org.opengpa.core.action.Action;
 import org.opengpa.core.action.ActionParameter;
 import org.opengpa.core.action.ActionResult;
 import org.opengpa.core.action.LegacyActionAdapter;
 import org.opengpa.core.agent.Agent;
+import org.opengpa.core.util.PdfPageExtractor;
 import org.opengpa.core.workspace.Document;
 import org.opengpa.core.workspace.Workspace;
 import org.springframework.ai.chat.messages.Message;
@@ -16,9 +15,9 @@ import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.model.Generation;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
@@ -30,6 +29,11 @@ import java.util.Optional;
 public class ReadPDFAction extends LegacyActionAdapter {
 
     public static final String ACTION_NAME = "readPDF";
+
+    // Maximum number of characters of the PDF included in the prompt
+    public static final int MAX_CONTENT_LENGTH = 100_000;
+
+    private final PdfPageExtractor pdfPageExtractor = new PdfPageExtractor();
     private final ChatModel chatModel;
     private final Workspace workspace;
 
@@ -106,11 +110,18 @@ public class ReadPDFAction extends LegacyActionAdapter {
                     .build();
         }
         
-        byte[] pdfContent = workspace.getDocumentContent(agent.getId(), filename);
-        
+        Optional<Resource> pdfContent = workspace.getDocumentResource(agent.getId(), filename);
+        if (pdfContent.isEmpty()) {
+            return ActionResult.builder()
+                    .status(ActionResult.Status.FAILURE)
+                    .summary(String.format("I could not find the PDF file %s in the workspace.", filename))
+                    .error("PDF file not found.")
+                    .build();
+        }
+
         try {
             // Extract text from PDF
-            String extractedText = parsePDF(pdfContent);
+            String extractedText = parsePDF(pdfContent.get());
             
             if (extractedText.trim().isEmpty()) {
                 return ActionResult.builder()
@@ -147,10 +158,26 @@ public class ReadPDFAction extends LegacyActionAdapter {
         }
     }
     
-    protected String parsePDF(byte[] content) throws IOException {
-        try (PDDocument document = PDDocument.load(new ByteArrayInputStream(content))) {
-            PDFTextStripper stripper = new PDFTextStripper();
-            return stripper.getText(document);
+    /**
+     * Extract the text of the first pages of the PDF, up to MAX_CONTENT_LENGTH characters
+     */
+    protected String parsePDF(Resource content) throws IOException {
+        try (PdfPageExtractor.Pages pages = content.isFile()
+                ? pdfPageExtractor.open(content.getFile().toPath())
+                : pdfPageExtractor.open(content.getInputStream())) {
+            StringBuilder text = new StringBuilder();
+            int pageNumber = 0;
+            while (pages.hasNext()) {
+                String page = pages.next();
+                pageNumber++;
+                if (text.length() + page.length() > MAX_CONTENT_LENGTH) {
+                    text.append(page, 0, MAX_CONTENT_LENGTH - text.length());
+                    text.append(String.format("%n[Content truncated at page %d of %d]%n", pageNumber, pages.getPageCount()));
+                    break;
+                }
+                text.append(page);
+            }
+            return text.toString();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,151 @@
+package org.opengpa.core.action.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeTraversor;
+import org.opengpa.core.config.SearchConfig;
+import org.opengpa.core.http.FetchCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Searches the html version of DuckDuckGo, through the fetch cache and the shared WebClient.
+ *
+ * Failed requests are retried after an exponential backoff with full jitter, so that agents searching at the
+ * same time do not retry together. Only the first results of the page are read, and results missing a link
+ * are skipped.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "opengpa.actions", name = "search", havingValue = "duckduckgo", matchIfMissing = true)
+public class DuckDuckGoSearchProvider implements SearchProvider {
+
+    private static final String SEARCH_URL = "https://html.duckduckgo.com/html/?q=";
+
+    private static final int MAX_SNIPPET_LENGTH = 250;
+
+    private final FetchCache fetchCache;
+
+    private final SearchConfig searchConfig;
+
+    public DuckDuckGoSearchProvider(FetchCache fetchCache, SearchConfig searchConfig) {
+        this.fetchCache = fetchCache;
+        this.searchConfig = searchConfig;
+    }
+
+    @Override
+    public String getName() {
+        return "duckduckgo";
+    }
+
+    @Override
+    public List<SearchResult> search(String query, int maxResults) {
+        String url = SEARCH_URL + URLEncoder.encode(query, StandardCharsets.UTF_8);
+        return parseResults(Jsoup.parse(fetch(url), url), maxResults);
+    }
+
+    private String fetch(String url) {
+        int attempt = 0;
+        while (true) {
+            try {
+                String html = fetchCache.get(url, new HttpHeaders(), Duration.ofMillis(searchConfig.getTimeout())).getBody();
+                return html != null ? html : "";
+            } catch (RuntimeException e) {
+                if (attempt >= searchConfig.getMaxRetries() || !isRetryable(e)) {
+                    throw e;
+                }
+
+                long delay = ThreadLocalRandom.current().nextLong(searchConfig.getRetryBackoff() * (1L << attempt) + 1);
+                attempt++;
+                log.debug("Search request failed, retry {} in {}ms: {}", attempt, delay, e.getMessage());
+                sleep(delay);
+            }
+        }
+    }
+
+    static boolean isRetryable(RuntimeException e) {
+        if (e instanceof WebClientResponseException responseException) {
+            int status = responseException.getStatusCode().value();
+            return status == 429 || status >= 500;
+        }
+        // Network errors, and the timeouts of the blocking read which are reported with a TimeoutException cause
+        return e instanceof WebClientRequestException || e.getCause() instanceof TimeoutException;
+    }
+
+    static List<SearchResult> parseResults(Document document, int maxResults) {
+        List<SearchResult> results = new ArrayList<>();
+        Element links = document.getElementById("links");
+        if (links == null) {
+            return results;
+        }
+
+        // The page is walked until enough results are read, the following results are never visited
+        NodeTraversor.filter((node, depth) -> {
+            if (results.size() >= maxResults) {
+                return NodeFilter.FilterResult.STOP;
+            }
+            if (!(node instanceof Element result) || !result.hasClass("results_links")) {
+                return NodeFilter.FilterResult.CONTINUE;
+            }
+
+            SearchResult searchResult = parseResult(result);
+            if (searchResult != null) {
+                results.add(searchResult);
+            }
+            return NodeFilter.FilterResult.SKIP_ENTIRELY;
+        }, links);
+        return results;
+    }
+
+    private static SearchResult parseResult(Element result) {
+        Element title = result.selectFirst(".links_main a");
+        if (title == null || title.attr("href").isEmpty()) {
+            return null;
+        }
+        Element snippet = result.selectFirst(".result__snippet");
+        String snippetText = snippet != null ? snippet.text() : "";
+        if (snippetText.length() > MAX_SNIPPET_LENGTH) {
+            snippetText = snippetText.substring(0, MAX_SNIPPET_LENGTH);
+        }
+        return new SearchResult(targetUrl(title.attr("href")), title.text(), snippetText);
+    }
+
+    // Links of the html version go through a redirection, with the target in the uddg parameter
+    private static String targetUrl(String href) {
+        int start = href.indexOf("uddg=");
+        if (start < 0) {
+            return href;
+        }
+        int end = href.indexOf('&', start);
+        String target = href.substring(start + "uddg=".length(), end < 0 ? href.length() : end);
+        try {
+            return URLDecoder.decode(target, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return href;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying the search", e);
+        }
+    }
+}
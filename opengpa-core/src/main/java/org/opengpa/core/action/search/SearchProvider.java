@@ -0,0 +1,19 @@
+package org.opengpa.core.action.search;
+
+import java.util.List;
+
+/**
+ * A web search engine used by the search_web action.
+ *
+ * Implementations are components enabled by the value of opengpa.actions.search, in the way of the browse
+ * actions, so that a single provider is active. Failures are thrown, the action reports them to the agent.
+ */
+public interface SearchProvider {
+
+    String getName();
+
+    /**
+     * Search the web, returning at most maxResults results in the order of the engine
+     */
+    List<SearchResult> search(String query, int maxResults);
+}
@@ -0,0 +1,39 @@
+package org.opengpa.core.action.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.ConfigurationCondition;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+/**
+ * Matches when a SearchProvider is registered for opengpa.actions.search. The condition is evaluated once all the
+ * scanned beans are registered, and logs a warning when the property names a provider that does not exist.
+ */
+class SearchProviderCondition implements ConfigurationCondition {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchProviderCondition.class);
+
+    @Override
+    public ConfigurationPhase getConfigurationPhase() {
+        return ConfigurationPhase.REGISTER_BEAN;
+    }
+
+    @Override
+    public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        String providerName = context.getEnvironment().getProperty("opengpa.actions.search", "duckduckgo");
+        if ("false".equalsIgnoreCase(providerName)) {
+            return false;
+        }
+
+        if (context.getBeanFactory() != null
+                && context.getBeanFactory().getBeanNamesForType(SearchProvider.class, true, false).length > 0) {
+            log.info("Creating {} action with the {} search provider", SearchWebAction.ACTION_NAME, providerName);
+            return true;
+        }
+
+        log.warn("No search provider for opengpa.actions.search={}, the {} action is disabled",
+                providerName, SearchWebAction.ACTION_NAME);
+        return false;
+    }
+}
@@ -0,0 +1,4 @@
+package org.opengpa.core.action.search;
+
+public record SearchResult(String url, String title, String snippet) {
+}
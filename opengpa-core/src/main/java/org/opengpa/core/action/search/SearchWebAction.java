@@ -1,45 +1,35 @@
 package org.opengpa.core.action.search;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.VisibleForTesting;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
-import org.opengpa.core.action.Action;
 import org.opengpa.core.action.ActionParameter;
 import org.opengpa.core.action.ActionResult;
 import org.opengpa.core.action.LegacyActionAdapter;
-import org.opengpa.core.action.files.ReadFileAction;
 import org.opengpa.core.agent.Agent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Conditional;
 import org.springframework.stereotype.Component;
 
-import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Searches the web with the SearchProvider selected by opengpa.actions.search. The action is disabled when the
+ * property is set to false, or to a value without a provider.
+ */
 @Component
-@ConditionalOnProperty(prefix="opengpa.actions", name="search", havingValue = "duckduckgo", matchIfMissing = true)
+@Conditional(SearchProviderCondition.class)
 public class SearchWebAction extends LegacyActionAdapter {
 
     public static final String ACTION_NAME = "search_web";
 
-    private static final Logger log = LoggerFactory.getLogger(ReadFileAction.class);
+    private static final Logger log = LoggerFactory.getLogger(SearchWebAction.class);
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private static final int MAX_RESULTS = 5;
 
-    private final static String DUCKDUCKGO_SEARCH_URL = "https://duckduckgo.com/html/?q=";
+    private final SearchProvider searchProvider;
 
-    public record SearchResult(String url, String title, String snippet) {
-    }
-
-    public SearchWebAction() {
-        log.info("Creating SearchWebAction");
+    public SearchWebAction(SearchProvider searchProvider) {
+        this.searchProvider = searchProvider;
     }
 
     @Override
@@ -93,25 +83,7 @@ public class SearchWebAction extends LegacyActionAdapter {
         }
     }
 
-    public List<SearchResult> getSearchResults(String query) throws IOException {
-        Elements results = fetchSearchResults(query);
-        List<SearchResult> resultList = new ArrayList<>();
-
-        for (Element result : results) {
-            Element title = result.getElementsByClass("links_main").first().getElementsByTag("a").first();
-            Element snippet = result.getElementsByClass("result__snippet").first();
-            String snippetText = snippet.text().substring(0, snippet.text().length() > 250 ? 250 : snippet.text().length());
-
-            resultList.add(new SearchResult(title.attr("href"), title.text(), snippetText));
-        }
-
-        return resultList.subList(0, resultList.size() > 5 ? 5 : resultList.size());
-    }
-
-    @VisibleForTesting
-    Elements fetchSearchResults(String query) throws IOException {
-        Document doc = Jsoup.connect(DUCKDUCKGO_SEARCH_URL + query).get();
-        Elements results = doc.getElementById("links").getElementsByClass("results_links");
-        return results;
+    public List<SearchResult> getSearchResults(String query) {
+        return searchProvider.search(query, MAX_RESULTS);
     }
-}
\ No newline at end of file
+}
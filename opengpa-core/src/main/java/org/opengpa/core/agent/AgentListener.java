@@ -0,0 +1,44 @@
+package org.opengpa.core.agent;
+
+import org.opengpa.core.action.ActionResult;
+
+/**
+ * Receives the progress of an agent while a step is being executed.
+ *
+ * Callbacks are invoked on the thread executing the step, or on the threads executing its parallel actions,
+ * implementations must be thread safe, return quickly and hand off any slow work. All methods have an empty
+ * default implementation.
+ */
+public interface AgentListener {
+
+    /**
+     * A new step is starting with the given user input, which can be null or empty
+     */
+    default void onUserInput(Agent agent, String userInput) {
+    }
+
+    /**
+     * The LLM explained its reasoning for the next action
+     */
+    default void onReasoning(Agent agent, String reasoning) {
+    }
+
+    /**
+     * Characters of the reasoning as they are streamed by the LLM, before the whole reasoning is reported to
+     * onReasoning. Only invoked when the agent streams the LLM response.
+     */
+    default void onReasoningDelta(Agent agent, String delta) {
+    }
+
+    /**
+     * An action is about to be executed
+     */
+    default void onActionStarted(Agent agent, ActionInvocation action) {
+    }
+
+    /**
+     * An action has been executed, or continued, with the given result
+     */
+    default void onActionCompleted(Agent agent, ActionInvocation action, ActionResult result) {
+    }
+}
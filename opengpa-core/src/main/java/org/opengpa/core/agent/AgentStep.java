@@ -7,12 +7,13 @@ import lombok.Builder;
 import lombok.Data;
 import org.opengpa.core.action.ActionResult;
 
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 @Data
 @Builder
-@JsonPropertyOrder({ "id", "input", "reasoning", "action", "final", "result", "feedback", "state"})
+@JsonPropertyOrder({ "id", "input", "reasoning", "action", "final", "result", "parallelActions", "parallelResults", "feedback", "state"})
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
 public class AgentStep {
 
@@ -32,6 +33,11 @@ public class AgentStep {
 
     ActionResult result;
 
+    // Additional actions executed at the same time as the main one, and their results in the same order
+    List<ActionInvocation> parallelActions;
+
+    List<ActionResult> parallelResults;
+
     boolean isFinal;
 
     // Helper methods for state checking
@@ -0,0 +1,79 @@
+package org.opengpa.core.agent.react;
+
+import org.springframework.core.io.Resource;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A prompt template with simple {variable} placeholders, parsed once and rendered many times.
+ *
+ * This covers the subset of the StringTemplate syntax used by the ReAct prompts, without loading
+ * the resource and compiling a new template at each step. Instances are immutable and thread safe.
+ */
+class CompiledPromptTemplate {
+
+    private static final Pattern VARIABLE = Pattern.compile("\\{([a-zA-Z_][a-zA-Z0-9_]*)}");
+
+    // Even positions are literal text, odd positions are variable names
+    private final List<String> segments;
+
+    private final int literalLength;
+
+    private CompiledPromptTemplate(List<String> segments) {
+        this.segments = List.copyOf(segments);
+        int length = 0;
+        for (int i = 0; i < segments.size(); i += 2) {
+            length += segments.get(i).length();
+        }
+        this.literalLength = length;
+    }
+
+    static CompiledPromptTemplate compile(String template) {
+        List<String> segments = new ArrayList<>();
+        Matcher matcher = VARIABLE.matcher(template);
+        int position = 0;
+        while (matcher.find()) {
+            segments.add(template.substring(position, matcher.start()));
+            segments.add(matcher.group(1));
+            position = matcher.end();
+        }
+        segments.add(template.substring(position));
+        return new CompiledPromptTemplate(segments);
+    }
+
+    static CompiledPromptTemplate compile(Resource resource) {
+        try (InputStream inputStream = resource.getInputStream()) {
+            return compile(StreamUtils.copyToString(inputStream, Charset.defaultCharset()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read prompt template " + resource.getDescription(), e);
+        }
+    }
+
+    String render(Map<String, ?> variables) {
+        StringBuilder builder = new StringBuilder(literalLength + 1024);
+        for (int i = 0; i < segments.size(); i++) {
+            String segment = segments.get(i);
+            if (i % 2 == 0) {
+                builder.append(segment);
+            } else {
+                if (!variables.containsKey(segment)) {
+                    throw new IllegalArgumentException("Missing value for template variable " + segment);
+                }
+                Object value = variables.get(segment);
+                if (value != null) {
+                    builder.append(value);
+                }
+            }
+        }
+        return builder.toString();
+    }
+}
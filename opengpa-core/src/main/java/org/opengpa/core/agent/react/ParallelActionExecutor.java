@@ -0,0 +1,86 @@
+package org.opengpa.core.agent.react;
+
+import lombok.extern.slf4j.Slf4j;
+import org.opengpa.core.action.ActionResult;
+import org.opengpa.core.agent.ActionInvocation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Executes the independent actions of a ReAct step concurrently.
+ *
+ * Actions run on a bounded pool shared by all the agents using this executor. When the pool is saturated,
+ * the agent thread runs the action itself, which slows down the agents instead of queuing without bounds.
+ * The number of concurrent executions of a same action is also limited, to spare the services behind it.
+ */
+@Slf4j
+public class ParallelActionExecutor implements AutoCloseable {
+
+    private final ThreadPoolExecutor executor;
+
+    private final int maxConcurrencyPerAction;
+
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+
+    public ParallelActionExecutor(int threads, int maxConcurrencyPerAction) {
+        this.maxConcurrencyPerAction = maxConcurrencyPerAction;
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * 4),
+                Thread.ofPlatform().name("parallel-action-", 0).daemon().factory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Execute the given invocations concurrently and return their results in the same order.
+     * An invocation that throws is reported as a failed result.
+     */
+    public List<ActionResult> execute(List<ActionInvocation> invocations, Function<ActionInvocation, ActionResult> runner) {
+        List<Future<ActionResult>> futures = new ArrayList<>(invocations.size());
+        for (ActionInvocation invocation : invocations) {
+            futures.add(executor.submit(() -> runWithPermit(invocation, runner)));
+        }
+
+        List<ActionResult> results = new ArrayList<>(invocations.size());
+        for (int i = 0; i < futures.size(); i++) {
+            results.add(await(invocations.get(i), futures.get(i)));
+        }
+        return results;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private ActionResult runWithPermit(ActionInvocation invocation, Function<ActionInvocation, ActionResult> runner) throws InterruptedException {
+        Semaphore semaphore = permits.computeIfAbsent(invocation.getName(), name -> new Semaphore(maxConcurrencyPerAction));
+        semaphore.acquire();
+        try {
+            return runner.apply(invocation);
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    private ActionResult await(ActionInvocation invocation, Future<ActionResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return ActionResult.failed(
+                    String.format("The action %s was interrupted.", invocation.getName()),
+                    "Parallel action interrupted");
+        } catch (ExecutionException e) {
+            log.warn("Parallel action {} failed", invocation.getName(), e.getCause());
+            return ActionResult.failed(
+                    String.format("The action %s failed with error: %s", invocation.getName(), e.getCause().getMessage()),
+                    String.format("Failed at executing action %s", invocation.getName()));
+        }
+    }
+}
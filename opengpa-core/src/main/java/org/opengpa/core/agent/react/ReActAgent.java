@@ -11,21 +11,21 @@ import org.opengpa.core.action.ActionResult;
 import org.opengpa.core.action.JsonSchemaUtils;
 import org.opengpa.core.agent.ActionInvocation;
 import org.opengpa.core.agent.Agent;
+import org.opengpa.core.agent.AgentListener;
 import org.opengpa.core.agent.AgentStep;
 import org.opengpa.core.workspace.Document;
 import org.opengpa.core.workspace.Workspace;
 import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.model.Generation;
 import org.springframework.ai.chat.prompt.ChatOptions;
 import org.springframework.ai.chat.prompt.Prompt;
-import org.springframework.ai.chat.prompt.PromptTemplate;
-import org.springframework.ai.chat.prompt.SystemPromptTemplate;
 import org.springframework.ai.converter.BeanOutputConverter;
 import org.springframework.ai.ollama.OllamaChatModel;
 import org.springframework.ai.ollama.api.OllamaOptions;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.core.io.Resource;
 
 import java.io.BufferedWriter;
 import java.io.File;
@@ -35,18 +35,22 @@ import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 @Slf4j
 public class ReActAgent implements Agent {
 
-    private final Resource stepSystemPromptResource = new ClassPathResource("prompts/reactSystemPrompt.st");
-
-    private final Resource stepUserPromptResource = new ClassPathResource("prompts/reactUserPrompt.st");
+    // Upper bound on the actions executed alongside the main action of a step
+    private static final int MAX_PARALLEL_ACTIONS = 8;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    private final ReActPromptCache promptCache;
+
     private final ChatModel chatModel;
 
     private final Workspace workspace;
@@ -55,8 +59,13 @@ public class ReActAgent implements Agent {
 
     private final List<AgentStep> executedSteps = new ArrayList<>();
 
+    // Rendered view of the executed steps, kept in sync so that steps are serialized only once
+    private final RenderedHistory history = new RenderedHistory(objectMapper);
+
     private final Map<String, AgentStep> ongoingActions = new HashMap<>();
 
+    private final List<AgentListener> listeners = new CopyOnWriteArrayList<>();
+
     private final String task;
 
     private final UUID uuid;
@@ -67,11 +76,21 @@ public class ReActAgent implements Agent {
 
     private boolean logInteractions = false;
 
+    private boolean streaming = false;
+
+    private ParallelActionExecutor parallelActionExecutor;
+
     private File logFolder;
 
 
     public ReActAgent(ChatModel chatModel, Workspace workspace, List<Action> availableActions, String task, Map<String, String> context) {
+        this(chatModel, workspace, availableActions, task, context, new ReActPromptCache());
+    }
+
+    public ReActAgent(ChatModel chatModel, Workspace workspace, List<Action> availableActions, String task,
+                      Map<String, String> context, ReActPromptCache promptCache) {
         this.chatModel = chatModel;
+        this.promptCache = promptCache;
         this.workspace = workspace;
         this.availableActions = availableActions;
         this.task = task;
@@ -105,8 +124,18 @@ public class ReActAgent implements Agent {
         return startTime;
     }
 
+    public void addListener(AgentListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(AgentListener listener) {
+        listeners.remove(listener);
+    }
+
     @Override
     public AgentStep executeNextStep(String userInput, Map<String, String> stateData, Map<String, String> context) {
+        notifyListeners(listener -> listener.onUserInput(this, userInput));
+
         // Check if we have an ongoing action that needs continuation
         if (!executedSteps.isEmpty()) {
             AgentStep lastStep = executedSteps.get(executedSteps.size() - 1);
@@ -119,6 +148,7 @@ public class ReActAgent implements Agent {
             // If a userInput is provided, it is just feedback
             if (userInput != null && !userInput.isEmpty()) {
                 lastStep.setFeedback(userInput);
+                history.refresh(lastStep);
             }
         }
 
@@ -128,36 +158,59 @@ public class ReActAgent implements Agent {
 
         // Prepare the system prompt. This one contains non user/task specific
         // information such as the list of possible actions.
-        PromptTemplate systemPrompt = new SystemPromptTemplate(stepSystemPromptResource);
-        Message systemMessage = systemPrompt.createMessage(Map.of(
+        Message systemMessage = new SystemMessage(promptCache.getSystemTemplate().render(Map.of(
                 "context", renderContext(context),
                 "actions", renderTools(availableActions),
-                "files", renderFiles(workspace.getDocuments(getId()))));
+                "files", renderFiles(workspace.getDocuments(getId())))));
 
         // Prepare the user prompt. This one contains all user/task specific actions.
-        BeanOutputConverter<ReActAgentOutput> outputConverter = new BeanOutputConverter<>(ReActAgentOutput.class);
+        BeanOutputConverter<ReActAgentOutput> outputConverter = promptCache.getOutputConverter();
 
-        PromptTemplate userPrompt = new PromptTemplate(stepUserPromptResource);
-        Message userMessage = userPrompt.createMessage(
+        Message userMessage = new UserMessage(promptCache.getUserTemplate().render(
                 Map.of("task", task,
                         "instructions", userInput,
-                        "format", outputConverter.getFormat(),
-                        "history", renderPreviousSteps(executedSteps)));
+                        "format", promptCache.getOutputFormat(),
+                        "history", history.render())));
 
         // Prepare the final prompt and add model specific options
         ChatOptions chatOptions = getOptions();
         Prompt prompt = new Prompt(List.of(systemMessage, userMessage), chatOptions);
 
         // Query the LLM (our 'brain') to decide on next action
-        Generation response = chatModel.call(prompt).getResult();
-
+        StringBuilder rawOutput = new StringBuilder();
         AgentStep step;
         try {
-            ReActAgentOutput agentOutput = parseNextAction(outputConverter, response);
-            logInteraction(systemMessage, userMessage, response.getOutput().getText());
-
-            // Execute the action requested by the LLM
-            ActionResult result = executeAction(agentOutput);
+            ReActAgentOutput agentOutput = streaming
+                    ? streamNextAction(prompt, outputConverter, rawOutput)
+                    : callNextAction(prompt, outputConverter, rawOutput);
+            logInteraction(systemMessage, userMessage, rawOutput.toString());
+
+            // Execute the action requested by the LLM, along with the independent actions listed with it
+            List<ActionInvocation> parallelActions = agentOutput.getParallelActions() == null
+                    ? List.of()
+                    : agentOutput.getParallelActions().stream().filter(Objects::nonNull).toList();
+
+            ActionResult result;
+            List<ActionResult> parallelResults = null;
+            if (parallelActions.isEmpty()) {
+                result = executeAndNotify(agentOutput.getAction());
+            } else {
+                List<ActionInvocation> invocations = new ArrayList<>(parallelActions.size() + 1);
+                if (agentOutput.getAction() != null) {
+                    invocations.add(agentOutput.getAction());
+                }
+                invocations.addAll(parallelActions.subList(0, Math.min(parallelActions.size(), MAX_PARALLEL_ACTIONS)));
+
+                List<ActionResult> results = executeAll(invocations);
+                result = agentOutput.getAction() != null ? results.get(0) : executeAction(null);
+                parallelResults = new ArrayList<>(results.subList(agentOutput.getAction() != null ? 1 : 0, results.size()));
+                rejectPendingResults(parallelActions, parallelResults);
+                for (int i = MAX_PARALLEL_ACTIONS; i < parallelActions.size(); i++) {
+                    parallelResults.add(ActionResult.failed(
+                            String.format("At most %d parallel actions can be executed in a step.", MAX_PARALLEL_ACTIONS),
+                            "Too many parallel actions"));
+                }
+            }
 
             step = AgentStep
                     .builder()
@@ -165,6 +218,8 @@ public class ReActAgent implements Agent {
                     .context(context)
                     .result(result)
                     .action(agentOutput.getAction())
+                    .parallelActions(parallelActions.isEmpty() ? null : parallelActions)
+                    .parallelResults(parallelResults)
                     .isFinal(agentOutput.isFinal())
                     .reasoning(agentOutput.getReasoning())
                     .build();
@@ -178,9 +233,38 @@ public class ReActAgent implements Agent {
         }
 
         executedSteps.add(step);
+        history.append(step);
         return step;
     }
 
+    /**
+     * Only the main action of a step can be continued, a parallel action awaiting input or still in progress is
+     * cancelled and reported as failed so that the model invokes it again as the main action.
+     */
+    private void rejectPendingResults(List<ActionInvocation> invocations, List<ActionResult> results) {
+        for (int i = 0; i < results.size(); i++) {
+            ActionResult result = results.get(i);
+            if (result == null || result.isCompleted() || result.isFailed()) {
+                continue;
+            }
+
+            ActionInvocation invocation = invocations.get(i);
+            availableActions.stream()
+                    .filter(a -> a.getName().equals(invocation.getName()))
+                    .findFirst()
+                    .ifPresent(action -> {
+                        try {
+                            action.cancelAction(this, result.getActionId());
+                        } catch (RuntimeException e) {
+                            log.warn("Failed to cancel parallel action {}", invocation.getName(), e);
+                        }
+                    });
+            results.set(i, ActionResult.failed(
+                    String.format("The action '%s' needs a continuation and cannot be executed in parallel_actions, invoke it as the main action.", invocation.getName()),
+                    String.format("Parallel action %s cancelled as it needs a continuation", invocation.getName())));
+        }
+    }
+
     private AgentStep errorStep(String userInput, Map<String, String> context, IllegalArgumentException e) {
         ActionResult errorResult = ActionResult.failed(
                 "Agent failed at invoking an action with error: " + e.getMessage(),
@@ -225,6 +309,7 @@ public class ReActAgent implements Agent {
 
             step.setResult(errorResult);
             step.setFinal(true);
+            history.refresh(step);
             return step;
         }
 
@@ -250,9 +335,21 @@ public class ReActAgent implements Agent {
 
         // Update ongoing actions map
         ongoingActions.remove(step.getResult().getActionId());
+        history.refresh(step);
+        notifyListeners(listener -> listener.onActionCompleted(this, step.getAction(), step.getResult()));
         return step;
     }
 
+    private void notifyListeners(Consumer<AgentListener> event) {
+        for (AgentListener listener : listeners) {
+            try {
+                event.accept(listener);
+            } catch (RuntimeException e) {
+                log.warn("Agent listener {} failed", listener, e);
+            }
+        }
+    }
+
     public void enableLogging(File logFolder) {
         logInteractions = true;
         this.logFolder = logFolder;
@@ -262,6 +359,25 @@ public class ReActAgent implements Agent {
         logInteractions = false;
     }
 
+    /**
+     * Stream the LLM response and dispatch the action as soon as it is complete, instead of waiting
+     * for the whole response. The reasoning is reported to the listeners as soon as it is available.
+     */
+    public void enableStreaming() {
+        streaming = true;
+    }
+
+    public void disableStreaming() {
+        streaming = false;
+    }
+
+    /**
+     * Execute the parallel actions of a step on the given executor, they are executed sequentially otherwise
+     */
+    public void enableParallelActions(ParallelActionExecutor parallelActionExecutor) {
+        this.parallelActionExecutor = parallelActionExecutor;
+    }
+
     private void logInteraction(Message systemMessage, Message userMessage, String content) {
         if (!logInteractions) return;
         try {
@@ -303,14 +419,70 @@ public class ReActAgent implements Agent {
         return this.context;
     }
 
-    private ReActAgentOutput parseNextAction(BeanOutputConverter<ReActAgentOutput> outputConverter, Generation response) {
-        if (response == null | response.getOutput() == null | Strings.isBlank(response.getOutput().getText())) {
+    private ReActAgentOutput callNextAction(Prompt prompt, BeanOutputConverter<ReActAgentOutput> outputConverter, StringBuilder rawOutput) {
+        String content = responseText(chatModel.call(prompt).getResult());
+        if (content != null) {
+            rawOutput.append(content);
+        }
+
+        ReActAgentOutput output = parseNextAction(outputConverter, content);
+        notifyListeners(listener -> listener.onReasoning(this, output.getReasoning()));
+        return output;
+    }
+
+    private ReActAgentOutput streamNextAction(Prompt prompt, BeanOutputConverter<ReActAgentOutput> outputConverter, StringBuilder rawOutput) {
+        StreamingOutputParser parser = new StreamingOutputParser(objectMapper,
+                reasoning -> notifyListeners(listener -> listener.onReasoning(this, reasoning)),
+                delta -> notifyListeners(listener -> listener.onReasoningDelta(this, delta)));
+
+        Stream<ChatResponse> responses;
+        try {
+            responses = chatModel.stream(prompt).toStream();
+        } catch (UnsupportedOperationException e) {
+            log.warn("Chat model {} does not support streaming, falling back to blocking calls", chatModel.getClass().getSimpleName());
+            streaming = false;
+            return callNextAction(prompt, outputConverter, rawOutput);
+        }
+
+        // Closing the stream cancels the request, there is no need to wait for trailing tokens
+        try (responses) {
+            Iterator<ChatResponse> iterator = responses.iterator();
+            while (!parser.isComplete() && iterator.hasNext()) {
+                String chunk = responseText(iterator.next().getResult());
+                if (chunk != null) {
+                    rawOutput.append(chunk);
+                    parser.feed(chunk);
+                }
+            }
+        }
+
+        // The stream may end without closing the object, the output read so far is then used as is
+        if (parser.isComplete() || parser.hasRequiredFields()) {
+            return parser.getOutput();
+        }
+
+        // The output could not be parsed incrementally, parse the full response instead
+        ReActAgentOutput output = parseNextAction(outputConverter, rawOutput.toString());
+        if (!parser.hasReasoning()) {
+            notifyListeners(listener -> listener.onReasoning(this, output.getReasoning()));
+        }
+        return output;
+    }
+
+    private static String responseText(Generation generation) {
+        if (generation == null || generation.getOutput() == null) {
+            return null;
+        }
+        return generation.getOutput().getText();
+    }
+
+    private ReActAgentOutput parseNextAction(BeanOutputConverter<ReActAgentOutput> outputConverter, String content) {
+        if (Strings.isBlank(content)) {
             throw new IllegalArgumentException("Invoked action is null or empty");
         }
 
         // Some LLM might ignore the directive and enclose the json within ```json which is good enough
-        String content = response.getOutput().getText();
-        if (response.getOutput().getText().startsWith("```")) {
+        if (content.startsWith("```")) {
             Pattern pattern = Pattern.compile("```[a-z]*(.*)```", Pattern.DOTALL);
             Matcher matcher = pattern.matcher(content);
             if (matcher.find()) {
@@ -329,35 +501,12 @@ public class ReActAgent implements Agent {
 
     @VisibleForTesting
     String renderPreviousSteps(List<AgentStep> steps) {
-        try {
-            return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(steps);
-        } catch (JsonProcessingException e) {
-            log.warn("Failed to render steps", e);
-            return "[]";
-        }
+        return new RenderedHistory(objectMapper, steps).render();
     }
 
     @VisibleForTesting
     String renderTools(List<Action> actions) {
-        List<ActionDTO> actionsMap = new ArrayList<>();
-
-        for (Action action : actions) {
-            // Build action representation with both legacy parameters and JSON schema
-            ActionDTO.ActionDTOBuilder builder = ActionDTO.builder()
-                    .name(action.getName())
-                    .description(action.getDescription())
-                    .parameters(action.getJsonSchema())
-                    .data(action.getData(context));
-            
-            actionsMap.add(builder.build());
-        }
-
-        try {
-            return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(actionsMap);
-        } catch (JsonProcessingException e) {
-            log.warn("Failed to render tools", e);
-            return "[]";
-        }
+        return promptCache.renderTools(actions, context);
     }
 
     @VisibleForTesting
@@ -372,17 +521,38 @@ public class ReActAgent implements Agent {
 
     @VisibleForTesting
     String renderFiles(List<Document> documents) {
+        // The size and checksum of the documents are of no use to the model, only the name and metadata are rendered
+        List<RenderedFile> files = documents.stream()
+                .map(document -> new RenderedFile(document.getName(), document.getMetadata()))
+                .toList();
         try {
-            return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(documents);
+            return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(files);
         } catch (JsonProcessingException e) {
             log.warn("Failed to render documents", e);
             return "[]";
         }
     }
 
-    private ActionResult executeAction(ReActAgentOutput output) {
-        if (output.getAction() != null) {
-            ActionInvocation action = output.getAction();
+    private List<ActionResult> executeAll(List<ActionInvocation> invocations) {
+        if (parallelActionExecutor == null) {
+            return invocations.stream().map(this::executeAndNotify).toList();
+        }
+        return parallelActionExecutor.execute(invocations, this::executeAndNotify);
+    }
+
+    private ActionResult executeAndNotify(ActionInvocation action) {
+        if (action == null) {
+            return executeAction(null);
+        }
+
+        notifyListeners(listener -> listener.onActionStarted(this, action));
+        ActionResult result = executeAction(action);
+        notifyListeners(listener -> listener.onActionCompleted(this, action, result));
+        return result;
+    }
+
+    private ActionResult executeAction(ActionInvocation action) {
+        if (action != null) {
             Optional<Action> matchingAction = availableActions.stream().filter(a -> a.getName().equals(action.getName())).findFirst();
             if (matchingAction.isPresent()) {
                 Action actionToExecute = matchingAction.get();
@@ -390,7 +560,7 @@ public class ReActAgent implements Agent {
                 // Validate input against JSON schema if available
                 JsonNode schema = actionToExecute.getJsonSchema();
                 if (schema != null) {
-                    List<String> validationErrors = JsonSchemaUtils.validateAgainstSchema(schema, action.getParameters());
+                    List<String> validationErrors = JsonSchemaUtils.validateAgainstSchema(actionToExecute.getName(), schema, action.getParameters());
                     if (!validationErrors.isEmpty()) {
                         // Return validation error to the agent
                         StringBuilder errorBuilder = new StringBuilder("Invalid input parameters:\n");
@@ -419,4 +589,7 @@ public class ReActAgent implements Agent {
                 .summary("No action at this step.")
                 .build();
     }
-}
\ No newline at end of file
+
+    private record RenderedFile(String name, Map<String, String> metadata) {
+    }
+}
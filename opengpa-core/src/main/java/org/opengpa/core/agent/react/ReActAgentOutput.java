@@ -8,11 +8,13 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.opengpa.core.agent.ActionInvocation;
 
+import java.util.List;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
-@JsonPropertyOrder({ "reasoning", "is_final", "action"})
+@JsonPropertyOrder({ "reasoning", "is_final", "parallel_actions", "action"})
 public class ReActAgentOutput {
 
     @JsonProperty(value = "is_final", required = true)
@@ -21,6 +23,11 @@ public class ReActAgentOutput {
     @JsonProperty(required = true)
     private String reasoning;
 
+    // Independent actions executed at the same time as the main action, listed before it so that
+    // a streamed output is complete once the main action is read
+    @JsonProperty(value = "parallel_actions")
+    private List<ActionInvocation> parallelActions;
+
     @JsonProperty(required = true)
     private ActionInvocation action;
 
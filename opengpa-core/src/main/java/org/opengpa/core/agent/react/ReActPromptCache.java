@@ -0,0 +1,221 @@
+package org.opengpa.core.agent.react;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.opengpa.core.action.Action;
+import org.springframework.ai.converter.BeanOutputConverter;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of the prompt fragments used by {@link ReActAgent} that do not change from one step to the next.
+ *
+ * The prompt templates and the output format are built once. The JSON rendering of each action is built
+ * once per action instance and the list of fragments once per distinct action set. The actions declaring
+ * dynamic data are asked for their data at each step, and rendered again only when it is a different instance
+ * from the last renderings. A single instance is meant to be shared by all the agents of an application.
+ */
+@Slf4j
+public class ReActPromptCache {
+
+    private static final int MAX_ACTION_SETS = 256;
+
+    private static final int MAX_ACTIONS = 1024;
+
+    private final ObjectWriter writer = new ObjectMapper().writerWithDefaultPrettyPrinter();
+
+    private final CompiledPromptTemplate systemTemplate =
+            CompiledPromptTemplate.compile(new ClassPathResource("prompts/reactSystemPrompt.st"));
+
+    private final CompiledPromptTemplate userTemplate =
+            CompiledPromptTemplate.compile(new ClassPathResource("prompts/reactUserPrompt.st"));
+
+    private final BeanOutputConverter<ReActAgentOutput> outputConverter = new BeanOutputConverter<>(ReActAgentOutput.class);
+
+    private final String outputFormat = outputConverter.getFormat();
+
+    private final Map<ActionSetKey, List<String>> renderedTools = new ConcurrentHashMap<>();
+
+    // Actions do not override equals, so this is keyed by action instance
+    private final Map<Action, String> renderedActions = new ConcurrentHashMap<>();
+
+    // Renderings of the dynamic actions, keyed by action and data instance
+    private final Map<DynamicDataKey, String> renderedData = new ConcurrentHashMap<>();
+
+    private final AtomicLong version = new AtomicLong();
+
+    CompiledPromptTemplate getSystemTemplate() {
+        return systemTemplate;
+    }
+
+    CompiledPromptTemplate getUserTemplate() {
+        return userTemplate;
+    }
+
+    BeanOutputConverter<ReActAgentOutput> getOutputConverter() {
+        return outputConverter;
+    }
+
+    String getOutputFormat() {
+        return outputFormat;
+    }
+
+    /**
+     * Render the list of actions available to the agent, reusing the cached rendering of every action
+     * that does not declare dynamic data.
+     */
+    String renderTools(List<Action> actions, Map<String, String> context) {
+        if (actions.isEmpty()) {
+            return "[ ]";
+        }
+
+        List<String> fragments = renderedTools.get(new ActionSetKey(actions, version.get()));
+        if (fragments == null) {
+            fragments = cacheTools(actions);
+        }
+
+        StringBuilder builder = new StringBuilder("[ ");
+        for (int i = 0; i < actions.size(); i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            String fragment = fragments.get(i);
+            builder.append(fragment != null ? fragment : renderDynamicAction(actions.get(i), context));
+        }
+        return builder.append(" ]").toString();
+    }
+
+    /**
+     * Drop all cached action renderings, e.g. after the description or schema of an action changed.
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        renderedTools.clear();
+        renderedActions.clear();
+        renderedData.clear();
+    }
+
+    private List<String> cacheTools(List<Action> actions) {
+        if (renderedTools.size() >= MAX_ACTION_SETS) {
+            log.debug("Prompt cache holds {} action sets, clearing it", renderedTools.size());
+            renderedTools.clear();
+        }
+
+        List<Action> snapshot = List.copyOf(actions);
+        List<String> fragments = new ArrayList<>(snapshot.size());
+        for (Action action : snapshot) {
+            fragments.add(action.hasDynamicData() ? null : renderStaticAction(action));
+        }
+
+        List<String> immutableFragments = Collections.unmodifiableList(fragments);
+        renderedTools.put(new ActionSetKey(snapshot, version.get()), immutableFragments);
+        return immutableFragments;
+    }
+
+    private String renderStaticAction(Action action) {
+        String fragment = renderedActions.get(action);
+        if (fragment == null) {
+            if (renderedActions.size() >= MAX_ACTIONS) {
+                log.debug("Prompt cache holds {} actions, clearing it", renderedActions.size());
+                renderedActions.clear();
+            }
+            fragment = renderAction(action, Collections.emptyMap());
+            renderedActions.put(action, fragment);
+        }
+        return fragment;
+    }
+
+    private String renderDynamicAction(Action action, Map<String, String> context) {
+        Map<String, Object> data = action.getData(context);
+        DynamicDataKey key = new DynamicDataKey(action, data);
+        String fragment = renderedData.get(key);
+        if (fragment == null) {
+            if (renderedData.size() >= MAX_ACTIONS) {
+                log.debug("Prompt cache holds {} dynamic renderings, clearing it", renderedData.size());
+                renderedData.clear();
+            }
+            fragment = renderAction(action, data);
+            renderedData.put(key, fragment);
+        }
+        return fragment;
+    }
+
+    private String renderAction(Action action, Map<String, Object> data) {
+        ActionDTO actionDTO = ActionDTO.builder()
+                .name(action.getName())
+                .description(action.getDescription())
+                .parameters(action.getJsonSchema())
+                .data(data)
+                .build();
+
+        try {
+            return writer.writeValueAsString(actionDTO);
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to render action {}", action.getName(), e);
+            return "{ }";
+        }
+    }
+
+    /**
+     * Identifies an action set by the identity of its actions, in order, and the cache version.
+     */
+    private static final class ActionSetKey {
+
+        private final List<Action> actions;
+
+        private final long version;
+
+        private final int hash;
+
+        ActionSetKey(List<Action> actions, long version) {
+            this.actions = actions;
+            this.version = version;
+
+            int h = Long.hashCode(version);
+            for (Action action : actions) {
+                h = 31 * h + System.identityHashCode(action);
+            }
+            this.hash = h;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ActionSetKey other)) return false;
+            if (version != other.version || hash != other.hash || actions.size() != other.actions.size()) return false;
+            for (int i = 0; i < actions.size(); i++) {
+                if (actions.get(i) != other.actions.get(i)) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Identifies the data returned by an action by the identity of both.
+     */
+    private record DynamicDataKey(Action action, Map<String, Object> data) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof DynamicDataKey other && action == other.action && data == other.data;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(action) + System.identityHashCode(data);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.opengpa.core.agent.react;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.opengpa.core.agent.AgentStep;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only rendering of the steps executed by an agent.
+ *
+ * Each step is serialized once when it is appended, and only re-serialized when it is explicitly
+ * refreshed after a change (feedback, continuation result). The output is identical to pretty
+ * printing the whole list with Jackson, without paying for the full serialization at every step.
+ */
+@Slf4j
+class RenderedHistory {
+
+    private static final String EMPTY = "[ ]";
+
+    private final ObjectWriter writer;
+
+    private final List<AgentStep> steps = new ArrayList<>();
+
+    // Offset in the buffer where each step starts, including its separator
+    private final List<Integer> offsets = new ArrayList<>();
+
+    private final StringBuilder buffer = new StringBuilder();
+
+    RenderedHistory(ObjectMapper objectMapper) {
+        this.writer = objectMapper.writerWithDefaultPrettyPrinter();
+    }
+
+    RenderedHistory(ObjectMapper objectMapper, List<AgentStep> steps) {
+        this(objectMapper);
+        steps.forEach(this::append);
+    }
+
+    /**
+     * Serialize a new step and add it at the end of the history.
+     */
+    void append(AgentStep step) {
+        offsets.add(buffer.length());
+        steps.add(step);
+        writeStep(steps.size() - 1);
+    }
+
+    /**
+     * Re-render a step already in the history after it was modified. Refreshing the last step,
+     * which is by far the most common case, only re-serializes that step.
+     */
+    void refresh(AgentStep step) {
+        int index = indexOf(step);
+        if (index < 0) {
+            log.warn("Refreshing step {} which is not part of the history", step.getId());
+            return;
+        }
+
+        buffer.setLength(offsets.get(index));
+        for (int i = index; i < steps.size(); i++) {
+            offsets.set(i, buffer.length());
+            writeStep(i);
+        }
+    }
+
+    String render() {
+        if (steps.isEmpty()) {
+            return EMPTY;
+        }
+
+        return new StringBuilder(buffer.length() + 4)
+                .append("[ ")
+                .append(buffer)
+                .append(" ]")
+                .toString();
+    }
+
+    int size() {
+        return steps.size();
+    }
+
+    private void writeStep(int index) {
+        if (index > 0) {
+            buffer.append(", ");
+        }
+        buffer.append(serialize(steps.get(index)));
+    }
+
+    private String serialize(AgentStep step) {
+        try {
+            return writer.writeValueAsString(step);
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to render step {}", step.getId(), e);
+            return "{ }";
+        }
+    }
+
+    private int indexOf(AgentStep step) {
+        for (int i = steps.size() - 1; i >= 0; i--) {
+            if (steps.get(i) == step) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,361 @@
+package org.opengpa.core.agent.react;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import lombok.extern.slf4j.Slf4j;
+import org.opengpa.core.agent.ActionInvocation;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Incremental parser of the {@link ReActAgentOutput} JSON, fed with the chunks of a streamed LLM response.
+ *
+ * The characters of the reasoning are reported as they are streamed, by scanning the raw chunks since Jackson
+ * only returns complete strings, and the whole reasoning once its value is complete. The output is complete as soon as the
+ * reasoning, the final flag, the parallel actions and the action object have been read, without waiting for
+ * trailing tokens. The parallel actions are optional, when they are not listed before the action the output is
+ * only complete once the object is closed so that parallel actions following the action are not lost. Any text before the first opening brace, such as a markdown code fence, is ignored. Once the parser
+ * failed, it ignores further input and the caller is expected to parse the full response instead.
+ */
+@Slf4j
+class StreamingOutputParser {
+
+    private final ObjectMapper objectMapper;
+
+    private final Consumer<String> reasoningConsumer;
+
+    private final Consumer<String> reasoningDeltaConsumer;
+
+    private final StringValueScanner reasoningScanner = new StringValueScanner("reasoning");
+
+    private final JsonParser parser;
+
+    private boolean started;
+
+    private boolean ended;
+
+    private boolean failed;
+
+    private int depth;
+
+    private String currentField;
+
+    // Tokens of the action object or of the parallel actions array being read
+    private TokenBuffer buffer;
+
+    private String bufferedField;
+
+    private String reasoning;
+
+    private boolean isFinal;
+
+    private boolean isFinalSeen;
+
+    private ActionInvocation action;
+
+    private boolean actionSeen;
+
+    private List<ActionInvocation> parallelActions;
+
+    private boolean parallelActionsSeen;
+
+    StreamingOutputParser(ObjectMapper objectMapper, Consumer<String> reasoningConsumer) {
+        this(objectMapper, reasoningConsumer, delta -> {});
+    }
+
+    StreamingOutputParser(ObjectMapper objectMapper, Consumer<String> reasoningConsumer, Consumer<String> reasoningDeltaConsumer) {
+        this.objectMapper = objectMapper;
+        this.reasoningConsumer = reasoningConsumer;
+        this.reasoningDeltaConsumer = reasoningDeltaConsumer;
+        try {
+            this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to create a non blocking JSON parser", e);
+        }
+    }
+
+    void feed(String chunk) {
+        if (chunk == null || chunk.isEmpty() || failed || isComplete()) {
+            return;
+        }
+
+        if (!started) {
+            int start = chunk.indexOf('{');
+            if (start < 0) {
+                return;
+            }
+            chunk = chunk.substring(start);
+            started = true;
+        }
+
+        String delta = reasoningScanner.scan(chunk);
+        if (!delta.isEmpty()) {
+            reasoningDeltaConsumer.accept(delta);
+        }
+
+        byte[] bytes = chunk.getBytes(StandardCharsets.UTF_8);
+        try {
+            ((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).feedInput(bytes, 0, bytes.length);
+            JsonToken token;
+            while (!isComplete() && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                handle(token);
+            }
+        } catch (IOException e) {
+            log.debug("Failed at parsing streamed agent output, error: {}", e.getMessage());
+            failed = true;
+        }
+    }
+
+    boolean isComplete() {
+        return !failed && (ended || (hasRequiredFields() && parallelActionsSeen));
+    }
+
+    /**
+     * Whether the required fields have been read, the output can be used when the stream ends before the
+     * object is closed
+     */
+    boolean hasRequiredFields() {
+        return !failed && reasoning != null && isFinalSeen && actionSeen;
+    }
+
+    boolean hasReasoning() {
+        return reasoning != null;
+    }
+
+    boolean isFailed() {
+        return failed;
+    }
+
+    ReActAgentOutput getOutput() {
+        return ReActAgentOutput.builder()
+                .reasoning(reasoning)
+                .isFinal(isFinal)
+                .action(action)
+                .parallelActions(parallelActions)
+                .build();
+    }
+
+    private void handle(JsonToken token) throws IOException {
+        if (token.isStructStart()) {
+            depth++;
+        } else if (token.isStructEnd()) {
+            depth--;
+        }
+
+        // Copy the tokens of the buffered value until it is closed
+        if (buffer != null) {
+            buffer.copyCurrentEvent(parser);
+            if (depth == 1) {
+                readBufferedValue();
+            }
+            return;
+        }
+
+        if (depth == 0) {
+            ended = token == JsonToken.END_OBJECT;
+            return;
+        }
+
+        if (depth == 1 && token == JsonToken.FIELD_NAME) {
+            currentField = parser.currentName();
+            return;
+        }
+
+        if (depth == 2 && ((token == JsonToken.START_OBJECT && "action".equals(currentField))
+                || (token == JsonToken.START_ARRAY && "parallel_actions".equals(currentField)))) {
+            buffer = new TokenBuffer(objectMapper, false);
+            buffer.copyCurrentEvent(parser);
+            bufferedField = currentField;
+            return;
+        }
+
+        if (depth != 1 || currentField == null) {
+            return;
+        }
+
+        switch (currentField) {
+            case "reasoning" -> {
+                if (token == JsonToken.VALUE_STRING) {
+                    reasoning = parser.getText();
+                    reasoningConsumer.accept(reasoning);
+                }
+            }
+            case "is_final" -> {
+                if (token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE) {
+                    isFinal = token == JsonToken.VALUE_TRUE;
+                    isFinalSeen = true;
+                }
+            }
+            case "action" -> {
+                if (token == JsonToken.VALUE_NULL) {
+                    actionSeen = true;
+                }
+            }
+            case "parallel_actions" -> {
+                if (token == JsonToken.VALUE_NULL) {
+                    parallelActionsSeen = true;
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void readBufferedValue() throws IOException {
+        try (JsonParser bufferedParser = buffer.asParser(objectMapper)) {
+            if ("action".equals(bufferedField)) {
+                action = objectMapper.readValue(bufferedParser, ActionInvocation.class);
+                actionSeen = true;
+            } else {
+                parallelActions = objectMapper.readValue(bufferedParser, new TypeReference<List<ActionInvocation>>() {});
+                parallelActionsSeen = true;
+            }
+        }
+        buffer = null;
+        bufferedField = null;
+    }
+
+    /**
+     * Scans the raw characters of the output for the string value of a top level field and returns its unescaped
+     * characters as they arrive. Only the strings and the nesting are tracked, the structure is validated by Jackson.
+     */
+    private static final class StringValueScanner {
+
+        private final String field;
+
+        private final StringBuilder key = new StringBuilder();
+
+        private int depth;
+
+        private boolean expectingKey;
+
+        private String lastKey;
+
+        private boolean inString;
+
+        private boolean readingKey;
+
+        private boolean readingValue;
+
+        private boolean escaped;
+
+        // Number of hexadecimal digits read in a unicode escape, or -1 outside of such an escape
+        private int unicodeDigits = -1;
+
+        private int unicodeValue;
+
+        // A high surrogate held back until the low surrogate of its pair arrives
+        private char pendingSurrogate;
+
+        private boolean done;
+
+        StringValueScanner(String field) {
+            this.field = field;
+        }
+
+        String scan(String chunk) {
+            if (done) {
+                return "";
+            }
+
+            StringBuilder delta = new StringBuilder();
+            if (pendingSurrogate != 0) {
+                delta.append(pendingSurrogate);
+                pendingSurrogate = 0;
+            }
+            for (int i = 0; i < chunk.length() && !done; i++) {
+                char c = chunk.charAt(i);
+                if (inString) {
+                    readStringChar(c, delta);
+                    continue;
+                }
+
+                switch (c) {
+                    case '{', '[' -> {
+                        depth++;
+                        expectingKey = depth == 1;
+                    }
+                    case '}', ']' -> depth--;
+                    case ',' -> expectingKey = depth == 1;
+                    case ':' -> expectingKey = false;
+                    case '"' -> {
+                        inString = true;
+                        if (depth == 1 && expectingKey) {
+                            readingKey = true;
+                            key.setLength(0);
+                        } else if (depth == 1 && field.equals(lastKey)) {
+                            readingValue = true;
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+
+            if (!delta.isEmpty() && Character.isHighSurrogate(delta.charAt(delta.length() - 1))) {
+                pendingSurrogate = delta.charAt(delta.length() - 1);
+                delta.setLength(delta.length() - 1);
+            }
+            return delta.toString();
+        }
+
+        private void readStringChar(char c, StringBuilder delta) {
+            if (unicodeDigits >= 0) {
+                unicodeValue = unicodeValue * 16 + Math.max(Character.digit(c, 16), 0);
+                if (++unicodeDigits == 4) {
+                    unicodeDigits = -1;
+                    append((char) unicodeValue, delta);
+                }
+                return;
+            }
+
+            if (escaped) {
+                escaped = false;
+                switch (c) {
+                    case 'u' -> {
+                        unicodeDigits = 0;
+                        unicodeValue = 0;
+                    }
+                    case 'n' -> append('\n', delta);
+                    case 'r' -> append('\r', delta);
+                    case 't' -> append('\t', delta);
+                    case 'b' -> append('\b', delta);
+                    case 'f' -> append('\f', delta);
+                    default -> append(c, delta);
+                }
+                return;
+            }
+
+            if (c == '\\') {
+                escaped = true;
+            } else if (c == '"') {
+                inString = false;
+                if (readingKey) {
+                    readingKey = false;
+                    lastKey = key.toString();
+                }
+                if (readingValue) {
+                    readingValue = false;
+                    done = true;
+                }
+            } else {
+                append(c, delta);
+            }
+        }
+
+        private void append(char c, StringBuilder delta) {
+            if (readingKey) {
+                key.append(c);
+            } else if (readingValue) {
+                delta.append(c);
+            }
+        }
+    }
+}
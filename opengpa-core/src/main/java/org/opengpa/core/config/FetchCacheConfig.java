@@ -0,0 +1,36 @@
+package org.opengpa.core.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "opengpa.fetch-cache")
+@Data
+public class FetchCacheConfig {
+    private boolean enabled = true;
+
+    // Characters of response bodies kept in memory, the least recently used are evicted first
+    private long maxMemorySize = 32 * 1024 * 1024;
+
+    // Bytes read from a response body, the rest of the body is not downloaded
+    private long maxBodySize = 16 * 1024 * 1024;
+
+    // Larger responses are returned but not cached
+    private long maxEntrySize = 2 * 1024 * 1024;
+
+    // Freshness of the responses without max-age or Expires headers
+    private long defaultTtlSeconds = 300;
+
+    // Freshness by host, subdomains included, overriding the headers of the responses
+    private Map<String, Long> hostTtlSeconds = new HashMap<>();
+
+    // Directory of the on-disk tier, which is disabled when empty
+    private String diskDirectory;
+
+    // Bytes of the on-disk tier, the oldest files are deleted first
+    private long maxDiskSize = 256 * 1024 * 1024;
+}
@@ -4,10 +4,37 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 @ConfigurationProperties(prefix = "opengpa.playwright")
 @Data
 public class PlaywrightConfig {
     public long timeout = 30000;
     public boolean headless = true;
+
+    // Browser workers, each with its own Playwright instance and browser, tasks run in their own context
+    public int maxConcurrency = 2;
+
+    // Maximum time a navigation waits for a free worker
+    public long queueTimeout = 60000;
+
+    // Requests aborted by the browser, by Playwright resource type and by domain, subdomains included
+    public List<String> blockedResourceTypes = new ArrayList<>(List.of("image", "media", "font", "stylesheet"));
+    public List<String> blockedDomains = new ArrayList<>();
+
+    // ADAPTIVE first fetches the static html, and only renders the page in the browser when it has little text
+    public RenderMode renderMode = RenderMode.BROWSER;
+
+    // Minimum length of the text of a static page for the ADAPTIVE mode to use it
+    public int minStaticTextLength = 500;
+
+    // Estimated tokens of page content sent to the LLM, the passages most relevant to the query are kept
+    public int maxContentTokens = 4000;
+
+    public enum RenderMode {
+        BROWSER,
+        ADAPTIVE
+    }
 }
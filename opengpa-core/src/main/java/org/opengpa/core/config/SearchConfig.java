@@ -0,0 +1,19 @@
+package org.opengpa.core.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "opengpa.search")
+@Data
+public class SearchConfig {
+    // Timeout of a single request to the search engine
+    private long timeout = 10000;
+
+    // Attempts after a failed request, for network errors, timeouts, 429 and 5xx responses
+    private int maxRetries = 2;
+
+    // Base delay before a retry, doubled at each attempt and randomized
+    private long retryBackoff = 500;
+}
@@ -0,0 +1,164 @@
+package org.opengpa.core.http;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.*;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Decodes a response body as it is received, and stops reading once a number of bytes or characters is
+ * reached. Stopping cancels the response, so the rest of the body is never downloaded nor buffered.
+ *
+ * The charset comes from the Content-Type header, or else from a byte order mark or a meta tag in the
+ * first kilobyte of the body, as browsers do. Bodies without any are decoded as UTF-8.
+ */
+public class BoundedBodyReader {
+
+    // Bytes of the body searched for a byte order mark or a meta charset
+    private static final int SNIFF_LENGTH = 1024;
+
+    private static final Pattern META_CHARSET = Pattern.compile(
+            "<meta[^>]+charset\\s*=\\s*[\"']?([\\w.:-]+)", Pattern.CASE_INSENSITIVE);
+
+    private BoundedBodyReader() {
+    }
+
+    public record Body(String text, Charset charset, boolean truncated) {
+    }
+
+    public static Mono<Body> read(Flux<DataBuffer> buffers, MediaType contentType, long maxBytes, int maxChars) {
+        return Mono.defer(() -> {
+            Decoder decoder = new Decoder(contentType != null ? contentType.getCharset() : null, maxBytes, maxChars);
+            return buffers
+                    .doOnNext(buffer -> {
+                        try {
+                            decoder.append(buffer);
+                        } finally {
+                            DataBufferUtils.release(buffer);
+                        }
+                    })
+                    .takeUntil(buffer -> decoder.isFull())
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                    .then(Mono.fromCallable(decoder::finish));
+        });
+    }
+
+    static Charset detectCharset(byte[] prefix, int length) {
+        if (length >= 3 && prefix[0] == (byte) 0xEF && prefix[1] == (byte) 0xBB && prefix[2] == (byte) 0xBF) {
+            return StandardCharsets.UTF_8;
+        }
+        if (length >= 2 && prefix[0] == (byte) 0xFE && prefix[1] == (byte) 0xFF) {
+            return StandardCharsets.UTF_16BE;
+        }
+        if (length >= 2 && prefix[0] == (byte) 0xFF && prefix[1] == (byte) 0xFE) {
+            return StandardCharsets.UTF_16LE;
+        }
+
+        Matcher matcher = META_CHARSET.matcher(new String(prefix, 0, length, StandardCharsets.ISO_8859_1));
+        if (matcher.find()) {
+            try {
+                return Charset.forName(matcher.group(1));
+            } catch (IllegalArgumentException e) {
+                // Unknown charset name, the default applies
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private static class Decoder {
+
+        private final long maxBytes;
+
+        private final int maxChars;
+
+        private final StringBuilder text = new StringBuilder();
+
+        private CharsetDecoder charsetDecoder;
+
+        // Bytes kept until the charset is known, then the bytes of an incomplete character
+        private byte[] pending = new byte[0];
+
+        private long bytesRead;
+
+        private boolean full;
+
+        Decoder(Charset charset, long maxBytes, int maxChars) {
+            this.maxBytes = maxBytes;
+            this.maxChars = maxChars;
+            if (charset != null) {
+                this.charsetDecoder = newDecoder(charset);
+            }
+        }
+
+        void append(DataBuffer buffer) {
+            if (full) {
+                return;
+            }
+
+            int length = (int) Math.min(buffer.readableByteCount(), maxBytes - bytesRead);
+            byte[] bytes = new byte[pending.length + length];
+            System.arraycopy(pending, 0, bytes, 0, pending.length);
+            buffer.read(bytes, pending.length, length);
+            bytesRead += length;
+            full = bytesRead >= maxBytes;
+
+            if (charsetDecoder == null) {
+                if (bytes.length < SNIFF_LENGTH && !full) {
+                    pending = bytes;
+                    return;
+                }
+                charsetDecoder = newDecoder(detectCharset(bytes, Math.min(bytes.length, SNIFF_LENGTH)));
+            }
+            decode(bytes, false);
+        }
+
+        boolean isFull() {
+            return full;
+        }
+
+        Body finish() {
+            if (charsetDecoder == null) {
+                charsetDecoder = newDecoder(detectCharset(pending, pending.length));
+            }
+            // A character cut by the byte budget is dropped rather than replaced
+            decode(full ? new byte[0] : pending, true);
+
+            boolean truncated = full;
+            if (text.length() > maxChars) {
+                text.setLength(maxChars);
+                truncated = true;
+            }
+            return new Body(text.toString(), charsetDecoder.charset(), truncated);
+        }
+
+        private void decode(byte[] bytes, boolean endOfInput) {
+            ByteBuffer input = ByteBuffer.wrap(bytes);
+            CharBuffer output = CharBuffer.allocate((int) (bytes.length * (double) charsetDecoder.maxCharsPerByte()) + 1);
+            charsetDecoder.decode(input, output, endOfInput);
+            if (endOfInput) {
+                charsetDecoder.flush(output);
+            }
+            output.flip();
+            text.append(output);
+            pending = Arrays.copyOfRange(bytes, input.position(), bytes.length);
+
+            if (text.length() >= maxChars) {
+                full = true;
+            }
+        }
+
+        private static CharsetDecoder newDecoder(Charset charset) {
+            return charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+    }
+}
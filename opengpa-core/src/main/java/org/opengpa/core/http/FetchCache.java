@@ -0,0 +1,453 @@
+package org.opengpa.core.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.opengpa.core.config.FetchCacheConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Cache of the pages fetched by the web actions, shared by all the agents.
+ *
+ * Successful responses are kept as long as their Cache-Control max-age or Expires headers allow, or the
+ * default or host TTL when configured. Responses marked no-store or private are never kept. A stale
+ * response with an ETag or Last-Modified header is revalidated with a conditional request, and a 304
+ * response refreshes it without transferring the page again.
+ *
+ * Responses are kept in memory up to a total size, and optionally in a directory which survives restarts.
+ * Concurrent fetches of the same url share a single request. Failures of the disk are logged and handled
+ * as cache misses.
+ */
+@Component
+@Slf4j
+public class FetchCache {
+
+    public static final String USER_AGENT = "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_13_1) AppleWebKit/537.36 (K HTML, like Gecko) Chrome/61.0.3163.100 Safari/537.36";
+
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    // Writes to the disk between two prunings of the directory
+    private static final int PRUNE_INTERVAL = 64;
+
+    private final WebClient webClient;
+
+    private final FetchCacheConfig config;
+
+    private final Clock clock;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<String, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long memorySize;
+
+    private final Path diskDirectory;
+
+    private final AtomicInteger diskWrites = new AtomicInteger();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    @Autowired
+    public FetchCache(WebClient webClient, FetchCacheConfig config) {
+        this(webClient, config, Clock.systemUTC());
+    }
+
+    FetchCache(WebClient webClient, FetchCacheConfig config, Clock clock) {
+        this.webClient = webClient;
+        this.config = config;
+        this.clock = clock;
+        this.diskDirectory = createDiskDirectory(config.getDiskDirectory());
+    }
+
+    /**
+     * Get the response of a url, from the cache when it is fresh. The request headers are not part of the
+     * cache key, and a browser User-Agent is sent when none is given. Error statuses are thrown as
+     * WebClientResponseException and are never cached.
+     *
+     * The body is read up to maxLength characters and the max body size in bytes, the rest of the response
+     * is not downloaded. A cached body cut shorter than maxLength is fetched again.
+     */
+    public ResponseEntity<String> get(String url, HttpHeaders headers, Duration timeout, int maxLength) {
+        if (!config.isEnabled()) {
+            return fetch(url, headers, null, timeout, maxLength).toResponse(maxLength);
+        }
+
+        Entry cached = lookup(url);
+        if (cached != null && !cached.covers(maxLength)) {
+            // Only the beginning of the body is cached, it cannot be revalidated
+            cached = null;
+        }
+        if (cached != null && cached.expiresAt() > clock.millis()) {
+            hits.incrementAndGet();
+            return cached.toResponse(maxLength);
+        }
+        misses.incrementAndGet();
+
+        CompletableFuture<Entry> result = new CompletableFuture<>();
+        CompletableFuture<Entry> pending = inFlight.putIfAbsent(url, result);
+        if (pending != null) {
+            Entry shared = await(url, pending, timeout);
+            if (shared.covers(maxLength)) {
+                return shared.toResponse(maxLength);
+            }
+            return fetch(url, headers, null, timeout, maxLength).toResponse(maxLength);
+        }
+
+        try {
+            Entry entry = fetch(url, headers, cached, timeout, maxLength);
+            result.complete(entry);
+            return entry.toResponse(maxLength);
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(url, result);
+        }
+    }
+
+    public ResponseEntity<String> get(String url, HttpHeaders headers, Duration timeout) {
+        return get(url, headers, timeout, UNLIMITED);
+    }
+
+    public ResponseEntity<String> get(String url) {
+        return get(url, new HttpHeaders(), null, UNLIMITED);
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private Entry fetch(String url, HttpHeaders headers, Entry stale, Duration timeout, int maxLength) {
+        boolean revalidating = stale != null && (stale.etag() != null || stale.lastModified() != null);
+        URI uri = parseUri(url);
+        WebClient.RequestHeadersUriSpec<?> request = webClient.get();
+        Mono<Response> exchange = (uri != null ? request.uri(uri) : request.uri(url))
+                .headers(requestHeaders -> {
+                    requestHeaders.addAll(headers);
+                    if (!requestHeaders.containsKey(HttpHeaders.USER_AGENT)) {
+                        requestHeaders.set(HttpHeaders.USER_AGENT, USER_AGENT);
+                    }
+                    if (revalidating && stale.etag() != null) {
+                        requestHeaders.set(HttpHeaders.IF_NONE_MATCH, stale.etag());
+                    }
+                    if (revalidating && stale.lastModified() != null) {
+                        requestHeaders.set(HttpHeaders.IF_MODIFIED_SINCE, stale.lastModified());
+                    }
+                })
+                .retrieve()
+                .toEntityFlux(DataBuffer.class)
+                .flatMap(entity -> BoundedBodyReader.read(entity.getBody(), entity.getHeaders().getContentType(),
+                                config.getMaxBodySize(), maxLength)
+                        .map(body -> new Response(entity.getStatusCode().value(), entity.getHeaders(), body)));
+        Response response = timeout != null ? exchange.block(timeout) : exchange.block();
+        if (response == null) {
+            throw new IllegalStateException("No response from " + url);
+        }
+
+        long now = clock.millis();
+        long freshness = freshness(url, response.headers());
+        if (revalidating && response.status() == HttpStatus.NOT_MODIFIED.value()) {
+            log.debug("Revalidated {}", url);
+            Entry refreshed = stale.refreshed(now + Math.max(freshness, 0));
+            store(refreshed);
+            return refreshed;
+        }
+
+        HttpHeaders responseHeaders = response.headers();
+        String contentType = responseHeaders.getContentType() != null ? responseHeaders.getContentType().toString() : null;
+        Entry entry = new Entry(url, response.status(), contentType, responseHeaders.getETag(),
+                responseHeaders.getFirst(HttpHeaders.LAST_MODIFIED), response.body().text(), response.body().truncated(),
+                now + Math.max(freshness, 0));
+
+        // Responses which expire at once are still kept when they can be revalidated
+        boolean storable = freshness > 0 || (freshness == 0 && (entry.etag() != null || entry.lastModified() != null));
+        if (config.isEnabled() && storable && response.status() == HttpStatus.OK.value()
+                && entry.size() <= config.getMaxEntrySize()) {
+            store(entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Milliseconds a response stays fresh, or -1 when it must not be cached
+     */
+    long freshness(String url, HttpHeaders headers) {
+        Long maxAge = null;
+        for (String directive : String.join(",", headers.getOrEmpty(HttpHeaders.CACHE_CONTROL)).split(",")) {
+            String name = directive.trim().toLowerCase(Locale.ROOT);
+            if (name.equals("no-store") || name.equals("private")) {
+                return -1;
+            } else if (name.equals("no-cache")) {
+                maxAge = 0L;
+            } else if (name.startsWith("s-maxage=")) {
+                // The shared cache directive takes precedence over max-age
+                maxAge = parseSeconds(name.substring("s-maxage=".length()));
+            } else if (name.startsWith("max-age=") && maxAge == null) {
+                maxAge = parseSeconds(name.substring("max-age=".length()));
+            }
+        }
+
+        Long hostTtl = hostTtl(url);
+        if (hostTtl != null) {
+            return TimeUnit.SECONDS.toMillis(hostTtl);
+        }
+        if (maxAge != null) {
+            long age = parseSeconds(headers.getFirst(HttpHeaders.AGE));
+            return Math.max(TimeUnit.SECONDS.toMillis(maxAge - age), 0);
+        }
+        long expires = headers.getExpires();
+        if (expires > 0) {
+            long date = headers.getDate() > 0 ? headers.getDate() : clock.millis();
+            return Math.max(expires - date, 0);
+        }
+        return TimeUnit.SECONDS.toMillis(config.getDefaultTtlSeconds());
+    }
+
+    private Long hostTtl(String url) {
+        if (config.getHostTtlSeconds().isEmpty()) {
+            return null;
+        }
+
+        String host;
+        try {
+            host = URI.create(url).getHost();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (host == null) {
+            return null;
+        }
+
+        host = host.toLowerCase(Locale.ROOT);
+        for (Map.Entry<String, Long> hostTtl : config.getHostTtlSeconds().entrySet()) {
+            String domain = hostTtl.getKey().toLowerCase(Locale.ROOT);
+            if (host.equals(domain) || host.endsWith("." + domain)) {
+                return hostTtl.getValue();
+            }
+        }
+        return null;
+    }
+
+    // Valid urls are sent as is, the others are encoded by the uri template of the WebClient
+    private static URI parseUri(String url) {
+        try {
+            URI uri = new URI(url);
+            return uri.isAbsolute() ? uri : null;
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    private static long parseSeconds(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Math.max(Long.parseLong(value.trim()), 0);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private Entry await(String url, CompletableFuture<Entry> pending, Duration timeout) {
+        try {
+            return timeout != null ? pending.get(timeout.toMillis(), TimeUnit.MILLISECONDS) : pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + url, e);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timeout while waiting for " + url, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Failed to fetch " + url, e.getCause());
+        }
+    }
+
+    private Entry lookup(String url) {
+        synchronized (entries) {
+            Entry entry = entries.get(url);
+            if (entry != null) {
+                return entry;
+            }
+        }
+
+        Entry entry = readFromDisk(url);
+        if (entry != null) {
+            putInMemory(entry);
+        }
+        return entry;
+    }
+
+    private void store(Entry entry) {
+        putInMemory(entry);
+        writeToDisk(entry);
+    }
+
+    private void putInMemory(Entry entry) {
+        synchronized (entries) {
+            Entry previous = entries.put(entry.url(), entry);
+            if (previous != null) {
+                memorySize -= previous.size();
+            }
+            memorySize += entry.size();
+
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (memorySize > config.getMaxMemorySize() && eldest.hasNext()) {
+                memorySize -= eldest.next().size();
+                eldest.remove();
+            }
+        }
+    }
+
+    private Entry readFromDisk(String url) {
+        if (diskDirectory == null) {
+            return null;
+        }
+
+        Path file = diskDirectory.resolve(fileName(url));
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            Entry entry = objectMapper.readValue(file.toFile(), Entry.class);
+            // Guards against hash collisions
+            return url.equals(entry.url()) ? entry : null;
+        } catch (IOException e) {
+            log.warn("Failed to read {} from the fetch cache", url, e);
+            return null;
+        }
+    }
+
+    private void writeToDisk(Entry entry) {
+        if (diskDirectory == null) {
+            return;
+        }
+
+        try {
+            Path file = diskDirectory.resolve(fileName(entry.url()));
+            Path temporary = Files.createTempFile(diskDirectory, "fetch-", ".tmp");
+            objectMapper.writeValue(temporary.toFile(), entry);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to write {} to the fetch cache", entry.url(), e);
+            return;
+        }
+
+        if (diskWrites.incrementAndGet() % PRUNE_INTERVAL == 0) {
+            pruneDisk();
+        }
+    }
+
+    private void pruneDisk() {
+        try (Stream<Path> files = Files.list(diskDirectory)) {
+            List<Map.Entry<Path, BasicFileAttributes>> cached = new ArrayList<>();
+            long size = 0;
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(".json")).toList()) {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                cached.add(Map.entry(file, attributes));
+                size += attributes.size();
+            }
+
+            cached.sort(Comparator.comparing(e -> e.getValue().lastModifiedTime()));
+            for (Map.Entry<Path, BasicFileAttributes> file : cached) {
+                if (size <= config.getMaxDiskSize()) {
+                    break;
+                }
+                Files.deleteIfExists(file.getKey());
+                size -= file.getValue().size();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to prune the fetch cache directory {}", diskDirectory, e);
+        }
+    }
+
+    private static Path createDiskDirectory(String directory) {
+        if (directory == null || directory.isBlank()) {
+            return null;
+        }
+        try {
+            Path path = Files.createDirectories(Path.of(directory));
+            log.info("Fetch cache stored in {}", path.toAbsolutePath());
+            return path;
+        } catch (IOException e) {
+            log.warn("Failed to create the fetch cache directory {}, the cache is kept in memory only", directory, e);
+            return null;
+        }
+    }
+
+    private static String fileName(String url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(url.getBytes(StandardCharsets.UTF_8))) + ".json";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record Response(int status, HttpHeaders headers, BoundedBodyReader.Body body) {
+    }
+
+    // truncated is set when the body was cut at the budget of the request which fetched it
+    record Entry(String url, int status, String contentType, String etag, String lastModified, String body,
+                 boolean truncated, long expiresAt) {
+
+        long size() {
+            return body != null ? body.length() : 0;
+        }
+
+        boolean covers(int maxLength) {
+            return !truncated || size() >= maxLength;
+        }
+
+        Entry refreshed(long expiresAt) {
+            return new Entry(url, status, contentType, etag, lastModified, body, truncated, expiresAt);
+        }
+
+        ResponseEntity<String> toResponse(int maxLength) {
+            HttpHeaders headers = new HttpHeaders();
+            if (contentType != null) {
+                headers.set(HttpHeaders.CONTENT_TYPE, contentType);
+            }
+            String text = body != null && body.length() > maxLength ? body.substring(0, maxLength) : body;
+            return ResponseEntity.status(status).headers(headers).body(text);
+        }
+    }
+}
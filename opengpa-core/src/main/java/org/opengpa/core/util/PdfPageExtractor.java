@@ -0,0 +1,190 @@
+package org.opengpa.core.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Extracts the text of a PDF page by page, without holding the whole text of the document in memory.
+ *
+ * The document is split in ranges of pages extracted in parallel, each from its own {@link PDDocument} since
+ * they are not thread safe. PDFBox buffers the parsed objects in temporary files rather than on the heap.
+ * Pages are returned in order, and only a bounded number of ranges are extracted ahead of the reader.
+ */
+@Slf4j
+public class PdfPageExtractor {
+
+    private static final int DEFAULT_PAGES_PER_RANGE = 16;
+
+    private static final ExecutorService SHARED_EXECUTOR = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(),
+            Thread.ofPlatform().name("pdf-extractor-", 0).daemon().factory());
+
+    private final ExecutorService executor;
+
+    private final int parallelism;
+
+    private final int pagesPerRange;
+
+    public PdfPageExtractor() {
+        this(SHARED_EXECUTOR, Runtime.getRuntime().availableProcessors(), DEFAULT_PAGES_PER_RANGE);
+    }
+
+    public PdfPageExtractor(ExecutorService executor, int parallelism, int pagesPerRange) {
+        this.executor = executor;
+        this.parallelism = Math.max(parallelism, 1);
+        this.pagesPerRange = Math.max(pagesPerRange, 1);
+    }
+
+    /**
+     * Open a PDF file. The returned pages must be closed to stop the extraction of the remaining pages.
+     */
+    public Pages open(Path file) throws IOException {
+        int pageCount;
+        try (PDDocument document = load(file)) {
+            pageCount = document.getNumberOfPages();
+        }
+        return new Pages(file, pageCount, null);
+    }
+
+    /**
+     * Open a PDF read from a stream, which is copied to a temporary file deleted when the pages are closed.
+     */
+    public Pages open(InputStream inputStream) throws IOException {
+        Path tmpFile = Files.createTempFile("opengpa-pdf-", ".pdf");
+        try {
+            Files.copy(inputStream, tmpFile, StandardCopyOption.REPLACE_EXISTING);
+            int pageCount;
+            try (PDDocument document = load(tmpFile)) {
+                pageCount = document.getNumberOfPages();
+            }
+            return new Pages(tmpFile, pageCount, tmpFile);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmpFile);
+            throw e;
+        }
+    }
+
+    private static PDDocument load(Path file) throws IOException {
+        return PDDocument.load(file.toFile(), MemoryUsageSetting.setupTempFileOnly());
+    }
+
+    private static List<String> extractRange(Path file, int startPage, int endPage) throws IOException {
+        try (PDDocument document = load(file)) {
+            PDFTextStripper stripper = new PDFTextStripper();
+            List<String> pages = new ArrayList<>(endPage - startPage + 1);
+            for (int page = startPage; page <= endPage; page++) {
+                stripper.setStartPage(page);
+                stripper.setEndPage(page);
+                pages.add(stripper.getText(document));
+            }
+            return pages;
+        }
+    }
+
+    /**
+     * The text of the pages of a document, in order. Iterating throws an {@link UncheckedIOException} if a
+     * page cannot be extracted.
+     */
+    public class Pages implements Iterator<String>, AutoCloseable {
+
+        private final Path file;
+
+        private final int pageCount;
+
+        private final Path tmpFile;
+
+        private final Deque<Future<List<String>>> ranges = new ArrayDeque<>();
+
+        private int nextRangeStart = 1;
+
+        private Iterator<String> current = Collections.emptyIterator();
+
+        private boolean closed;
+
+        private Pages(Path file, int pageCount, Path tmpFile) {
+            this.file = file;
+            this.pageCount = pageCount;
+            this.tmpFile = tmpFile;
+        }
+
+        public int getPageCount() {
+            return pageCount;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (closed) {
+                    return false;
+                }
+
+                scheduleRanges();
+                if (ranges.isEmpty()) {
+                    return false;
+                }
+                current = awaitRange(ranges.poll()).iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            ranges.forEach(range -> range.cancel(true));
+            ranges.clear();
+            current = Collections.emptyIterator();
+
+            if (tmpFile != null) {
+                try {
+                    Files.deleteIfExists(tmpFile);
+                } catch (IOException e) {
+                    log.warn("Failed to delete temporary file {}", tmpFile, e);
+                }
+            }
+        }
+
+        private void scheduleRanges() {
+            while (ranges.size() < parallelism && nextRangeStart <= pageCount) {
+                int startPage = nextRangeStart;
+                int endPage = Math.min(startPage + pagesPerRange - 1, pageCount);
+                ranges.add(executor.submit(() -> extractRange(file, startPage, endPage)));
+                nextRangeStart = endPage + 1;
+            }
+        }
+
+        private List<String> awaitRange(Future<List<String>> range) {
+            try {
+                return range.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new IllegalStateException("Interrupted while extracting the text of " + file, e);
+            } catch (ExecutionException e) {
+                close();
+                if (e.getCause() instanceof IOException ioException) {
+                    throw new UncheckedIOException("Failed to extract the text of " + file, ioException);
+                }
+                throw new IllegalStateException("Failed to extract the text of " + file, e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.opengpa.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits a text in lowercase word tokens for lexical matching, dropping the most common English words and
+ * the single characters. A token is a run of letters and digits.
+ */
+public class TextTokenizer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "from", "has", "have", "he", "her",
+            "his", "how", "i", "if", "in", "into", "is", "it", "its", "of", "on", "or", "our", "she", "so",
+            "that", "the", "their", "them", "then", "there", "these", "they", "this", "to", "was", "we",
+            "were", "what", "when", "where", "which", "who", "why", "will", "with", "you", "your");
+
+    private TextTokenizer() {
+    }
+
+    public static List<String> tokenize(CharSequence text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean wordChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start > 1) {
+                    String token = text.subSequence(start, i).toString().toLowerCase(Locale.ROOT);
+                    if (!STOP_WORDS.contains(token)) {
+                        tokens.add(token);
+                    }
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
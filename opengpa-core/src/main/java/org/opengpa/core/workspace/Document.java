@@ -18,6 +18,12 @@ public class Document {
 
   private String name;
 
+  // Size of the content in bytes
+  private long size;
+
+  // Hex encoded SHA-256 of the content, null if the workspace does not compute it
+  private String checksum;
+
   @Builder.Default
   private Map<String, String> metadata = new HashMap<>();
 
@@ -1,5 +1,12 @@
 package org.opengpa.core.workspace;
 
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -17,4 +24,41 @@ public interface Workspace {
     default Document addDocument(String workspaceId, String name, byte[] content) {
         return addDocument(workspaceId, name, content, Collections.emptyMap());
     }
+
+    /**
+     * Add a document read from a stream. The stream is consumed but not closed.
+     *
+     * The default implementation reads the whole content in memory, implementations storing large
+     * documents should override it.
+     */
+    default Document addDocument(String workspaceId, String name, InputStream content, Map<String, String> metadata) throws IOException {
+        return addDocument(workspaceId, name, content.readAllBytes(), metadata);
+    }
+
+    /**
+     * Add a document read from a channel. The channel is consumed but not closed.
+     */
+    default Document addDocument(String workspaceId, String name, ReadableByteChannel content, Map<String, String> metadata) throws IOException {
+        return addDocument(workspaceId, name, Channels.newInputStream(content), metadata);
+    }
+
+    /**
+     * Get the content of a document as a resource, which can be read as a stream or a channel.
+     *
+     * The default implementation wraps the content returned by {@link #getDocumentContent(String, String)}.
+     */
+    default Optional<Resource> getDocumentResource(String workspaceId, String name) {
+        return Optional.ofNullable(getDocumentContent(workspaceId, name)).map(ByteArrayResource::new);
+    }
+
+    /**
+     * Open a channel on the content of a document, the caller is responsible for closing it.
+     */
+    default Optional<ReadableByteChannel> openDocumentChannel(String workspaceId, String name) throws IOException {
+        Optional<Resource> resource = getDocumentResource(workspaceId, name);
+        if (resource.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(resource.get().readableChannel());
+    }
 }
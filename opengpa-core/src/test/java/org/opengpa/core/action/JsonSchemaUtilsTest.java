@@ -0,0 +1,60 @@
+package org.opengpa.core.action;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+class JsonSchemaUtilsTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        JsonSchemaUtils.clearValidatorCache();
+    }
+
+    @Test
+    void validatorIsCompiledOncePerAction() {
+        JsonNode schema = new OutputMessageAction().getJsonSchema();
+
+        Assertions.assertTrue(JsonSchemaUtils.validateAgainstSchema("output_message", schema, Map.of("message", "Hello")).isEmpty());
+        Assertions.assertTrue(JsonSchemaUtils.validateAgainstSchema("output_message", schema, Map.of("message", "World")).isEmpty());
+        Assertions.assertEquals(1, JsonSchemaUtils.cachedValidatorCount());
+    }
+
+    @Test
+    void cachedValidatorReportsErrors() {
+        JsonNode schema = new OutputMessageAction().getJsonSchema();
+
+        JsonSchemaUtils.validateAgainstSchema("output_message", schema, Map.of("message", "Hello"));
+        List<String> errors = JsonSchemaUtils.validateAgainstSchema("output_message", schema, Map.of());
+
+        Assertions.assertFalse(errors.isEmpty());
+    }
+
+    @Test
+    void changedSchemaIsRecompiled() throws Exception {
+        JsonNode optional = mapper.readTree("{\"type\":\"object\",\"properties\":{\"query\":{\"type\":\"string\"}}}");
+        JsonNode required = mapper.readTree("{\"type\":\"object\",\"properties\":{\"query\":{\"type\":\"string\"}},\"required\":[\"query\"]}");
+
+        Assertions.assertTrue(JsonSchemaUtils.validateAgainstSchema("search", optional, Map.of()).isEmpty());
+        Assertions.assertFalse(JsonSchemaUtils.validateAgainstSchema("search", required, Map.of()).isEmpty());
+    }
+
+    @Test
+    void permissiveSchemasSkipValidation() throws Exception {
+        Assertions.assertTrue(JsonSchemaUtils.isTriviallyPermissive(mapper.readTree("true")));
+        Assertions.assertTrue(JsonSchemaUtils.isTriviallyPermissive(mapper.readTree("{}")));
+        Assertions.assertTrue(JsonSchemaUtils.isTriviallyPermissive(mapper.readTree("{\"type\":\"object\",\"title\":\"Anything\"}")));
+        Assertions.assertFalse(JsonSchemaUtils.isTriviallyPermissive(mapper.readTree("false")));
+        Assertions.assertFalse(JsonSchemaUtils.isTriviallyPermissive(mapper.readTree("{\"type\":\"string\"}")));
+        Assertions.assertFalse(JsonSchemaUtils.isTriviallyPermissive(mapper.readTree("{\"type\":\"object\",\"required\":[\"query\"]}")));
+
+        Assertions.assertTrue(JsonSchemaUtils.validateAgainstSchema("anything", mapper.readTree("{}"), Map.of("key", "value")).isEmpty());
+    }
+}
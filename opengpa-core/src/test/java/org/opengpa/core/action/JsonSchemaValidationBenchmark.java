@@ -0,0 +1,78 @@
+package org.opengpa.core.action;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.opengpa.core.action.browser.RawBrowserAction;
+import org.opengpa.core.action.files.AnalyzePictureAction;
+import org.opengpa.core.action.files.ReadFileAction;
+import org.opengpa.core.action.files.ReadPDFAction;
+import org.opengpa.core.action.files.WriteFileAction;
+import org.opengpa.core.action.search.SearchWebAction;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of validating the parameters of an action invocation against the action schema.
+ *
+ * The cold variant compiles the schema at each invocation, which is what the agent used to do.
+ * The warm variant reuses the cached validator. Run with the main method from the IDE.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSchemaValidationBenchmark {
+
+    @Param({"output_message", "search_web", "browse_web", "readFile", "writeFile", "readPDF", "analyzePicture"})
+    public String actionName;
+
+    private JsonNode schema;
+
+    private Map<String, Object> input;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Action> actions = List.of(
+                new OutputMessageAction(),
+                new SearchWebAction(null),
+                new RawBrowserAction(null),
+                new ReadFileAction(null),
+                new WriteFileAction(null),
+                new ReadPDFAction(null, null),
+                new AnalyzePictureAction(null, null));
+
+        Action action = actions.stream()
+                .filter(a -> a.getName().equals(actionName))
+                .findFirst()
+                .orElseThrow();
+
+        schema = action.getJsonSchema();
+        input = new HashMap<>();
+        schema.path("properties").fieldNames().forEachRemaining(name -> input.put(name, "value of " + name));
+    }
+
+    @Benchmark
+    public List<String> cold() {
+        JsonSchemaUtils.clearValidatorCache();
+        return JsonSchemaUtils.validateAgainstSchema(actionName, schema, input);
+    }
+
+    @Benchmark
+    public List<String> warm() {
+        return JsonSchemaUtils.validateAgainstSchema(actionName, schema, input);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JsonSchemaValidationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
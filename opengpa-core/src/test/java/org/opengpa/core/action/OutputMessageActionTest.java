@@ -45,6 +45,12 @@ class OutputMessageActionTest {
         assertTrue(parameter.getDescription().contains("The message to output to the user"));
     }
 
+    @Test
+    void testGetJsonSchemaIsMemoized() {
+        assertSame(outputMessageAction.getJsonSchema(), outputMessageAction.getJsonSchema());
+        assertTrue(outputMessageAction.getJsonSchema().get("properties").has("message"));
+    }
+
     @Test
     void testApply() {
         Map<String, Object> input = new HashMap<>();
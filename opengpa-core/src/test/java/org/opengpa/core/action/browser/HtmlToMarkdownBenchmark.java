@@ -0,0 +1,65 @@
+package org.opengpa.core.action.browser;
+
+import com.vladsch.flexmark.html2md.converter.FlexmarkHtmlConverter;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of converting a page to markdown for the browse actions, on the saved pages of src/test/resources/html.
+ *
+ * The legacy variant builds a converter, serializes the parsed document back to html and converts the whole
+ * page before truncating it, which is what the actions used to do. The shared variant uses the
+ * HtmlToMarkdownConverter. Run with the main method from the IDE.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HtmlToMarkdownBenchmark {
+
+    @Param({"encyclopedia-article", "news-article", "documentation-page"})
+    public String page;
+
+    @Param({"2500", "2147483647"})
+    public int maxLength;
+
+    private String html;
+
+    private final HtmlToMarkdownConverter converter = new HtmlToMarkdownConverter();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        try (InputStream inputStream = getClass().getResourceAsStream("/html/" + page + ".html")) {
+            html = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public String legacy() {
+        Document document = Jsoup.parse(html, "https://example.com/");
+        String markdown = FlexmarkHtmlConverter.builder().build().convert(document.html());
+        return markdown.length() > maxLength ? markdown.substring(0, maxLength) : markdown;
+    }
+
+    @Benchmark
+    public String shared() {
+        return converter.convert(html, "https://example.com/", maxLength);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(HtmlToMarkdownBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
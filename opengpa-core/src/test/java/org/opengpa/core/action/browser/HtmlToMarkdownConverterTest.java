@@ -0,0 +1,66 @@
+package org.opengpa.core.action.browser;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HtmlToMarkdownConverterTest {
+
+    private final HtmlToMarkdownConverter converter = new HtmlToMarkdownConverter();
+
+    @Test
+    void convertsContentWithoutBoilerplate() {
+        String html = """
+                <html><head><title>Page</title><style>body { color: red; }</style></head>
+                <body>
+                  <header><a href="/">Home</a><nav><a href="/about">About us</a></nav></header>
+                  <main>
+                    <article>
+                      <header><h1>Release notes</h1></header>
+                      <p>Version <b>2.0</b> adds <a href="https://example.com/docs">new docs</a>.</p>
+                      <ul><li>Faster</li><li>Smaller</li></ul>
+                      <script>track('view');</script>
+                    </article>
+                    <aside>Related posts</aside>
+                  </main>
+                  <footer>Copyright</footer>
+                </body></html>
+                """;
+
+        String markdown = converter.convert(html, "https://example.com/", HtmlToMarkdownConverter.UNLIMITED);
+
+        assertTrue(markdown.startsWith("Release notes\n============="));
+        assertTrue(markdown.contains("Version **2.0** adds [new docs](https://example.com/docs)."));
+        assertTrue(markdown.contains("* Faster\n* Smaller"));
+        for (String boilerplate : new String[]{"Home", "About us", "track", "Related posts", "Copyright", "color"}) {
+            assertFalse(markdown.contains(boilerplate), boilerplate);
+        }
+    }
+
+    @Test
+    void stopsConvertingAtTheBudget() {
+        StringBuilder html = new StringBuilder("<html><body><div><div>");
+        for (int i = 0; i < 500; i++) {
+            html.append("<p>Paragraph number ").append(i).append(" of the page.</p>");
+        }
+        html.append("</div></div></body></html>");
+        Document document = Jsoup.parse(html.toString());
+
+        String markdown = converter.convert(document, 300);
+
+        assertEquals(300, markdown.length());
+        assertTrue(markdown.startsWith("Paragraph number 0 of the page.\n\nParagraph number 1 of the page."));
+        // The blocks beyond the budget are left unconverted in the document
+        assertTrue(document.body().text().contains("Paragraph number 499 of the page."));
+    }
+
+    @Test
+    void convertsShortAndEmptyPages() {
+        assertEquals("", converter.convert(null, null, 100));
+        assertEquals("", converter.convert("", "", 100));
+        assertEquals("Short content", converter.convert("<p>Short content</p>", "", 100));
+        assertEquals("Loose text with *emphasis*", converter.convert("<div>Loose text with <i>emphasis</i></div>", "", 100));
+    }
+}
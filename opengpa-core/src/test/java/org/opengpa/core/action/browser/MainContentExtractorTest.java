@@ -0,0 +1,49 @@
+package org.opengpa.core.action.browser;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MainContentExtractorTest {
+
+    @Test
+    void keepsTheArticleOfANewsPage() throws IOException {
+        Document document;
+        try (InputStream inputStream = getClass().getResourceAsStream("/html/news-article.html")) {
+            document = Jsoup.parse(inputStream, "UTF-8", "https://news.example.com/");
+        }
+
+        MainContentExtractor.extract(document);
+
+        assertEquals(1, document.body().childrenSize());
+        assertEquals("article", document.body().child(0).normalName());
+        assertTrue(document.select(".comments, .related, .main-nav").isEmpty());
+    }
+
+    @Test
+    void leavesPagesWithoutParagraphsAsIs() {
+        Document document = Jsoup.parse("<html><body><div>Short</div><div>Text</div></body></html>");
+
+        MainContentExtractor.extract(document);
+
+        assertEquals(2, document.body().childrenSize());
+    }
+
+    @Test
+    void keepsParagraphsDirectlyInANegativeBody() {
+        Document document = Jsoup.parse("<html><body class=\"nav-open\">" +
+                "<p>The first paragraph of the page, long enough to be scored.</p>" +
+                "<p>The second paragraph of the page, with a comma, and more text.</p>" +
+                "</body></html>");
+
+        MainContentExtractor.extract(document);
+
+        assertEquals(2, document.body().childrenSize());
+        assertTrue(document.body().text().contains("The second paragraph of the page"));
+    }
+}
@@ -7,7 +7,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.opengpa.core.http.FetchCache;
 
 import java.util.Map;
 
@@ -19,13 +19,13 @@ import static org.mockito.Mockito.*;
 class MarkdownBrowserActionTest {
 
     @Mock
-    private WebClient webClient;
+    private FetchCache fetchCache;
 
     private MarkdownBrowserAction markdownBrowserAction;
 
     @BeforeEach
     void setUp() {
-        markdownBrowserAction = new MarkdownBrowserAction(webClient);
+        markdownBrowserAction = new MarkdownBrowserAction(fetchCache, new HtmlToMarkdownConverter());
     }
 
     @Test
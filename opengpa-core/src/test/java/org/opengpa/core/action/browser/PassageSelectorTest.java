@@ -0,0 +1,83 @@
+package org.opengpa.core.action.browser;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PassageSelectorTest {
+
+    @Test
+    void keepsThePassagesMatchingTheQueryWithTheirHeadings() {
+        String markdown = """
+                Travel guide
+                ============
+
+                The city has a long history of trade and many old buildings along the river.
+
+                Museums
+                -------
+
+                The art museum opens at nine and closes at six, except on Mondays.
+
+                Food
+                ----
+
+                Street food stalls sell grilled fish near the harbour every evening.
+
+                Transport
+                ---------
+
+                Trams run every ten minutes between the station and the old town.
+                """;
+
+        String selected = PassageSelector.select(markdown, "When does the museum open?", 30);
+
+        // The title fills the rest of the budget
+        assertEquals("""
+                Travel guide
+                ============
+
+                [...]
+
+                Museums
+                -------
+
+                The art museum opens at nine and closes at six, except on Mondays.
+
+                [...]""", selected);
+        assertTrue(PassageSelector.estimateTokens(selected) <= 30 + PassageSelector.estimateTokens(PassageSelector.OMITTED) * 2);
+    }
+
+    @Test
+    void keepsTheBeginningOfThePageWhenNothingMatches() {
+        StringBuilder markdown = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            markdown.append("Paragraph ").append(i).append(" of a long page.\n\n");
+        }
+
+        String selected = PassageSelector.select(markdown.toString(), "unrelated question", 20);
+
+        assertTrue(selected.startsWith("Paragraph 0 of a long page.\n\nParagraph 1 of a long page."));
+        assertTrue(selected.endsWith(PassageSelector.OMITTED));
+        assertTrue(PassageSelector.estimateTokens(selected) <= 20 + PassageSelector.estimateTokens(PassageSelector.OMITTED));
+    }
+
+    @Test
+    void returnsPagesWithinTheBudgetAsIs() {
+        assertEquals("Short page", PassageSelector.select("Short page", "question", 100));
+        assertEquals("", PassageSelector.select("", "question", 100));
+        assertEquals("Very lon", PassageSelector.select("Very long block of text", null, 2));
+    }
+
+    @Test
+    void keepsCodeBlocksWhole() {
+        List<PassageSelector.Block> blocks = PassageSelector.split("# Example\n\n```\nint a = 1;\n\nint b = 2;\n```\n\nText");
+
+        assertEquals(3, blocks.size());
+        assertEquals("```\nint a = 1;\n\nint b = 2;\n```", blocks.get(1).text());
+        assertEquals(0, blocks.get(1).heading());
+        assertEquals(-1, blocks.get(0).heading());
+    }
+}
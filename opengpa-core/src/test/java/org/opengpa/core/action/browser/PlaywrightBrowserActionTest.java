@@ -2,11 +2,11 @@ package org.opengpa.core.action.browser;
 
 import com.microsoft.playwright.*;
 import com.microsoft.playwright.options.WaitUntilState;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
-import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
@@ -14,11 +14,16 @@ import org.opengpa.core.action.ActionParameter;
 import org.opengpa.core.action.ActionResult;
 import org.opengpa.core.agent.Agent;
 import org.opengpa.core.config.PlaywrightConfig;
+import org.opengpa.core.http.FetchCache;
 import org.springframework.ai.chat.messages.AssistantMessage;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.model.Generation;
 import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 
 import java.util.Collections;
 import java.util.HashMap;
@@ -33,8 +38,7 @@ import static org.mockito.Mockito.*;
 @MockitoSettings(strictness = Strictness.LENIENT)
 class PlaywrightBrowserActionTest {
 
-    @Mock
-    private PlaywrightConfig playwrightConfig;
+    private final PlaywrightConfig playwrightConfig = new PlaywrightConfig();
 
     @Mock
     private ChatModel chatModel;
@@ -57,21 +61,28 @@ class PlaywrightBrowserActionTest {
     @Mock
     private Agent agent;
 
+    @Mock
+    private FetchCache fetchCache;
+
+    private PlaywrightBrowserPool browserPool;
+
     private PlaywrightBrowserAction playwrightBrowserAction;
 
     @BeforeEach
     void setUp() {
-        when(playwrightConfig.isHeadless()).thenReturn(true);
-        when(playwrightConfig.getTimeout()).thenReturn(30000l);
-
-        try (MockedStatic<Playwright> playwrightMockedStatic = mockStatic(Playwright.class)) {
-            playwrightMockedStatic.when(Playwright::create).thenReturn(playwright);
-            when(playwright.chromium()).thenReturn(browserType);
-            when(browserType.launch(any())).thenReturn(browser);
-            when(browser.newContext(any())).thenReturn(browserContext);
+        when(playwright.chromium()).thenReturn(browserType);
+        when(browserType.launch(any())).thenReturn(browser);
+        when(browser.newContext(any())).thenReturn(browserContext);
+        when(browser.isConnected()).thenReturn(true);
+
+        browserPool = new PlaywrightBrowserPool(playwrightConfig, () -> playwright, null);
+        playwrightBrowserAction = new PlaywrightBrowserAction(playwrightConfig, chatModel, browserPool, fetchCache,
+                new HtmlToMarkdownConverter());
+    }
 
-            playwrightBrowserAction = new PlaywrightBrowserAction(playwrightConfig, chatModel);
-        }
+    @AfterEach
+    void tearDown() {
+        browserPool.close();
     }
 
     @Test
@@ -118,7 +129,12 @@ class PlaywrightBrowserActionTest {
         assertNull(result.getError());
 
         verify(page).navigate(eq(url), any(Page.NavigateOptions.class));
-        verify(page).close();
+
+        // The context of the navigation is closed with its page, the browser is closed with the pool
+        verify(browserContext).close();
+        verify(playwright, never()).close();
+        browserPool.close();
+        verify(playwright).close();
     }
 
     @Test
@@ -164,5 +180,45 @@ class PlaywrightBrowserActionTest {
         assertEquals("Browsing failed, you should try another site.", result.getError());
 
         verify(page).navigate(eq(url), any(Page.NavigateOptions.class));
+        verify(browserContext).close();
+    }
+
+    @Test
+    void testAdaptiveModeUsesStaticHtml() {
+        playwrightConfig.setRenderMode(PlaywrightConfig.RenderMode.ADAPTIVE);
+        playwrightConfig.setMinStaticTextLength(20);
+        mockStaticResponse("<html><head><title>Static Page</title></head><body><p>Plenty of server rendered text.</p></body></html>");
+        when(chatModel.call(any(Prompt.class))).thenReturn(new ChatResponse(List.of(new Generation(new AssistantMessage("Static answer.")))));
+
+        ActionResult result = playwrightBrowserAction.apply(agent, Map.of("url", "http://example.com", "query", "What?"), Collections.emptyMap());
+
+        assertEquals(ActionResult.Status.SUCCESS, result.getStatus());
+        assertEquals("Processed webpage Static Page from example.com.", result.getSummary());
+        verifyNoInteractions(playwright);
+    }
+
+    @Test
+    void testAdaptiveModeRendersScriptShells() {
+        playwrightConfig.setRenderMode(PlaywrightConfig.RenderMode.ADAPTIVE);
+        playwrightConfig.setMinStaticTextLength(20);
+        mockStaticResponse("<html><head><title>App</title><script>window.app = {};</script></head><body><div id=\"root\"></div>"
+                + "<noscript>You need to enable JavaScript to run this app.</noscript></body></html>");
+
+        when(browserContext.newPage()).thenReturn(page);
+        when(page.title()).thenReturn("Rendered App");
+        when(page.content()).thenReturn("<html><body>Rendered content</body></html>");
+        when(chatModel.call(any(Prompt.class))).thenReturn(new ChatResponse(List.of(new Generation(new AssistantMessage("Rendered answer.")))));
+
+        ActionResult result = playwrightBrowserAction.apply(agent, Map.of("url", "http://example.com", "query", "What?"), Collections.emptyMap());
+
+        assertEquals(ActionResult.Status.SUCCESS, result.getStatus());
+        assertEquals("Processed webpage Rendered App from example.com.", result.getSummary());
+        verify(page).navigate(eq("http://example.com"), any(Page.NavigateOptions.class));
+    }
+
+    private void mockStaticResponse(String html) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_HTML);
+        when(fetchCache.get(anyString(), any(HttpHeaders.class), any())).thenReturn(new ResponseEntity<>(html, headers, HttpStatus.OK));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,212 @@
+package org.opengpa.core.action.browser;
+
+import com.microsoft.playwright.*;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.opengpa.core.config.PlaywrightConfig;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PlaywrightBrowserPoolTest {
+
+    private final PlaywrightConfig playwrightConfig = new PlaywrightConfig();
+
+    private final List<Playwright> playwrights = Collections.synchronizedList(new ArrayList<>());
+
+    private final List<BrowserContext> contexts = Collections.synchronizedList(new ArrayList<>());
+
+    private final Map<Playwright, Set<Thread>> playwrightThreads = new ConcurrentHashMap<>();
+
+    private PlaywrightBrowserPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void concurrencyIsBoundedAndPlaywrightIsPinnedToItsWorker() throws Exception {
+        playwrightConfig.setMaxConcurrency(2);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        pool = new PlaywrightBrowserPool(playwrightConfig, this::mockPlaywright, meterRegistry);
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        ExecutorService callers = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                int index = i;
+                results.add(callers.submit(() -> pool.withPage(page -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    sleep(50);
+                    running.decrementAndGet();
+                    return "page-" + index;
+                })));
+            }
+            for (int i = 0; i < 6; i++) {
+                assertEquals("page-" + i, results.get(i).get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertEquals(2, maxRunning.get());
+        assertTrue(playwrights.size() <= 2);
+        playwrightThreads.values().forEach(threads -> assertEquals(1, threads.size()));
+        assertEquals(6, meterRegistry.get("opengpa.browser.queue.wait").timer().count());
+        assertEquals(0, pool.getQueueSize());
+
+        pool.close();
+        playwrights.forEach(playwright -> verify(playwright).close());
+    }
+
+    @Test
+    void tasksRunInTheirOwnContext() {
+        playwrightConfig.setMaxConcurrency(1);
+        pool = new PlaywrightBrowserPool(playwrightConfig, this::mockPlaywright, null);
+
+        Page first = pool.withPage(page -> page);
+        Page second = pool.withPage(page -> page);
+        assertNotSame(first, second);
+        assertEquals(2, contexts.size());
+        contexts.forEach(context -> verify(context).close());
+
+        PlaywrightException exception = assertThrows(PlaywrightException.class, () -> pool.withPage(page -> {
+            throw new PlaywrightException("Navigation failed");
+        }));
+        assertEquals("Navigation failed", exception.getMessage());
+        verify(contexts.get(2)).close();
+
+        // The browser is reused by the tasks
+        assertEquals(1, playwrights.size());
+    }
+
+    @Test
+    void requestsAreBlockedByResourceTypeAndDomain() {
+        Set<String> types = Set.of("image", "font");
+        List<String> domains = List.of("doubleclick.net", "Tracker.example");
+
+        assertTrue(PlaywrightBrowserPool.isBlocked("image", "https://example.com/logo.png", types, domains));
+        assertTrue(PlaywrightBrowserPool.isBlocked("script", "https://ads.doubleclick.net/tag.js", types, domains));
+        assertTrue(PlaywrightBrowserPool.isBlocked("xhr", "https://tracker.example/collect", types, domains));
+        assertFalse(PlaywrightBrowserPool.isBlocked("script", "https://notdoubleclick.net/tag.js", types, domains));
+        assertFalse(PlaywrightBrowserPool.isBlocked("document", "https://doubleclick.net/", types, domains));
+        assertFalse(PlaywrightBrowserPool.isBlocked("script", "not a url", types, domains));
+    }
+
+    @Test
+    void routingIsInstalledOnlyWhenBlocking() {
+        pool = new PlaywrightBrowserPool(playwrightConfig, this::mockPlaywright, null);
+        pool.withPage(page -> page);
+        verify(contexts.get(0)).route(eq("**/*"), any(Consumer.class));
+        pool.close();
+
+        playwrightConfig.setBlockedResourceTypes(List.of());
+        pool = new PlaywrightBrowserPool(playwrightConfig, this::mockPlaywright, null);
+        pool.withPage(page -> page);
+        verify(contexts.get(1), never()).route(anyString(), any(Consumer.class));
+    }
+
+    @Test
+    void closedPoolRejectsTasks() {
+        pool = new PlaywrightBrowserPool(playwrightConfig, this::mockPlaywright, null);
+        pool.close();
+
+        assertThrows(IllegalStateException.class, () -> pool.withPage(page -> page));
+    }
+
+    @Test
+    void browsesLocalFixtureServer() throws IOException {
+        // Browsers are not downloaded by the test, it only runs where Chromium is installed
+        Playwright.CreateOptions options = new Playwright.CreateOptions()
+                .setEnv(Map.of("PLAYWRIGHT_SKIP_BROWSER_DOWNLOAD", "1"));
+        assumeTrue(isChromiumAvailable(options), "Chromium is not available");
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] body = "<html><head><title>Fixture</title></head><body><p>Static fixture page</p></body></html>"
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        server.start();
+
+        pool = new PlaywrightBrowserPool(playwrightConfig, () -> Playwright.create(options), null);
+        try {
+            String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+            assertEquals("Fixture", pool.withPage(page -> {
+                page.navigate(url);
+                return page.title();
+            }));
+            assertTrue(pool.withPage(page -> {
+                page.navigate(url);
+                return page.content();
+            }).contains("Static fixture page"));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static boolean isChromiumAvailable(Playwright.CreateOptions options) {
+        try (Playwright playwright = Playwright.create(options)) {
+            playwright.chromium().launch(new BrowserType.LaunchOptions().setHeadless(true)).close();
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private Playwright mockPlaywright() {
+        Playwright playwright = mock(Playwright.class);
+        BrowserType browserType = mock(BrowserType.class);
+        Browser browser = mock(Browser.class);
+
+        when(playwright.chromium()).thenAnswer(invocation -> {
+            playwrightThreads.computeIfAbsent(playwright, p -> ConcurrentHashMap.newKeySet()).add(Thread.currentThread());
+            return browserType;
+        });
+        when(browserType.launch(any())).thenReturn(browser);
+        when(browser.newContext(any())).thenAnswer(invocation -> {
+            BrowserContext context = mock(BrowserContext.class);
+            when(context.newPage()).thenAnswer(newPage -> {
+                playwrightThreads.get(playwright).add(Thread.currentThread());
+                return mock(Page.class);
+            });
+            contexts.add(context);
+            return context;
+        });
+        when(browser.isConnected()).thenReturn(true);
+        playwrights.add(playwright);
+        return playwright;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
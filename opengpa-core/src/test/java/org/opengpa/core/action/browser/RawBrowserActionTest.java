@@ -10,9 +10,10 @@ import org.mockito.quality.Strictness;
 import org.opengpa.core.action.ActionParameter;
 import org.opengpa.core.action.ActionResult;
 import org.opengpa.core.agent.Agent;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.opengpa.core.http.FetchCache;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
-import reactor.core.publisher.Mono;
 
 import java.util.Collections;
 import java.util.HashMap;
@@ -20,7 +21,7 @@ import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,13 +29,7 @@ import static org.mockito.Mockito.*;
 class RawBrowserActionTest {
 
     @Mock
-    private WebClient webClient;
-
-    @Mock
-    private WebClient.RequestHeadersUriSpec requestHeadersUriSpec;
-
-    @Mock
-    private WebClient.ResponseSpec responseSpec;
+    private FetchCache fetchCache;
 
     @Mock
     private Agent agent;
@@ -43,12 +38,7 @@ class RawBrowserActionTest {
 
     @BeforeEach
     void setUp() {
-        rawBrowserAction = new RawBrowserAction(webClient);
-
-        // Setup the WebClient mock chain
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(anyString())).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.retrieve()).thenReturn(responseSpec);
+        rawBrowserAction = new RawBrowserAction(fetchCache);
     }
 
     @Test
@@ -76,7 +66,7 @@ class RawBrowserActionTest {
         Map<String, Object> request = new HashMap<>();
         request.put("url", url);
 
-        when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.just(content));
+        when(fetchCache.get(anyString(), any(HttpHeaders.class), isNull(), eq(1000))).thenReturn(ResponseEntity.ok(content));
 
         ActionResult result = rawBrowserAction.apply(agent, request, Collections.emptyMap());
 
@@ -116,10 +106,7 @@ class RawBrowserActionTest {
         Map<String, Object> request = new HashMap<>();
         request.put("url", url);
 
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(url)).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.error(new WebClientResponseException(404, "Not Found", null, null, null)));
+        when(fetchCache.get(eq(url), any(HttpHeaders.class), isNull(), anyInt())).thenThrow(new WebClientResponseException(404, "Not Found", null, null, null));
 
         ActionResult result = rawBrowserAction.apply(agent, request, Collections.emptyMap());
 
@@ -134,10 +121,7 @@ class RawBrowserActionTest {
         Map<String, Object> request = new HashMap<>();
         request.put("url", url);
 
-        when(webClient.get()).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.uri(url)).thenReturn(requestHeadersUriSpec);
-        when(requestHeadersUriSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.error(new RuntimeException("Unexpected error")));
+        when(fetchCache.get(eq(url), any(HttpHeaders.class), isNull(), anyInt())).thenThrow(new RuntimeException("Unexpected error"));
 
         ActionResult result = rawBrowserAction.apply(agent, request, Collections.emptyMap());
 
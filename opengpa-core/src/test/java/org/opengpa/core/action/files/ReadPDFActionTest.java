@@ -2,12 +2,14 @@ package org.opengpa.core.action.files;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.opengpa.core.action.ActionParameter;
 import org.opengpa.core.action.ActionResult;
 import org.opengpa.core.agent.Agent;
+import org.opengpa.core.util.PdfPageExtractorTest;
 import org.opengpa.core.workspace.Document;
 import org.opengpa.core.workspace.Workspace;
 import org.springframework.ai.chat.messages.AssistantMessage;
@@ -15,6 +17,7 @@ import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.model.Generation;
 import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.core.io.ByteArrayResource;
 
 import java.util.*;
 
@@ -113,4 +116,43 @@ class ReadPDFActionTest {
         verify(workspace).getDocument(agentId, filename);
         verify(workspace, never()).getDocumentContent(anyString(), anyString());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testApplyWithPDFFile() throws Exception {
+        // Setup
+        Agent agent = mock(Agent.class);
+        String agentId = "agent1";
+        String filename = "manual.pdf";
+        String query = "What is this document about?";
+
+        Map<String, Object> request = new HashMap<>();
+        request.put("file", filename);
+        request.put("query", query);
+
+        // Mock behavior
+        when(agent.getId()).thenReturn(agentId);
+        when(workspace.getDocument(agentId, filename)).thenReturn(
+            Optional.of(Document.builder().name(filename).metadata(Map.of("content-type","application/pdf")).build())
+        );
+        when(workspace.getDocumentResource(agentId, filename)).thenReturn(
+            Optional.of(new ByteArrayResource(PdfPageExtractorTest.createPdf(3)))
+        );
+        when(chatModel.call(any(Prompt.class))).thenReturn(
+            new ChatResponse(List.of(new Generation(new AssistantMessage("A manual"))))
+        );
+
+        // Execute
+        ActionResult result = readPDFAction.apply(agent, request, Collections.emptyMap());
+
+        // Verify
+        assertEquals(ActionResult.Status.SUCCESS, result.getStatus());
+        assertEquals("A manual", result.getResult());
+
+        ArgumentCaptor<Prompt> prompt = ArgumentCaptor.forClass(Prompt.class);
+        verify(chatModel).call(prompt.capture());
+        String content = prompt.getValue().getContents();
+        assertTrue(content.contains("This is page 1"));
+        assertTrue(content.indexOf("This is page 1") < content.indexOf("This is page 3"));
+        verify(workspace, never()).getDocumentContent(anyString(), anyString());
+    }
+}
@@ -95,7 +95,7 @@ class WriteFileActionTest {
         ActionResult result = writeFileAction.apply(agent, request, Collections.emptyMap());
 
         assertEquals(ActionResult.Status.FAILURE, result.getStatus());
-        verify(workspace, never()).addDocument(anyString(), anyString(), any(), any());
+        verify(workspace, never()).addDocument(anyString(), anyString(), any(byte[].class), any());
 
     }
 
@@ -110,7 +110,7 @@ class WriteFileActionTest {
 
         assertThrows(NullPointerException.class, () -> writeFileAction.apply(agent, request, Collections.emptyMap()));
 
-        verify(workspace, never()).addDocument(anyString(), anyString(), any(), any());
+        verify(workspace, never()).addDocument(anyString(), anyString(), any(byte[].class), any());
     }
 
     @Test
@@ -0,0 +1,100 @@
+package org.opengpa.core.action.search;
+
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+import org.opengpa.core.config.SearchConfig;
+import org.opengpa.core.http.FetchCache;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DuckDuckGoSearchProviderTest {
+
+    @Test
+    void parsesTheFirstResults() {
+        StringBuilder html = new StringBuilder("<html><body><div id=\"links\">");
+        for (int i = 1; i <= 6; i++) {
+            html.append(result("//duckduckgo.com/l/?uddg=https%3A%2F%2Fexample" + i + ".com%2Fa%3Fb%3Dc&amp;rut=x", "Title " + i, "Snippet " + i));
+        }
+        html.append("</div></body></html>");
+
+        List<SearchResult> results = DuckDuckGoSearchProvider.parseResults(Jsoup.parse(html.toString()), 5);
+
+        assertEquals(5, results.size());
+        assertEquals(new SearchResult("https://example1.com/a?b=c", "Title 1", "Snippet 1"), results.get(0));
+        assertEquals("https://example5.com/a?b=c", results.get(4).url());
+    }
+
+    @Test
+    void skipsIncompleteResults() {
+        String html = "<html><body><div id=\"links\">"
+                + "<div class=\"results_links\"><div class=\"links_main\">No link</div></div>"
+                + "<div class=\"results_links\"><div class=\"links_main\"><a href=\"https://example.com\">Title</a></div></div>"
+                + result("https://example.org", "Long", "A".repeat(300))
+                + "</div></body></html>";
+
+        List<SearchResult> results = DuckDuckGoSearchProvider.parseResults(Jsoup.parse(html), 5);
+
+        assertEquals(2, results.size());
+        assertEquals(new SearchResult("https://example.com", "Title", ""), results.get(0));
+        assertEquals(250, results.get(1).snippet().length());
+        assertTrue(DuckDuckGoSearchProvider.parseResults(Jsoup.parse("<html><body>Blocked</body></html>"), 5).isEmpty());
+    }
+
+    @Test
+    void retriesServerErrorsAndEncodesTheQuery() {
+        FetchCache fetchCache = mock(FetchCache.class);
+        SearchConfig searchConfig = new SearchConfig();
+        searchConfig.setRetryBackoff(1);
+        when(fetchCache.get(anyString(), any(HttpHeaders.class), any(Duration.class)))
+                .thenThrow(new WebClientResponseException(503, "Unavailable", null, null, null))
+                .thenReturn(ResponseEntity.ok("<html><body><div id=\"links\">" + result("https://example.com", "Title", "Snippet") + "</div></body></html>"));
+
+        List<SearchResult> results = new DuckDuckGoSearchProvider(fetchCache, searchConfig).search("c++ & java", 5);
+
+        assertEquals(1, results.size());
+        verify(fetchCache, times(2)).get(eq("https://html.duckduckgo.com/html/?q=c%2B%2B+%26+java"), any(HttpHeaders.class), any(Duration.class));
+    }
+
+    @Test
+    void doesNotRetryClientErrors() {
+        FetchCache fetchCache = mock(FetchCache.class);
+        when(fetchCache.get(anyString(), any(HttpHeaders.class), any(Duration.class)))
+                .thenThrow(new WebClientResponseException(403, "Forbidden", null, null, null));
+
+        DuckDuckGoSearchProvider provider = new DuckDuckGoSearchProvider(fetchCache, new SearchConfig());
+
+        assertThrows(WebClientResponseException.class, () -> provider.search("query", 5));
+        verify(fetchCache, times(1)).get(anyString(), any(HttpHeaders.class), any(Duration.class));
+    }
+
+    @Test
+    void retriesOnlyNetworkErrorsAndTimeouts() {
+        RuntimeException timeout = assertThrows(RuntimeException.class, () -> Mono.never().block(Duration.ofMillis(1)));
+        assertTrue(DuckDuckGoSearchProvider.isRetryable(timeout));
+        assertTrue(DuckDuckGoSearchProvider.isRetryable(new IllegalStateException("Timeout while waiting", new TimeoutException())));
+        assertTrue(DuckDuckGoSearchProvider.isRetryable(new WebClientRequestException(new IOException("Connection reset"),
+                HttpMethod.GET, URI.create("https://html.duckduckgo.com/html/"), new HttpHeaders())));
+        assertTrue(DuckDuckGoSearchProvider.isRetryable(new WebClientResponseException(429, "Too Many Requests", null, null, null)));
+        assertFalse(DuckDuckGoSearchProvider.isRetryable(new IllegalStateException("No response from https://html.duckduckgo.com/html/")));
+        assertFalse(DuckDuckGoSearchProvider.isRetryable(new IllegalStateException("Interrupted while waiting", new InterruptedException())));
+    }
+
+    private static String result(String href, String title, String snippet) {
+        return "<div class=\"results_links\"><div class=\"links_main\"><a class=\"result__a\" href=\"" + href + "\">" + title
+                + "</a><a class=\"result__snippet\">" + snippet + "</a></div></div>";
+    }
+}
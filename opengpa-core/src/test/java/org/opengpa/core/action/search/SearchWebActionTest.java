@@ -1,7 +1,5 @@
 package org.opengpa.core.action.search;
 
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,8 +8,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.opengpa.core.action.ActionParameter;
 import org.opengpa.core.action.ActionResult;
 import org.opengpa.core.agent.Agent;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 
-import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -26,17 +24,27 @@ class SearchWebActionTest {
     @Mock
     private Agent agent;
 
+    @Mock
+    private SearchProvider searchProvider;
+
     private SearchWebAction searchWebAction;
 
     @BeforeEach
     void setUp() {
-        searchWebAction = new SearchWebAction() {
-            @Override
-            Elements fetchSearchResults(String query) throws IOException {
-                // This will be overridden in specific tests
-                return new Elements();
-            }
-        };
+        searchWebAction = new SearchWebAction(searchProvider);
+    }
+
+    @Test
+    void testActionIsEnabledOnlyWithAProvider() {
+        ApplicationContextRunner runner = new ApplicationContextRunner().withUserConfiguration(SearchWebAction.class);
+
+        runner.withPropertyValues("opengpa.actions.search=none")
+                .run(context -> assertTrue(context.getBeansOfType(SearchWebAction.class).isEmpty()));
+        runner.withBean(SearchProvider.class, () -> searchProvider)
+                .withPropertyValues("opengpa.actions.search=false")
+                .run(context -> assertTrue(context.getBeansOfType(SearchWebAction.class).isEmpty()));
+        runner.withBean(SearchProvider.class, () -> searchProvider)
+                .run(context -> assertEquals(1, context.getBeansOfType(SearchWebAction.class).size()));
     }
 
     @Test
@@ -58,20 +66,14 @@ class SearchWebActionTest {
     }
 
     @Test
-    void testApplyWithValidQuery() throws IOException {
+    void testApplyWithValidQuery() {
         String query = "test query";
         Map<String, Object> request = new HashMap<>();
         request.put("query", query);
 
-        searchWebAction = new SearchWebAction() {
-            @Override
-            Elements fetchSearchResults(String query) {
-                Elements mockResults = new Elements();
-                mockResults.add(createMockResult("http://example1.com", "Title 1", "Snippet 1"));
-                mockResults.add(createMockResult("http://example2.com", "Title 2", "Snippet 2"));
-                return mockResults;
-            }
-        };
+        when(searchProvider.search(query, 5)).thenReturn(List.of(
+                new SearchResult("http://example1.com", "Title 1", "Snippet 1"),
+                new SearchResult("http://example2.com", "Title 2", "Snippet 2")));
 
         ActionResult result = searchWebAction.apply(agent, request, Collections.emptyMap());
 
@@ -79,7 +81,7 @@ class SearchWebActionTest {
         assertTrue(result.getSummary().contains("Searched the web for \"test query\""));
         assertNull(result.getError());
 
-        List<SearchWebAction.SearchResult> searchResults = (List<SearchWebAction.SearchResult>) result.getResult();
+        List<SearchResult> searchResults = (List<SearchResult>) result.getResult();
         assertEquals(2, searchResults.size());
         assertEquals("http://example1.com", searchResults.get(0).url());
         assertEquals("Title 1", searchResults.get(0).title());
@@ -115,12 +117,7 @@ class SearchWebActionTest {
         Map<String, Object> request = new HashMap<>();
         request.put("query", query);
 
-        searchWebAction = new SearchWebAction() {
-            @Override
-            Elements fetchSearchResults(String query) throws IOException {
-                throw new IOException("Connection failed");
-            }
-        };
+        when(searchProvider.search(query, 5)).thenThrow(new IllegalStateException("Connection failed"));
 
         ActionResult result = searchWebAction.apply(agent, request, Collections.emptyMap());
 
@@ -128,57 +125,4 @@ class SearchWebActionTest {
         assertEquals("The web search did not return any results.", result.getSummary());
         assertEquals("Connection failed", result.getError());
     }
-
-    @Test
-    void testGetSearchResultsLimitTo5() throws IOException {
-        searchWebAction = new SearchWebAction() {
-            @Override
-            Elements fetchSearchResults(String query) {
-                Elements mockResults = new Elements();
-                for (int i = 1; i <= 6; i++) {
-                    mockResults.add(createMockResult("http://example" + i + ".com", "Title " + i, "Snippet " + i));
-                }
-                return mockResults;
-            }
-        };
-
-        List<SearchWebAction.SearchResult> results = searchWebAction.getSearchResults("test query");
-
-        assertEquals(5, results.size());
-        assertEquals("http://example1.com", results.get(0).url());
-        assertEquals("http://example5.com", results.get(4).url());
-    }
-
-    @Test
-    void testGetSearchResultsWithLongSnippet() throws IOException {
-        searchWebAction = new SearchWebAction() {
-            @Override
-            Elements fetchSearchResults(String query) {
-                Elements mockResults = new Elements();
-                mockResults.add(createMockResult("http://example.com", "Title", "A".repeat(300)));
-                return mockResults;
-            }
-        };
-
-        List<SearchWebAction.SearchResult> results = searchWebAction.getSearchResults("test query");
-
-        assertEquals(1, results.size());
-        assertEquals(250, results.get(0).snippet().length());
-    }
-
-    private Element createMockResult(String url, String title, String snippet) {
-        Element result = mock(Element.class);
-        Element linksMain = mock(Element.class);
-        Element titleElement = mock(Element.class);
-        Element snippetElement = mock(Element.class);
-
-        when(result.getElementsByClass("links_main")).thenReturn(new Elements(linksMain));
-        when(linksMain.getElementsByTag("a")).thenReturn(new Elements(titleElement));
-        when(titleElement.attr("href")).thenReturn(url);
-        when(titleElement.text()).thenReturn(title);
-        when(result.getElementsByClass("result__snippet")).thenReturn(new Elements(snippetElement));
-        when(snippetElement.text()).thenReturn(snippet);
-
-        return result;
-    }
-}
\ No newline at end of file
+}
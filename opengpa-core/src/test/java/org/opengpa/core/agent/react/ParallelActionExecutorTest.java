@@ -0,0 +1,86 @@
+package org.opengpa.core.agent.react;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.opengpa.core.action.ActionResult;
+import org.opengpa.core.agent.ActionInvocation;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+class ParallelActionExecutorTest {
+
+    @Test
+    void resultsAreReturnedInOrder() {
+        try (ParallelActionExecutor executor = new ParallelActionExecutor(4, 4)) {
+            List<ActionInvocation> invocations = IntStream.range(0, 6)
+                    .mapToObj(i -> invocation("search_web", String.valueOf(i)))
+                    .toList();
+
+            List<ActionResult> results = executor.execute(invocations, invocation -> {
+                String query = (String) invocation.getParameters().get("query");
+                sleep(10L * (6 - Integer.parseInt(query)));
+                return ActionResult.completed(query, "Searched " + query);
+            });
+
+            Assertions.assertEquals(List.of("0", "1", "2", "3", "4", "5"),
+                    results.stream().map(ActionResult::getResult).toList());
+        }
+    }
+
+    @Test
+    void concurrencyIsLimitedPerAction() {
+        Map<String, AtomicInteger> running = new ConcurrentHashMap<>();
+        Map<String, AtomicInteger> maxRunning = new ConcurrentHashMap<>();
+
+        try (ParallelActionExecutor executor = new ParallelActionExecutor(8, 2)) {
+            List<ActionInvocation> invocations = IntStream.range(0, 8)
+                    .mapToObj(i -> invocation(i % 2 == 0 ? "search_web" : "browse_web", String.valueOf(i)))
+                    .toList();
+
+            executor.execute(invocations, invocation -> {
+                int current = running.computeIfAbsent(invocation.getName(), n -> new AtomicInteger()).incrementAndGet();
+                maxRunning.computeIfAbsent(invocation.getName(), n -> new AtomicInteger()).accumulateAndGet(current, Math::max);
+                sleep(20);
+                running.get(invocation.getName()).decrementAndGet();
+                return ActionResult.completed(null, "Done");
+            });
+        }
+
+        Assertions.assertTrue(maxRunning.get("search_web").get() <= 2);
+        Assertions.assertTrue(maxRunning.get("browse_web").get() <= 2);
+    }
+
+    @Test
+    void failingActionIsReportedAsFailure() {
+        try (ParallelActionExecutor executor = new ParallelActionExecutor(2, 2)) {
+            List<ActionResult> results = executor.execute(
+                    List.of(invocation("search_web", "ok"), invocation("search_web", "boom")),
+                    invocation -> {
+                        if ("boom".equals(invocation.getParameters().get("query"))) {
+                            throw new IllegalStateException("Search engine unavailable");
+                        }
+                        return ActionResult.completed("ok", "Searched");
+                    });
+
+            Assertions.assertTrue(results.get(0).isCompleted());
+            Assertions.assertTrue(results.get(1).isFailed());
+            Assertions.assertTrue(results.get(1).getError().contains("Search engine unavailable"));
+        }
+    }
+
+    private static ActionInvocation invocation(String name, String query) {
+        return ActionInvocation.builder().name(name).parameters(Map.of("query", query)).build();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -8,10 +8,29 @@ import org.opengpa.core.action.Action;
 import org.opengpa.core.action.ActionResult;
 import org.opengpa.core.action.browser.RawBrowserAction;
 import org.opengpa.core.action.search.SearchWebAction;
+import org.opengpa.core.action.OutputMessageAction;
 import org.opengpa.core.agent.ActionInvocation;
+import org.opengpa.core.agent.Agent;
+import org.opengpa.core.agent.AgentListener;
 import org.opengpa.core.agent.AgentStep;
+import org.opengpa.core.workspace.Document;
+import org.opengpa.core.workspace.Workspace;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 class ReActAgentTest {
 
@@ -21,7 +40,7 @@ class ReActAgentTest {
     void renderTools() {
         List<Action> actions = Arrays.asList(
                 new RawBrowserAction(null),
-                new SearchWebAction()
+                new SearchWebAction(null)
         );
 
         ReActAgent reActAgent = new ReActAgent(null, null, null, "Task", new HashMap<>());
@@ -68,6 +87,24 @@ class ReActAgentTest {
         Assertions.assertEquals("{\n  \"username\" : \"johndoe\"\n}", result);
     }
 
+    @Test
+    void renderFiles() {
+        ReActAgent reActAgent = new ReActAgent(null, null, null, "Task", new HashMap<>());
+        String result = reActAgent.renderFiles(List.of(Document.builder()
+                .workspaceId("task-1")
+                .name("notes.txt")
+                .size(5)
+                .checksum("185f8db32271fe25f561a6fc938b2e264306ec304eda518007d1764826381969")
+                .metadata(Map.of("uploadedBy", "johndoe"))
+                .build()));
+        Assertions.assertEquals("[ {\n" +
+                "  \"name\" : \"notes.txt\",\n" +
+                "  \"metadata\" : {\n" +
+                "    \"uploadedBy\" : \"johndoe\"\n" +
+                "  }\n" +
+                "} ]", result);
+    }
+
     @Test
     void renderSteps() throws Exception {
         ReActAgent reActAgent = new ReActAgent(null, null, null, "Task", new HashMap<>());
@@ -154,4 +191,139 @@ class ReActAgentTest {
         Assertions.assertEquals(expectedJson, resultJson);
     }
 
-}
\ No newline at end of file
+    @Test
+    void listenersReceiveStepProgress() {
+        ChatModel chatModel = mock(ChatModel.class);
+        when(chatModel.call(any(Prompt.class))).thenReturn(new ChatResponse(List.of(new Generation(new AssistantMessage(
+                "{\"reasoning\": \"I can answer directly\", \"is_final\": true, " +
+                        "\"action\": {\"name\": \"output_message\", \"parameters\": {\"message\": \"Hello\"}}}")))));
+        Workspace workspace = mock(Workspace.class);
+        when(workspace.getDocuments(anyString())).thenReturn(List.of());
+
+        List<String> events = new ArrayList<>();
+        ReActAgent reActAgent = new ReActAgent(chatModel, workspace, List.of(new OutputMessageAction()), "Task", new HashMap<>());
+        reActAgent.addListener(new AgentListener() {
+            @Override
+            public void onUserInput(Agent agent, String userInput) {
+                events.add("input:" + userInput);
+            }
+
+            @Override
+            public void onReasoning(Agent agent, String reasoning) {
+                events.add("reasoning:" + reasoning);
+            }
+
+            @Override
+            public void onActionStarted(Agent agent, ActionInvocation action) {
+                events.add("started:" + action.getName());
+            }
+
+            @Override
+            public void onActionCompleted(Agent agent, ActionInvocation action, ActionResult result) {
+                events.add("completed:" + action.getName() + ":" + result.getStatus());
+            }
+        });
+
+        AgentStep step = reActAgent.executeNextStep("Say hello", Map.of(), new HashMap<>());
+
+        Assertions.assertTrue(step.isFinal());
+        Assertions.assertEquals(List.of(
+                "input:Say hello",
+                "reasoning:I can answer directly",
+                "started:output_message",
+                "completed:output_message:SUCCESS"), events);
+    }
+
+    @Test
+    void streamingDispatchesTheActionWithoutWaitingForTheEnd() {
+        // The stream never completes, the agent must cancel it once the action is complete
+        AtomicBoolean cancelled = new AtomicBoolean();
+        ChatModel chatModel = mock(ChatModel.class);
+        when(chatModel.stream(any(Prompt.class))).thenReturn(Flux.concat(
+                        Flux.just("```json\n{\"reasoning\": \"I can ", "answer directly\", \"is_final\": true, ",
+                                "\"action\": {\"name\": \"output_message\", ", "\"parameters\": {\"message\": \"Hello\"}}", "}\n"),
+                        Flux.<String>never())
+                .map(chunk -> new ChatResponse(List.of(new Generation(new AssistantMessage(chunk)))))
+                .doOnCancel(() -> cancelled.set(true)));
+        Workspace workspace = mock(Workspace.class);
+        when(workspace.getDocuments(anyString())).thenReturn(List.of());
+
+        List<String> reasonings = new ArrayList<>();
+        ReActAgent reActAgent = new ReActAgent(chatModel, workspace, List.of(new OutputMessageAction()), "Task", new HashMap<>());
+        reActAgent.enableStreaming();
+        reActAgent.addListener(new AgentListener() {
+            @Override
+            public void onReasoning(Agent agent, String reasoning) {
+                reasonings.add(reasoning);
+            }
+
+            @Override
+            public void onReasoningDelta(Agent agent, String delta) {
+                reasonings.add("delta:" + delta);
+            }
+        });
+
+        AgentStep step = reActAgent.executeNextStep("Say hello", Map.of(), new HashMap<>());
+
+        Assertions.assertTrue(cancelled.get());
+        Assertions.assertTrue(step.isFinal());
+        Assertions.assertEquals("output_message", step.getAction().getName());
+        Assertions.assertEquals(List.of("delta:I can ", "delta:answer directly", "I can answer directly"), reasonings);
+    }
+
+    @Test
+    void parallelActionsAreRecordedInOrder() {
+        ChatModel chatModel = mock(ChatModel.class);
+        when(chatModel.call(any(Prompt.class))).thenReturn(new ChatResponse(List.of(new Generation(new AssistantMessage(
+                "{\"reasoning\": \"Search all at once\", \"is_final\": false, \"parallel_actions\": [" +
+                        "{\"name\": \"search_web\", \"parameters\": {\"query\": \"second\"}}, " +
+                        "{\"name\": \"search_web\", \"parameters\": {\"query\": \"third\"}}], " +
+                        "\"action\": {\"name\": \"search_web\", \"parameters\": {\"query\": \"first\"}}}")))));
+        Workspace workspace = mock(Workspace.class);
+        when(workspace.getDocuments(anyString())).thenReturn(List.of());
+
+        Action searchAction = mock(Action.class);
+        when(searchAction.getName()).thenReturn("search_web");
+        when(searchAction.apply(any(), anyMap(), anyMap())).thenAnswer(invocation -> {
+            Map<String, Object> input = invocation.getArgument(1);
+            return ActionResult.completed(input.get("query"), "Searched " + input.get("query"));
+        });
+
+        ReActAgent reActAgent = new ReActAgent(chatModel, workspace, List.of(searchAction), "Task", new HashMap<>());
+        try (ParallelActionExecutor executor = new ParallelActionExecutor(4, 4)) {
+            reActAgent.enableParallelActions(executor);
+            AgentStep step = reActAgent.executeNextStep("Search", Map.of(), new HashMap<>());
+
+            Assertions.assertEquals("first", step.getResult().getResult());
+            Assertions.assertEquals(2, step.getParallelActions().size());
+            Assertions.assertEquals(List.of("second", "third"),
+                    step.getParallelResults().stream().map(ActionResult::getResult).toList());
+        }
+    }
+
+    @Test
+    void parallelActionsAwaitingInputAreCancelled() {
+        ChatModel chatModel = mock(ChatModel.class);
+        when(chatModel.call(any(Prompt.class))).thenReturn(new ChatResponse(List.of(new Generation(new AssistantMessage(
+                "{\"reasoning\": \"Search and send the email\", \"is_final\": false, \"parallel_actions\": [" +
+                        "{\"name\": \"send_email\", \"parameters\": {\"to\": \"john@example.com\"}}], " +
+                        "\"action\": {\"name\": \"search_web\", \"parameters\": {\"query\": \"first\"}}}")))));
+        Workspace workspace = mock(Workspace.class);
+        when(workspace.getDocuments(anyString())).thenReturn(List.of());
+
+        Action searchAction = mock(Action.class);
+        when(searchAction.getName()).thenReturn("search_web");
+        when(searchAction.apply(any(), anyMap(), anyMap())).thenReturn(ActionResult.completed("first", "Searched first"));
+        Action emailAction = mock(Action.class);
+        when(emailAction.getName()).thenReturn("send_email");
+        ActionResult awaitingConfirmation = ActionResult.awaitingInput("Confirm the email", Map.of());
+        when(emailAction.apply(any(), anyMap(), anyMap())).thenReturn(awaitingConfirmation);
+
+        ReActAgent reActAgent = new ReActAgent(chatModel, workspace, List.of(searchAction, emailAction), "Task", new HashMap<>());
+        AgentStep step = reActAgent.executeNextStep("Search", Map.of(), new HashMap<>());
+
+        Assertions.assertFalse(step.isAwaitingInput());
+        Assertions.assertTrue(step.getParallelResults().get(0).isFailed());
+        verify(emailAction).cancelAction(reActAgent, awaitingConfirmation.getActionId());
+    }
+}
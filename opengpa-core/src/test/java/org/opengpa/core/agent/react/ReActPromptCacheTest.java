@@ -0,0 +1,131 @@
+package org.opengpa.core.agent.react;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.opengpa.core.action.Action;
+import org.opengpa.core.action.browser.RawBrowserAction;
+import org.opengpa.core.action.search.SearchWebAction;
+import org.springframework.ai.chat.prompt.PromptTemplate;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+
+class ReActPromptCacheTest {
+
+    @Test
+    void staticActionsAreRenderedOnce() {
+        ReActPromptCache cache = new ReActPromptCache();
+        Action action = spy(new SearchWebAction(null));
+        List<Action> actions = List.of(action);
+
+        String first = cache.renderTools(actions, Map.of());
+        String second = cache.renderTools(List.of(action), Map.of());
+
+        Assertions.assertEquals(first, second);
+        verify(action, times(1)).getJsonSchema();
+        verify(action, never()).getData(any());
+    }
+
+    @Test
+    void dynamicActionsAreRenderedAtEachStep() {
+        ReActPromptCache cache = new ReActPromptCache();
+        Action staticAction = spy(new RawBrowserAction(null));
+        Action dynamicAction = mock(Action.class);
+        when(dynamicAction.getName()).thenReturn("rag_search");
+        when(dynamicAction.hasDynamicData()).thenReturn(true);
+        when(dynamicAction.getData(any()))
+                .thenReturn(Map.of("documents", List.of("first.pdf")))
+                .thenReturn(Map.of("documents", List.of("first.pdf", "second.pdf")));
+        List<Action> actions = List.of(staticAction, dynamicAction);
+
+        String first = cache.renderTools(actions, Map.of("username", "johndoe"));
+        String second = cache.renderTools(actions, Map.of("username", "johndoe"));
+
+        Assertions.assertFalse(first.contains("second.pdf"));
+        Assertions.assertTrue(second.contains("second.pdf"));
+        verify(staticAction, times(1)).getJsonSchema();
+        verify(dynamicAction, times(2)).getData(any());
+    }
+
+    @Test
+    void dynamicActionsAreRenderedOncePerDataInstance() {
+        ReActPromptCache cache = new ReActPromptCache();
+        Action dynamicAction = mock(Action.class);
+        when(dynamicAction.getName()).thenReturn("rag_search");
+        when(dynamicAction.getDescription()).thenReturn("Search documents");
+        when(dynamicAction.hasDynamicData()).thenReturn(true);
+        Map<String, Object> data = Map.of("documents", List.of("first.pdf"));
+        when(dynamicAction.getData(any())).thenReturn(data);
+        List<Action> actions = List.of(dynamicAction);
+
+        String first = cache.renderTools(actions, Map.of("username", "johndoe"));
+        String second = cache.renderTools(actions, Map.of("username", "johndoe"));
+
+        Assertions.assertEquals(first, second);
+        verify(dynamicAction, times(2)).getData(any());
+        verify(dynamicAction, times(1)).getDescription();
+    }
+
+    @Test
+    void actionsAreRenderedOnceAcrossActionSets() {
+        ReActPromptCache cache = new ReActPromptCache();
+        Action shared = spy(new SearchWebAction(null));
+        Action other = new RawBrowserAction(null);
+
+        cache.renderTools(List.of(shared), Map.of());
+        String combined = cache.renderTools(List.of(other, shared), Map.of());
+
+        Assertions.assertTrue(combined.contains("search_web"));
+        verify(shared, times(1)).getJsonSchema();
+    }
+
+    @Test
+    void invalidateDropsRenderedActions() {
+        ReActPromptCache cache = new ReActPromptCache();
+        Action action = spy(new SearchWebAction(null));
+
+        cache.renderTools(List.of(action), Map.of());
+        cache.invalidate();
+        cache.renderTools(List.of(action), Map.of());
+
+        verify(action, times(2)).getJsonSchema();
+    }
+
+    @Test
+    void renderEmptyActionList() {
+        Assertions.assertEquals("[ ]", new ReActPromptCache().renderTools(List.of(), Map.of()));
+    }
+
+    @Test
+    void compiledTemplatesMatchPromptTemplate() {
+        ReActPromptCache cache = new ReActPromptCache();
+
+        Map<String, Object> systemVariables = Map.of(
+                "context", "{\n  \"username\" : \"johndoe\"\n}",
+                "actions", "[ ]",
+                "files", "[ ]");
+        Assertions.assertEquals(
+                new PromptTemplate(new ClassPathResource("prompts/reactSystemPrompt.st")).render(systemVariables),
+                cache.getSystemTemplate().render(systemVariables));
+
+        Map<String, Object> userVariables = Map.of(
+                "task", "Find the weather in Brussels",
+                "instructions", "Use celsius",
+                "format", cache.getOutputFormat(),
+                "history", "[ ]");
+        Assertions.assertEquals(
+                new PromptTemplate(new ClassPathResource("prompts/reactUserPrompt.st")).render(userVariables),
+                cache.getUserTemplate().render(userVariables));
+    }
+
+    @Test
+    void compiledTemplateRequiresAllVariables() {
+        CompiledPromptTemplate template = CompiledPromptTemplate.compile("Hello {name}, today is {day}.");
+
+        Assertions.assertEquals("Hello John, today is Monday.", template.render(Map.of("name", "John", "day", "Monday")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> template.render(Map.of("name", "John")));
+    }
+}
@@ -0,0 +1,91 @@
+package org.opengpa.core.agent.react;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.opengpa.core.action.ActionResult;
+import org.opengpa.core.agent.ActionInvocation;
+import org.opengpa.core.agent.AgentStep;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rendering the history section of the prompt for one new step, for a growing history.
+ *
+ * The full variant is what the agent used to do: serialize the whole list of steps at every step.
+ * The incremental variant serializes only the new step. Run with the main method from the IDE.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderedHistoryBenchmark {
+
+    @Param({"5", "20", "40", "80"})
+    public int historySize;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private List<AgentStep> steps;
+
+    private RenderedHistory history;
+
+    private AgentStep nextStep;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        steps = new ArrayList<>();
+        for (int i = 0; i < historySize; i++) {
+            steps.add(step(i));
+        }
+        history = new RenderedHistory(objectMapper, steps);
+
+        // The last step is re-rendered at each invocation, which is the same work as appending a new one
+        nextStep = steps.get(steps.size() - 1);
+    }
+
+    @Benchmark
+    public String fullHistory() throws Exception {
+        return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(steps);
+    }
+
+    @Benchmark
+    public void incrementalStep() {
+        history.refresh(nextStep);
+    }
+
+    @Benchmark
+    public String incrementalHistory() {
+        history.refresh(nextStep);
+        return history.render();
+    }
+
+    private static AgentStep step(int index) {
+        return AgentStep.builder()
+                .input("Input " + index)
+                .reasoning("I need to look up more information about topic " + index + " before answering the user.")
+                .isFinal(false)
+                .action(ActionInvocation.builder()
+                        .name("search_web")
+                        .parameters(Map.of("query", "information about topic " + index))
+                        .build())
+                .result(ActionResult.completed(
+                        List.of(Map.of("url", "https://example.com/" + index, "title", "Result " + index,
+                                "snippet", "A short snippet of text describing the result number " + index)),
+                        "Searched the web for topic " + index))
+                .build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RenderedHistoryBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,83 @@
+package org.opengpa.core.agent.react;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.opengpa.core.action.ActionResult;
+import org.opengpa.core.agent.ActionInvocation;
+import org.opengpa.core.agent.AgentStep;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+class RenderedHistoryTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void renderEmptyHistory() throws Exception {
+        RenderedHistory history = new RenderedHistory(objectMapper);
+        Assertions.assertEquals(fullRender(List.of()), history.render());
+    }
+
+    @Test
+    void renderMatchesFullSerialization() throws Exception {
+        RenderedHistory history = new RenderedHistory(objectMapper);
+        List<AgentStep> steps = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            AgentStep step = step(i);
+            steps.add(step);
+            history.append(step);
+            Assertions.assertEquals(fullRender(steps), history.render());
+        }
+    }
+
+    @Test
+    void refreshLastStep() throws Exception {
+        List<AgentStep> steps = List.of(step(0), step(1), step(2));
+        RenderedHistory history = new RenderedHistory(objectMapper, steps);
+
+        steps.get(2).setFeedback("Please be more specific");
+        history.refresh(steps.get(2));
+
+        Assertions.assertEquals(fullRender(steps), history.render());
+    }
+
+    @Test
+    void refreshMiddleStep() throws Exception {
+        List<AgentStep> steps = List.of(step(0), step(1), step(2));
+        RenderedHistory history = new RenderedHistory(objectMapper, steps);
+
+        steps.get(1).setResult(ActionResult.failed("Cancelled", "The action was cancelled."));
+        steps.get(1).setFinal(true);
+        history.refresh(steps.get(1));
+
+        Assertions.assertEquals(fullRender(steps), history.render());
+    }
+
+    @Test
+    void refreshUnknownStepIsIgnored() throws Exception {
+        List<AgentStep> steps = List.of(step(0));
+        RenderedHistory history = new RenderedHistory(objectMapper, steps);
+
+        history.refresh(step(1));
+
+        Assertions.assertEquals(fullRender(steps), history.render());
+    }
+
+    private String fullRender(List<AgentStep> steps) throws Exception {
+        return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(steps);
+    }
+
+    private static AgentStep step(int index) {
+        return AgentStep.builder()
+                .input("Input " + index)
+                .reasoning("Reasoning for step " + index)
+                .isFinal(false)
+                .action(ActionInvocation.builder().name("search_web").parameters(Map.of("query", "query " + index)).build())
+                .result(ActionResult.completed(List.of("result " + index), "Summary " + index))
+                .build();
+    }
+}
@@ -0,0 +1,145 @@
+package org.opengpa.core.agent.react;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+class StreamingOutputParserTest {
+
+    private static final String OUTPUT = "{\"reasoning\": \"I need to search the web\", \"is_final\": false, " +
+            "\"action\": {\"name\": \"search_web\", \"parameters\": {\"query\": \"weather in {Brussels}\", \"tags\": [\"a\", \"b\"]}}}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void parseCharByChar() {
+        List<String> reasonings = new ArrayList<>();
+        StreamingOutputParser parser = new StreamingOutputParser(objectMapper, reasonings::add);
+
+        for (int i = 0; i < OUTPUT.length(); i++) {
+            parser.feed(OUTPUT.substring(i, i + 1));
+        }
+
+        Assertions.assertTrue(parser.isComplete());
+        ReActAgentOutput output = parser.getOutput();
+        Assertions.assertEquals("I need to search the web", output.getReasoning());
+        Assertions.assertFalse(output.isFinal());
+        Assertions.assertEquals("search_web", output.getAction().getName());
+        Assertions.assertEquals("weather in {Brussels}", output.getAction().getParameters().get("query"));
+        Assertions.assertEquals(List.of("a", "b"), output.getAction().getParameters().get("tags"));
+        Assertions.assertEquals(List.of("I need to search the web"), reasonings);
+    }
+
+    @Test
+    void reasoningIsReportedBeforeTheAction() {
+        List<String> reasonings = new ArrayList<>();
+        StreamingOutputParser parser = new StreamingOutputParser(objectMapper, reasonings::add);
+
+        parser.feed("{\"reasoning\": \"Thinking\", \"is_");
+        Assertions.assertEquals(List.of("Thinking"), reasonings);
+        Assertions.assertFalse(parser.isComplete());
+    }
+
+    @Test
+    void reasoningIsReportedAsItIsStreamed() {
+        List<String> deltas = new ArrayList<>();
+        List<String> reasonings = new ArrayList<>();
+        StreamingOutputParser parser = new StreamingOutputParser(objectMapper, reasonings::add, deltas::add);
+
+        parser.feed("```json\n{\"is_final\": false, \"action\": {\"name\": \"x\", \"parameters\": {\"reasoning\": \"nested\"}}, \"reason");
+        parser.feed("ing\": \"Say \\\"hi");
+        Assertions.assertEquals(List.of("Say \"hi"), deltas);
+        Assertions.assertTrue(reasonings.isEmpty());
+
+        parser.feed("\\\" \\");
+        parser.feed("u00e9\\n\\uD83D");
+        parser.feed("\\uDE00 done\", \"extra\": \"not reasoning\"}");
+
+        Assertions.assertEquals("Say \"hi\" \u00e9\n\uD83D\uDE00 done", String.join("", deltas));
+        Assertions.assertEquals(List.of(String.join("", deltas)), reasonings);
+        Assertions.assertTrue(parser.isComplete());
+    }
+
+    @Test
+    void completeOnceTheActionIsClosed() {
+        StreamingOutputParser parser = new StreamingOutputParser(objectMapper, r -> {});
+
+        parser.feed("```json\n{\"reasoning\": \"Done\", \"is_final\": true, \"parallel_actions\": [], ");
+        parser.feed("\"action\": {\"name\": \"output_message\", \"parameters\": {\"message\": \"Hi\"}}");
+        Assertions.assertTrue(parser.isComplete());
+
+        // Trailing tokens are ignored, even when they are not valid JSON
+        parser.feed("}\n```");
+        Assertions.assertTrue(parser.getOutput().isFinal());
+        Assertions.assertEquals(Map.of("message", "Hi"), parser.getOutput().getAction().getParameters());
+    }
+
+    @Test
+    void fieldsInAnyOrder() {
+        StreamingOutputParser parser = new StreamingOutputParser(objectMapper, r -> {});
+
+        parser.feed("{\"action\": {\"name\": \"output_message\", \"parameters\": {}}, \"extra\": [1, {\"a\": 2}], ");
+        Assertions.assertFalse(parser.isComplete());
+        parser.feed("\"is_final\": true, \"reasoning\": \"Last\"}");
+
+        Assertions.assertTrue(parser.isComplete());
+        Assertions.assertEquals("output_message", parser.getOutput().getAction().getName());
+        Assertions.assertEquals("Last", parser.getOutput().getReasoning());
+    }
+
+    @Test
+    void parallelActionsBeforeTheAction() {
+        StreamingOutputParser parser = new StreamingOutputParser(objectMapper, r -> {});
+
+        parser.feed("{\"reasoning\": \"Search both\", \"is_final\": false, \"parallel_actions\": [" +
+                "{\"name\": \"search_web\", \"parameters\": {\"query\": \"second\"}}], ");
+        Assertions.assertFalse(parser.isComplete());
+        parser.feed("\"action\": {\"name\": \"search_web\", \"parameters\": {\"query\": \"first\"}}");
+
+        Assertions.assertTrue(parser.isComplete());
+        Assertions.assertEquals(1, parser.getOutput().getParallelActions().size());
+        Assertions.assertEquals("second", parser.getOutput().getParallelActions().get(0).getParameters().get("query"));
+    }
+
+    @Test
+    void parallelActionsAfterTheAction() {
+        StreamingOutputParser parser = new StreamingOutputParser(objectMapper, r -> {});
+
+        parser.feed("{\"reasoning\": \"Search both\", \"is_final\": false, " +
+                "\"action\": {\"name\": \"search_web\", \"parameters\": {\"query\": \"first\"}}");
+        Assertions.assertFalse(parser.isComplete());
+        Assertions.assertTrue(parser.hasRequiredFields());
+        parser.feed(", \"parallel_actions\": [{\"name\": \"search_web\", \"parameters\": {\"query\": \"second\"}}]");
+
+        Assertions.assertTrue(parser.isComplete());
+        Assertions.assertEquals("first", parser.getOutput().getAction().getParameters().get("query"));
+        Assertions.assertEquals("second", parser.getOutput().getParallelActions().get(0).getParameters().get("query"));
+    }
+
+    @Test
+    void completeOnceTheObjectIsClosedWithoutParallelActions() {
+        StreamingOutputParser parser = new StreamingOutputParser(objectMapper, r -> {});
+
+        parser.feed("{\"reasoning\": \"Done\", \"is_final\": true, " +
+                "\"action\": {\"name\": \"output_message\", \"parameters\": {\"message\": \"Hi\"}}");
+        Assertions.assertFalse(parser.isComplete());
+        parser.feed("}\n```");
+
+        Assertions.assertTrue(parser.isComplete());
+        Assertions.assertNull(parser.getOutput().getParallelActions());
+    }
+
+    @Test
+    void invalidJsonFails() {
+        StreamingOutputParser parser = new StreamingOutputParser(objectMapper, r -> {});
+
+        parser.feed("{\"reasoning\": \"Oops\" \"is_final\": true}");
+
+        Assertions.assertTrue(parser.isFailed());
+        Assertions.assertFalse(parser.isComplete());
+    }
+}
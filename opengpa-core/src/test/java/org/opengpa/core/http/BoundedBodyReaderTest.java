@@ -0,0 +1,78 @@
+package org.opengpa.core.http;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedBodyReaderTest {
+
+    private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+    @Test
+    void stopsReadingAtTheCharacterBudget() {
+        AtomicInteger emitted = new AtomicInteger();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Flux<DataBuffer> body = Flux.range(0, 1000)
+                .map(i -> buffer("0123456789".repeat(10), StandardCharsets.UTF_8))
+                .doOnNext(buffer -> emitted.incrementAndGet())
+                .doOnCancel(() -> cancelled.set(true));
+
+        BoundedBodyReader.Body result = BoundedBodyReader.read(body, MediaType.TEXT_HTML, Long.MAX_VALUE, 250).block();
+
+        assertEquals(250, result.text().length());
+        assertTrue(result.truncated());
+        assertTrue(cancelled.get());
+        assertTrue(emitted.get() < 20, "Read " + emitted.get() + " buffers");
+    }
+
+    @Test
+    void stopsReadingAtTheByteBudgetWithoutSplittingCharacters() {
+        // Two bytes per character in UTF-8
+        Flux<DataBuffer> body = Flux.just(buffer("ééééé", StandardCharsets.UTF_8), buffer("ééééé", StandardCharsets.UTF_8));
+
+        BoundedBodyReader.Body result = BoundedBodyReader.read(body, MediaType.parseMediaType("text/plain;charset=utf-8"), 7, Integer.MAX_VALUE).block();
+
+        assertEquals("ééé", result.text());
+        assertTrue(result.truncated());
+    }
+
+    @Test
+    void decodesCharactersSplitAcrossBuffers() {
+        byte[] bytes = "Ça coûte 5 €".getBytes(StandardCharsets.UTF_8);
+        Flux<DataBuffer> body = Flux.range(0, bytes.length).map(i -> bufferFactory.wrap(new byte[]{bytes[i]}));
+
+        BoundedBodyReader.Body result = BoundedBodyReader.read(body, MediaType.parseMediaType("text/plain;charset=UTF-8"), Long.MAX_VALUE, Integer.MAX_VALUE).block();
+
+        assertEquals("Ça coûte 5 €", result.text());
+        assertFalse(result.truncated());
+    }
+
+    @Test
+    void detectsTheCharsetOfTheBody() {
+        Charset latin1 = StandardCharsets.ISO_8859_1;
+        String html = "<html><head><meta http-equiv=\"Content-Type\" content=\"text/html; charset=iso-8859-1\"></head><body>Café</body></html>";
+
+        BoundedBodyReader.Body result = BoundedBodyReader.read(Flux.just(buffer(html, latin1)), MediaType.TEXT_HTML, Long.MAX_VALUE, Integer.MAX_VALUE).block();
+
+        assertEquals(latin1, result.charset());
+        assertTrue(result.text().contains("Café"));
+
+        byte[] bom = {(byte) 0xFF, (byte) 0xFE, 'O', 0, 'K', 0};
+        assertEquals(StandardCharsets.UTF_16LE, BoundedBodyReader.detectCharset(bom, bom.length));
+        byte[] plain = "<p>No charset</p>".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(StandardCharsets.UTF_8, BoundedBodyReader.detectCharset(plain, plain.length));
+    }
+
+    private DataBuffer buffer(String text, Charset charset) {
+        return bufferFactory.wrap(text.getBytes(charset));
+    }
+}
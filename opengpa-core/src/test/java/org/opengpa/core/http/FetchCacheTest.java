@@ -0,0 +1,230 @@
+package org.opengpa.core.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opengpa.core.config.FetchCacheConfig;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FetchCacheTest {
+
+    private final FetchCacheConfig config = new FetchCacheConfig();
+
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+
+    private final MutableClock clock = new MutableClock();
+
+    private HttpServer server;
+
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.createContext("/max-age", exchange -> respond(exchange, 200, "public, max-age=60", null, "fresh"));
+        server.createContext("/no-store", exchange -> respond(exchange, 200, "no-store", null, "uncached"));
+        server.createContext("/etag", exchange -> {
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                respond(exchange, 304, "max-age=10", "\"v1\"", null);
+            } else {
+                respond(exchange, 200, "max-age=10", "\"v1\"", "versioned");
+            }
+        });
+        server.createContext("/slow", exchange -> {
+            sleep(200);
+            respond(exchange, 200, "max-age=60", null, "slow");
+        });
+        server.createContext("/large", exchange -> respond(exchange, 200, "max-age=60", null, "x".repeat(100_000)));
+        server.createContext("/missing", exchange -> respond(exchange, 404, null, null, "missing"));
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void freshResponsesAreServedFromMemory() {
+        FetchCache cache = new FetchCache(WebClient.create(), config, clock);
+
+        assertEquals("fresh", cache.get(baseUrl + "/max-age").getBody());
+        assertEquals("fresh", cache.get(baseUrl + "/max-age").getBody());
+        assertEquals(1, requests.get("/max-age").get());
+
+        clock.advance(Duration.ofSeconds(61));
+        assertEquals("fresh", cache.get(baseUrl + "/max-age").getBody());
+        assertEquals(2, requests.get("/max-age").get());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void noStoreResponsesAreNotCached() {
+        FetchCache cache = new FetchCache(WebClient.create(), config, clock);
+
+        cache.get(baseUrl + "/no-store");
+        cache.get(baseUrl + "/no-store");
+
+        assertEquals(2, requests.get("/no-store").get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void staleResponsesAreRevalidated() {
+        FetchCache cache = new FetchCache(WebClient.create(), config, clock);
+
+        assertEquals("versioned", cache.get(baseUrl + "/etag").getBody());
+        clock.advance(Duration.ofSeconds(11));
+        ResponseEntity<String> revalidated = cache.get(baseUrl + "/etag");
+
+        assertEquals(200, revalidated.getStatusCode().value());
+        assertEquals("versioned", revalidated.getBody());
+        assertEquals("text/html;charset=utf-8", revalidated.getHeaders().getContentType().toString());
+        assertEquals(2, requests.get("/etag").get());
+
+        // Fresh again after the 304 response
+        cache.get(baseUrl + "/etag");
+        assertEquals(2, requests.get("/etag").get());
+    }
+
+    @Test
+    void hostTtlOverridesTheResponseHeaders() {
+        config.setHostTtlSeconds(Map.of("127.0.0.1", 3600L));
+        FetchCache cache = new FetchCache(WebClient.create(), config, clock);
+
+        cache.get(baseUrl + "/max-age");
+        clock.advance(Duration.ofMinutes(30));
+        cache.get(baseUrl + "/max-age");
+
+        assertEquals(1, requests.get("/max-age").get());
+    }
+
+    @Test
+    void concurrentFetchesShareOneRequest() throws Exception {
+        FetchCache cache = new FetchCache(WebClient.create(), config, clock);
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(callers.submit(() -> cache.get(baseUrl + "/slow").getBody()));
+            }
+            for (Future<String> result : results) {
+                assertEquals("slow", result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertEquals(1, requests.get("/slow").get());
+    }
+
+    @Test
+    void bodiesAreReadUpToTheBudget() {
+        FetchCache cache = new FetchCache(WebClient.create(), config, clock);
+
+        assertEquals(1000, cache.get(baseUrl + "/large", new HttpHeaders(), null, 1000).getBody().length());
+        assertEquals(500, cache.get(baseUrl + "/large", new HttpHeaders(), null, 500).getBody().length());
+        assertEquals(1, requests.get("/large").get());
+
+        // The cached beginning of the body is not enough for a larger budget
+        assertEquals(100_000, cache.get(baseUrl + "/large").getBody().length());
+        assertEquals(2, requests.get("/large").get());
+        cache.get(baseUrl + "/large", new HttpHeaders(), null, 2000);
+        assertEquals(2, requests.get("/large").get());
+    }
+
+    @Test
+    void errorsAreThrownAndNotCached() {
+        FetchCache cache = new FetchCache(WebClient.create(), config, clock);
+
+        WebClientResponseException exception = assertThrows(WebClientResponseException.class,
+                () -> cache.get(baseUrl + "/missing"));
+        assertEquals(404, exception.getStatusCode().value());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void diskTierSurvivesRestarts(@TempDir Path directory) {
+        config.setDiskDirectory(directory.toString());
+        new FetchCache(WebClient.create(), config, clock).get(baseUrl + "/max-age");
+
+        FetchCache restarted = new FetchCache(WebClient.create(), config, clock);
+        assertEquals("fresh", restarted.get(baseUrl + "/max-age", new HttpHeaders(), Duration.ofSeconds(5)).getBody());
+        assertEquals(1, requests.get("/max-age").get());
+        assertEquals(1, restarted.getHitCount());
+    }
+
+    private void respond(HttpExchange exchange, int status, String cacheControl, String etag, String body) throws IOException {
+        requests.computeIfAbsent(exchange.getHttpContext().getPath(), path -> new AtomicInteger()).incrementAndGet();
+        exchange.getResponseHeaders().add("Content-Type", "text/html;charset=utf-8");
+        if (cacheControl != null) {
+            exchange.getResponseHeaders().add("Cache-Control", cacheControl);
+        }
+        if (etag != null) {
+            exchange.getResponseHeaders().add("ETag", etag);
+        }
+        byte[] bytes = body != null ? body.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        exchange.sendResponseHeaders(status, bytes.length > 0 ? bytes.length : -1);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class MutableClock extends Clock {
+
+        private volatile Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
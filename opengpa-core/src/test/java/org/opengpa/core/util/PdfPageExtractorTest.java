@@ -0,0 +1,90 @@
+package org.opengpa.core.util;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PdfPageExtractorTest {
+
+    @TempDir
+    Path folder;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testPagesAreExtractedInOrder() throws IOException {
+        Path file = folder.resolve("manual.pdf");
+        Files.write(file, createPdf(40));
+        PdfPageExtractor extractor = new PdfPageExtractor(executor, 4, 3);
+
+        List<String> pages = new ArrayList<>();
+        try (PdfPageExtractor.Pages iterator = extractor.open(file)) {
+            assertEquals(40, iterator.getPageCount());
+            iterator.forEachRemaining(pages::add);
+        }
+
+        assertEquals(40, pages.size());
+        for (int i = 0; i < pages.size(); i++) {
+            assertEquals("This is page " + (i + 1), pages.get(i).trim());
+        }
+    }
+
+    @Test
+    void testCloseStopsExtraction() throws IOException {
+        PdfPageExtractor extractor = new PdfPageExtractor(executor, 2, 1);
+
+        try (PdfPageExtractor.Pages pages = extractor.open(new ByteArrayInputStream(createPdf(10)))) {
+            assertEquals("This is page 1", pages.next().trim());
+            assertEquals("This is page 2", pages.next().trim());
+
+            pages.close();
+            assertFalse(pages.hasNext());
+        }
+    }
+
+    @Test
+    void testInvalidPdf() {
+        PdfPageExtractor extractor = new PdfPageExtractor(executor, 2, 1);
+
+        assertThrows(IOException.class, () -> extractor.open(new ByteArrayInputStream("Not a PDF".getBytes())));
+    }
+
+    public static byte[] createPdf(int pageCount) throws IOException {
+        try (PDDocument document = new PDDocument(); ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+            for (int i = 1; i <= pageCount; i++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
+                    contentStream.beginText();
+                    contentStream.setFont(PDType1Font.HELVETICA, 12);
+                    contentStream.newLineAtOffset(72, 700);
+                    contentStream.showText("This is page " + i);
+                    contentStream.endText();
+                }
+            }
+            document.save(outputStream);
+            return outputStream.toByteArray();
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package org.opengpa.mcp;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.modelcontextprotocol.client.McpClient;
@@ -26,6 +25,8 @@ public class McpSyncAction implements Action {
 
     private final ObjectMapper mapper = new ObjectMapper();
 
+    private volatile JsonNode jsonSchema;
+
     public McpSyncAction(McpSyncClient client, McpSchema.Tool tool) {
         this.tool = tool;
         this.client = client;
@@ -48,12 +49,12 @@ public class McpSyncAction implements Action {
 
     @Override
     public JsonNode getJsonSchema() {
-        try {
-            String schemaString = mapper.writeValueAsString(tool.inputSchema());
-            return mapper.readTree(schemaString);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
+        JsonNode schema = jsonSchema;
+        if (schema == null) {
+            schema = mapper.valueToTree(tool.inputSchema());
+            jsonSchema = schema;
         }
+        return schema;
     }
 
     @Override
@@ -9,7 +9,7 @@ import org.opengpa.core.action.ActionResult;
 import org.opengpa.core.action.LegacyActionAdapter;
 import org.opengpa.core.agent.Agent;
 import org.opengpa.rag.service.RagChunk;
-import org.opengpa.rag.service.RagDocument;
+import org.opengpa.rag.service.RagDocumentCatalog;
 import org.opengpa.rag.service.RagService;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.model.Generation;
@@ -36,6 +36,10 @@ public class RagAction extends LegacyActionAdapter {
 
     private final RagService ragService;
 
+    private final RagDocumentCatalog documentCatalog;
+
+    private static final Pattern UUID_PATTERN = Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+
     private static final String PROMPT = """
             The following is a list of document chunks and a query from a user. You must try to answer the user query
             only using information provided by the chunks.
@@ -52,9 +56,10 @@ public class RagAction extends LegacyActionAdapter {
                         
             """;
 
-    public RagAction(ChatModel chatModel, RagService ragService) {
+    public RagAction(ChatModel chatModel, RagService ragService, RagDocumentCatalog documentCatalog) {
         this.chatModel = chatModel;
         this.ragService = ragService;
+        this.documentCatalog = documentCatalog;
     }
 
     @Override
@@ -94,7 +99,7 @@ public class RagAction extends LegacyActionAdapter {
 
         log.debug("Searching RAG agent {} for keywords {}", agent.getId(), keywords);
 
-        List<Document> chunks = ragService.searchDocuments(context.getOrDefault("username", null), query);
+        List<Document> chunks = ragService.searchDocuments(context.getOrDefault("username", null), query, keywords);
         List<Map<String, String>> chunksDTO = chunkDTO(chunks);
 
         StringBuilder stringBuilder = new StringBuilder();
@@ -106,56 +111,51 @@ public class RagAction extends LegacyActionAdapter {
 
         return ActionResult.builder()
                 .status(ActionResult.Status.SUCCESS)
-                .result(prepareResponse(response.getOutput().getText()))
+                .result(prepareResponse(response.getOutput().getText(), chunks))
                 .summary(String.format("Searched internal documents for '" + query + "'"))
                 .build();
     }
 
-    private RagActionResult prepareResponse(String content) {
+    private RagActionResult prepareResponse(String content, List<Document> chunks) {
         RagActionResult result = new RagActionResult();
         result.setContent(content);
-        result.setChunks(extractReferences(content));
+        result.setChunks(extractReferences(content, chunks));
         return result;
     }
 
-    private List<RagActionChunkResult> extractReferences(String content) {
-        // First we extract all UUIDs
-        Set<String> uniqueUUIDs = new HashSet<>();
-        Pattern pattern = Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
-        Matcher matcher = pattern.matcher(content);
+    private List<RagActionChunkResult> extractReferences(String content, List<Document> chunks) {
+        // First we extract all UUIDs, in order of citation
+        Set<String> uniqueUUIDs = new LinkedHashSet<>();
+        Matcher matcher = UUID_PATTERN.matcher(content);
         while (matcher.find()) {
-            String uuidString = matcher.group();
-            uniqueUUIDs.add(uuidString);
+            uniqueUUIDs.add(matcher.group().toLowerCase());
         }
 
-        // Collect all chunks
+        // Chunks given to the model are already known, the others are fetched in a single query
+        Map<String, RagActionChunkResult> references = new HashMap<>();
+        chunks.stream()
+                .filter(chunk -> uniqueUUIDs.contains(chunk.getId()))
+                .forEach(chunk -> references.putIfAbsent(chunk.getId(), mapDocumentToResult(chunk)));
+
+        List<String> missingUUIDs = uniqueUUIDs.stream().filter(uuid -> !references.containsKey(uuid)).toList();
+        ragService.getChunks(missingUUIDs)
+                .forEach(chunk -> references.put(chunk.getChunkId(), mapChunkToResult(chunk)));
+
         return uniqueUUIDs.stream()
-                .map(ragService::getChunk)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .map(this::mapChunkToResult)
+                .map(references::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
     @Override
-    public Map<String, Object> getData(Map<String, String> content) {
-        return Map.of("documents", renderRagDocuments(content.getOrDefault("username", null)));
+    public boolean hasDynamicData() {
+        return true;
     }
 
-    private List<Map<String, String>> renderRagDocuments(String username) {
-        if (ragService == null) return Collections.emptyList();
-
-        List<Map<String, String>> documents = new ArrayList<>();
-
-        for (RagDocument ragDocument : ragService.listDocuments(username)) {
-            Map<String, String> document = new HashMap<>();
-            document.put("filename", ragDocument.getFilename());
-            document.put("title", ragDocument.getTitle());
-            document.put("description", ragDocument.getDescription());
-            documents.add(document);
-        }
-
-        return documents;
+    @Override
+    public Map<String, Object> getData(Map<String, String> content) {
+        // Cached per user, the same instance is returned until the user's documents change
+        return documentCatalog.getCatalog(content.getOrDefault("username", null));
     }
 
     private static ActionResult errorResult(String userMessage, String errorMessage) {
@@ -185,6 +185,17 @@ public class RagAction extends LegacyActionAdapter {
         }
     }
 
+    private RagActionChunkResult mapDocumentToResult(Document chunk) {
+        Map<String, Object> metadata = chunk.getMetadata();
+        RagActionChunkResult result = new RagActionChunkResult();
+        result.setId(chunk.getId());
+        result.setDocumentId(Objects.toString(metadata.get("documentId"), null));
+        result.setDocumentTitle(Objects.toString(metadata.get("title"), null));
+        result.setDocumentDescription(Objects.toString(metadata.get("description"), null));
+        result.setContent(chunk.getText());
+        return result;
+    }
+
     private RagActionChunkResult mapChunkToResult(RagChunk chunk) {
         RagActionChunkResult result = new RagActionChunkResult();
         result.setId(chunk.getChunkId());
@@ -0,0 +1,159 @@
+package org.opengpa.rag.chunker;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * Base class of the chunkers, buffering the parts of the text until a chunk can be cut.
+ *
+ * Boundaries are searched directly in the buffer, the only copy made is the text of each chunk. The text
+ * already chunked is dropped from the buffer, apart from the overlap with the next chunk.
+ */
+public abstract class AbstractChunker implements Chunker {
+
+    @Override
+    public void chunk(Iterator<? extends CharSequence> parts, Consumer<String> consumer) {
+        StringBuilder buffer = new StringBuilder();
+        int start = 0;
+
+        while (parts.hasNext()) {
+            buffer.append(parts.next());
+
+            int maxEnd;
+            while ((maxEnd = windowEnd(buffer, start, false)) >= 0) {
+                start = emit(buffer, start, maxEnd, false, consumer);
+            }
+
+            if (start > 0) {
+                buffer.delete(0, start);
+                start = 0;
+            }
+        }
+
+        while (start < buffer.length()) {
+            start = emit(buffer, start, windowEnd(buffer, start, true), true, consumer);
+        }
+    }
+
+    /**
+     * Get the maximum end of a chunk starting at start. Unless this is the end of the text, return -1 when
+     * the text does not extend beyond the chunk, so that its end can be chosen once more text is available.
+     */
+    protected abstract int windowEnd(CharSequence text, int start, boolean last);
+
+    /**
+     * Choose the end of a chunk, between start and maxEnd
+     */
+    protected abstract int boundary(CharSequence text, int start, int maxEnd);
+
+    /**
+     * Get the start of the chunk following the chunk [start, end), which is end without overlap
+     */
+    protected abstract int overlapStart(CharSequence text, int start, int end);
+
+    private int emit(CharSequence text, int start, int maxEnd, boolean last, Consumer<String> consumer) {
+        boolean endOfText = last && maxEnd >= text.length();
+        int end = endOfText ? text.length() : boundary(text, start, maxEnd);
+
+        int chunkStart = start;
+        int chunkEnd = end;
+        while (chunkStart < chunkEnd && Character.isWhitespace(text.charAt(chunkStart))) {
+            chunkStart++;
+        }
+        while (chunkEnd > chunkStart && Character.isWhitespace(text.charAt(chunkEnd - 1))) {
+            chunkEnd--;
+        }
+        if (chunkStart < chunkEnd) {
+            consumer.accept(text.subSequence(chunkStart, chunkEnd).toString());
+        }
+
+        if (endOfText) {
+            return end;
+        }
+
+        // Always move forward, the overlap is at most the chunk itself
+        return Math.min(Math.max(overlapStart(text, start, end), start + 1), end);
+    }
+
+    /**
+     * Find the end of the last sentence ending between from and to, or -1
+     */
+    protected static int lastSentenceEnd(CharSequence text, int from, int to) {
+        for (int i = to - 1; i >= from; i--) {
+            if (isSentenceEnd(text, i)) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find the start of the first sentence starting between from and to, or -1
+     */
+    protected static int firstSentenceStart(CharSequence text, int from, int to) {
+        for (int i = Math.max(from - 1, 0); i < to - 1; i++) {
+            if (isSentenceEnd(text, i)) {
+                int sentenceStart = skipWhitespace(text, i + 1, to);
+                return sentenceStart < to ? sentenceStart : -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find the end of the last paragraph, followed by a blank line, ending between from and to, or -1
+     */
+    protected static int lastParagraphEnd(CharSequence text, int from, int to) {
+        for (int i = to - 1; i > from; i--) {
+            if (text.charAt(i) != '\n') {
+                continue;
+            }
+
+            int j = i - 1;
+            while (j > from && (text.charAt(j) == ' ' || text.charAt(j) == '\t' || text.charAt(j) == '\r')) {
+                j--;
+            }
+            if (text.charAt(j) == '\n') {
+                return j + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find the position following the last whitespace between from and to, or -1
+     */
+    protected static int lastWhitespace(CharSequence text, int from, int to) {
+        for (int i = to - 1; i >= from; i--) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find the start of the first word starting between from and to, or -1
+     */
+    protected static int firstWordStart(CharSequence text, int from, int to) {
+        if (from > 0 && !Character.isWhitespace(text.charAt(from - 1))) {
+            while (from < to && !Character.isWhitespace(text.charAt(from))) {
+                from++;
+            }
+        }
+        int wordStart = skipWhitespace(text, from, to);
+        return wordStart < to ? wordStart : -1;
+    }
+
+    private static boolean isSentenceEnd(CharSequence text, int i) {
+        char c = text.charAt(i);
+        return (c == '.' || c == '!' || c == '?') && (i + 1 == text.length() || Character.isWhitespace(text.charAt(i + 1)));
+    }
+
+    private static int skipWhitespace(CharSequence text, int from, int to) {
+        while (from < to && Character.isWhitespace(text.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+}
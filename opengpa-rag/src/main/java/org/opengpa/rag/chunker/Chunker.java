@@ -0,0 +1,28 @@
+package org.opengpa.rag.chunker;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Splits a text in chunks to be embedded and indexed.
+ */
+public interface Chunker {
+
+    /**
+     * Split a text provided as consecutive parts, e.g. the pages of a document. The parts are consumed
+     * lazily, only the text not chunked yet is kept in memory.
+     */
+    void chunk(Iterator<? extends CharSequence> parts, Consumer<String> consumer);
+
+    default List<String> chunk(Iterator<? extends CharSequence> parts) {
+        List<String> chunks = new ArrayList<>();
+        chunk(parts, chunks::add);
+        return chunks;
+    }
+
+    default List<String> chunk(CharSequence text) {
+        return chunk(List.of(text).iterator());
+    }
+}
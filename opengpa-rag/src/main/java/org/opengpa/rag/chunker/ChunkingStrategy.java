@@ -0,0 +1,30 @@
+package org.opengpa.rag.chunker;
+
+public enum ChunkingStrategy {
+
+    // Chunks of at most size characters, ending at a sentence when possible
+    SENTENCE {
+        @Override
+        public Chunker create(int size, int overlap) {
+            return new SentenceChunker(size, overlap);
+        }
+    },
+
+    // Chunks of at most size characters, ending at a paragraph or else at a sentence when possible
+    PARAGRAPH {
+        @Override
+        public Chunker create(int size, int overlap) {
+            return new ParagraphChunker(size, overlap);
+        }
+    },
+
+    // Chunks of at most size estimated tokens, overlapping by overlap tokens
+    TOKEN {
+        @Override
+        public Chunker create(int size, int overlap) {
+            return new TokenChunker(size, overlap);
+        }
+    };
+
+    public abstract Chunker create(int size, int overlap);
+}
@@ -0,0 +1,18 @@
+package org.opengpa.rag.chunker;
+
+/**
+ * Chunks of at most maxLength characters, ending at the end of a paragraph when one ends in the second half
+ * of the chunk, or else like a {@link SentenceChunker}.
+ */
+public class ParagraphChunker extends SentenceChunker {
+
+    public ParagraphChunker(int maxLength, int overlap) {
+        super(maxLength, overlap);
+    }
+
+    @Override
+    protected int boundary(CharSequence text, int start, int maxEnd) {
+        int end = lastParagraphEnd(text, start + maxLength / 2, maxEnd);
+        return end < 0 ? super.boundary(text, start, maxEnd) : end;
+    }
+}
@@ -0,0 +1,55 @@
+package org.opengpa.rag.chunker;
+
+/**
+ * Chunks of at most maxLength characters, ending at the end of a sentence when one ends in the second half
+ * of the chunk, or else at a whitespace. Consecutive chunks overlap by about overlap characters, starting
+ * at a sentence or a word.
+ */
+public class SentenceChunker extends AbstractChunker {
+
+    protected final int maxLength;
+
+    protected final int overlap;
+
+    public SentenceChunker(int maxLength, int overlap) {
+        if (maxLength <= 0 || overlap < 0 || overlap >= maxLength) {
+            throw new IllegalArgumentException("Invalid chunk length " + maxLength + " or overlap " + overlap);
+        }
+        this.maxLength = maxLength;
+        this.overlap = overlap;
+    }
+
+    @Override
+    protected int windowEnd(CharSequence text, int start, boolean last) {
+        int end = start + maxLength;
+        if (end < text.length()) {
+            return end;
+        }
+        return last ? text.length() : -1;
+    }
+
+    @Override
+    protected int boundary(CharSequence text, int start, int maxEnd) {
+        int minEnd = start + maxLength / 2;
+
+        int end = lastSentenceEnd(text, minEnd, maxEnd);
+        if (end < 0) {
+            end = lastWhitespace(text, minEnd, maxEnd);
+        }
+        return end < 0 ? maxEnd : end;
+    }
+
+    @Override
+    protected int overlapStart(CharSequence text, int start, int end) {
+        if (overlap == 0) {
+            return end;
+        }
+
+        int from = Math.max(end - overlap, start + 1);
+        int next = firstSentenceStart(text, from, end);
+        if (next < 0) {
+            next = firstWordStart(text, from, end);
+        }
+        return next < 0 ? from : next;
+    }
+}
@@ -0,0 +1,111 @@
+package org.opengpa.rag.chunker;
+
+/**
+ * Chunks of at most maxTokens tokens, ending at the end of a sentence when one ends in the second half of
+ * the chunk, or else between two words. Consecutive chunks overlap by at most overlapTokens tokens.
+ *
+ * Tokens are estimated without a tokenizer: a word counts as one token per four characters and any other
+ * non-whitespace character as one token, which is close to the tokenizers of the embedding models.
+ */
+public class TokenChunker extends AbstractChunker {
+
+    private static final int CHARACTERS_PER_TOKEN = 4;
+
+    private final int maxTokens;
+
+    private final int overlapTokens;
+
+    public TokenChunker(int maxTokens, int overlapTokens) {
+        if (maxTokens <= 0 || overlapTokens < 0 || overlapTokens >= maxTokens) {
+            throw new IllegalArgumentException("Invalid chunk tokens " + maxTokens + " or overlap " + overlapTokens);
+        }
+        this.maxTokens = maxTokens;
+        this.overlapTokens = overlapTokens;
+    }
+
+    @Override
+    protected int windowEnd(CharSequence text, int start, boolean last) {
+        int length = text.length();
+        int tokens = 0;
+        int i = start;
+
+        while (true) {
+            while (i < length && Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            if (i == length) {
+                return last ? length : -1;
+            }
+
+            int tokenEnd = tokenEnd(text, i);
+            if (tokenEnd == length && !last) {
+                // The word may continue in the next part
+                return -1;
+            }
+
+            int cost = cost(i, tokenEnd);
+            if (tokens + cost > maxTokens) {
+                // A single word longer than a chunk is split
+                return tokens == 0 ? i + maxTokens * CHARACTERS_PER_TOKEN : i;
+            }
+            tokens += cost;
+            i = tokenEnd;
+        }
+    }
+
+    @Override
+    protected int boundary(CharSequence text, int start, int maxEnd) {
+        int end = lastSentenceEnd(text, start + (maxEnd - start) / 2, maxEnd);
+        return end < 0 ? maxEnd : end;
+    }
+
+    @Override
+    protected int overlapStart(CharSequence text, int start, int end) {
+        int tokens = 0;
+        int i = end;
+
+        while (i > start) {
+            int tokenEnd = i;
+            while (tokenEnd > start && Character.isWhitespace(text.charAt(tokenEnd - 1))) {
+                tokenEnd--;
+            }
+            if (tokenEnd == start) {
+                break;
+            }
+
+            int tokenStart = tokenStart(text, start, tokenEnd);
+            int cost = cost(tokenStart, tokenEnd);
+            if (tokens + cost > overlapTokens) {
+                break;
+            }
+            tokens += cost;
+            i = tokenStart;
+        }
+        return i;
+    }
+
+    private static int tokenEnd(CharSequence text, int i) {
+        if (!Character.isLetterOrDigit(text.charAt(i))) {
+            return i + 1;
+        }
+        while (i < text.length() && Character.isLetterOrDigit(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int tokenStart(CharSequence text, int start, int end) {
+        int i = end - 1;
+        if (!Character.isLetterOrDigit(text.charAt(i))) {
+            return i;
+        }
+        while (i > start && Character.isLetterOrDigit(text.charAt(i - 1))) {
+            i--;
+        }
+        return i;
+    }
+
+    private static int cost(int tokenStart, int tokenEnd) {
+        return (tokenEnd - tokenStart + CHARACTERS_PER_TOKEN - 1) / CHARACTERS_PER_TOKEN;
+    }
+}
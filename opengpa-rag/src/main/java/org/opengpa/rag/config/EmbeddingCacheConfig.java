@@ -0,0 +1,58 @@
+package org.opengpa.rag.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.opengpa.rag.embedding.CachingEmbeddingModel;
+import org.opengpa.rag.embedding.EmbeddingCache;
+import org.opengpa.rag.repository.EmbeddingCacheRepository;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Wraps the embedding model used by the vector store so that identical texts are embedded only once.
+ */
+@Configuration
+@Slf4j
+@ConditionalOnProperty(prefix = "opengpa.rag.embedding-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class EmbeddingCacheConfig {
+
+    @Bean
+    public EmbeddingCache embeddingCache(EmbeddingCacheRepository repository, RagConfig ragConfig,
+                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        EmbeddingCache embeddingCache = new EmbeddingCache(repository, ragConfig.getEmbeddingCacheNamespace(),
+                ragConfig.getEmbeddingCacheSize());
+
+        meterRegistry.ifAvailable(registry -> {
+            FunctionCounter.builder("opengpa.rag.embedding.cache", embeddingCache, EmbeddingCache::getHitCount)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("opengpa.rag.embedding.cache", embeddingCache, EmbeddingCache::getMissCount)
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("opengpa.rag.embedding.cache.size", embeddingCache, EmbeddingCache::size)
+                    .register(registry);
+        });
+
+        return embeddingCache;
+    }
+
+    @Bean
+    public static BeanPostProcessor cachingEmbeddingModelPostProcessor(ObjectProvider<EmbeddingCache> embeddingCache) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof EmbeddingModel embeddingModel && !(bean instanceof CachingEmbeddingModel)) {
+                    log.info("Caching the embeddings of {}", beanName);
+                    return new CachingEmbeddingModel(embeddingModel, embeddingCache::getObject);
+                }
+                return bean;
+            }
+        };
+    }
+}
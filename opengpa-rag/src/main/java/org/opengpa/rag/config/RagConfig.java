@@ -0,0 +1,56 @@
+package org.opengpa.rag.config;
+
+import lombok.Data;
+import org.opengpa.rag.chunker.ChunkingStrategy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "opengpa.rag")
+@Data
+public class RagConfig {
+
+    // Size and overlap of the chunks, in characters or in tokens for the TOKEN strategy
+    private ChunkingStrategy chunkingStrategy = ChunkingStrategy.SENTENCE;
+    private int chunkSize = 1000;
+    private int chunkOverlap = 100;
+
+    // Workers sending chunks to the vector store, which computes their embeddings
+    private int embeddingWorkers = 4;
+
+    // Maximum number of chunks waiting for a worker
+    private int chunkQueueSize = 256;
+
+    // The batch size grows by one chunk after each successful batch and is halved after a failure
+    private int initialBatchSize = 10;
+    private int maxBatchSize = 64;
+
+    // Retries of a chunk failing on its own before it is counted as failed, the backoff doubles after each retry
+    private int indexRetries = 3;
+    private long indexRetryBackoffMs = 1000;
+
+    // Minimum delay between two progress updates of the same document
+    private long progressIntervalMs = 1000;
+
+    // In-memory entries of the embedding cache, enabled with opengpa.rag.embedding-cache.enabled
+    private int embeddingCacheSize = 2048;
+
+    // Part of the embedding cache key, to be changed when the embedding model changes
+    private String embeddingCacheNamespace = "default";
+
+    // Chunks returned by a search, fused from the best candidates of the vector store and the lexical index
+    private int searchTopK = 8;
+    private int searchCandidates = 24;
+
+    // Minimum similarity of the chunks returned by the vector store, between 0 and 1
+    private double similarityThreshold = 0.0;
+
+    // Rank constant of the reciprocal rank fusion, 60 being the usual value
+    private int rrfK = 60;
+
+    // Fuse the vector search with a BM25 search of the chunks, disabled for a vector search only
+    private boolean lexicalSearch = true;
+
+    // Resume the ingestion of incomplete documents when the application starts
+    private boolean resumeOnStartup = true;
+}
@@ -0,0 +1,100 @@
+package org.opengpa.rag.embedding;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.*;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Embedding model returning the cached embedding of the documents already embedded, and sending only the
+ * other documents to the delegate model. Identical texts within a request are embedded once. Only the documents
+ * added to the vector store are cached, the other requests are sent as is to the delegate model.
+ *
+ * The cache is resolved on first use, since this model wraps a bean created before the repositories.
+ */
+public class CachingEmbeddingModel implements EmbeddingModel {
+
+    private final EmbeddingModel delegate;
+
+    private final Supplier<EmbeddingCache> cacheSupplier;
+
+    private volatile EmbeddingCache cache;
+
+    public CachingEmbeddingModel(EmbeddingModel delegate, Supplier<EmbeddingCache> cacheSupplier) {
+        this.delegate = delegate;
+        this.cacheSupplier = cacheSupplier;
+    }
+
+    public EmbeddingModel getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        // Such as the queries of the similarity searches, which would fill the cache with texts seldom embedded again
+        return delegate.call(request);
+    }
+
+    @Override
+    public List<float[]> embed(List<Document> documents, EmbeddingOptions options, BatchingStrategy batchingStrategy) {
+        // Only the documents not cached are batched and sent to the model
+        Map<String, Document> documentsByText = new LinkedHashMap<>();
+        documents.forEach(document -> documentsByText.putIfAbsent(document.getText(), document));
+
+        return embed(documents.stream().map(Document::getText).toList(), misses -> delegate.embed(
+                misses.stream().map(documentsByText::get).toList(), options, batchingStrategy));
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        // Models may embed the document with its metadata, which is not part of the cache key
+        return delegate.embed(document);
+    }
+
+    @Override
+    public int dimensions() {
+        return delegate.dimensions();
+    }
+
+    private List<float[]> embed(List<String> texts, Function<List<String>, List<float[]>> model) {
+        EmbeddingCache embeddingCache = getCache();
+
+        List<String> hashes = texts.stream().map(embeddingCache::hash).toList();
+        Map<String, float[]> embeddings = new HashMap<>(embeddingCache.getAll(new LinkedHashSet<>(hashes)));
+
+        Map<String, String> missingTexts = new LinkedHashMap<>();
+        for (int i = 0; i < texts.size(); i++) {
+            if (!embeddings.containsKey(hashes.get(i))) {
+                missingTexts.putIfAbsent(hashes.get(i), texts.get(i));
+            }
+        }
+
+        if (!missingTexts.isEmpty()) {
+            List<float[]> computed = model.apply(new ArrayList<>(missingTexts.values()));
+            if (computed.size() != missingTexts.size()) {
+                throw new IllegalStateException("Expected " + missingTexts.size() + " embeddings but got " + computed.size());
+            }
+
+            Map<String, float[]> newEmbeddings = new LinkedHashMap<>();
+            Iterator<float[]> iterator = computed.iterator();
+            for (String hash : missingTexts.keySet()) {
+                newEmbeddings.put(hash, iterator.next());
+            }
+            embeddingCache.putAll(newEmbeddings);
+            embeddings.putAll(newEmbeddings);
+        }
+
+        return hashes.stream().map(embeddings::get).toList();
+    }
+
+    private EmbeddingCache getCache() {
+        EmbeddingCache embeddingCache = cache;
+        if (embeddingCache == null) {
+            embeddingCache = cacheSupplier.get();
+            cache = embeddingCache;
+        }
+        return embeddingCache;
+    }
+}
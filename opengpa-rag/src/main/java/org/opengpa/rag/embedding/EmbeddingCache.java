@@ -0,0 +1,138 @@
+package org.opengpa.rag.embedding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.opengpa.rag.repository.EmbeddingCacheRepository;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embeddings by hash of the embedded text, stored in the database and fronted by an in-memory LRU cache.
+ *
+ * The namespace is part of the hash, it must change with the embedding model so that the embeddings of
+ * another model are never returned. Failures of the database are logged and handled as cache misses.
+ */
+@Slf4j
+public class EmbeddingCache {
+
+    private final EmbeddingCacheRepository repository;
+
+    private final String namespace;
+
+    private final int maxEntries;
+
+    private final LinkedHashMap<String, float[]> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    public EmbeddingCache(EmbeddingCacheRepository repository, String namespace, int maxEntries) {
+        this.repository = repository;
+        this.namespace = namespace;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+                return size() > EmbeddingCache.this.maxEntries;
+            }
+        };
+    }
+
+    public String hash(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(namespace.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Get the cached embeddings of the given hashes, the hashes not cached are absent from the result
+     */
+    public Map<String, float[]> getAll(Collection<String> hashes) {
+        Map<String, float[]> result = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        synchronized (entries) {
+            for (String hash : hashes) {
+                float[] embedding = entries.get(hash);
+                if (embedding != null) {
+                    result.put(hash, embedding);
+                } else {
+                    missing.add(hash);
+                }
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            try {
+                List<EmbeddingCacheEntry> stored = repository.findAllById(missing);
+                synchronized (entries) {
+                    for (EmbeddingCacheEntry entry : stored) {
+                        float[] embedding = toFloats(entry.getEmbedding());
+                        result.put(entry.getHash(), embedding);
+                        entries.put(entry.getHash(), embedding);
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to read {} embeddings from the cache", missing.size(), e);
+            }
+        }
+
+        hits.addAndGet(result.size());
+        misses.addAndGet(hashes.size() - result.size());
+        return result;
+    }
+
+    public void putAll(Map<String, float[]> embeddings) {
+        synchronized (entries) {
+            entries.putAll(embeddings);
+        }
+
+        try {
+            repository.saveAll(embeddings.entrySet().stream().map(e -> {
+                EmbeddingCacheEntry entry = new EmbeddingCacheEntry();
+                entry.setHash(e.getKey());
+                entry.setEmbedding(toBytes(e.getValue()));
+                return entry;
+            }).toList());
+        } catch (RuntimeException e) {
+            log.warn("Failed to store {} embeddings in the cache", embeddings.size(), e);
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static byte[] toBytes(float[] embedding) {
+        ByteBuffer buffer = ByteBuffer.allocate(embedding.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(embedding);
+        return buffer.array();
+    }
+
+    private static float[] toFloats(byte[] bytes) {
+        float[] embedding = new float[bytes.length / Float.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(embedding);
+        return embedding;
+    }
+}
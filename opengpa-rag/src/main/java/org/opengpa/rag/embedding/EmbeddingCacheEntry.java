@@ -0,0 +1,23 @@
+package org.opengpa.rag.embedding;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "rag_embedding_cache")
+@Data
+@NoArgsConstructor
+public class EmbeddingCacheEntry {
+
+    // SHA-256 of the cache namespace and of the embedded text
+    @Id
+    private String hash;
+
+    // Little endian floats
+    @Column(columnDefinition = "bytea")
+    private byte[] embedding;
+}
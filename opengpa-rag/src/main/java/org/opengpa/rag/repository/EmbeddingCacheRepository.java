@@ -0,0 +1,10 @@
+package org.opengpa.rag.repository;
+
+import org.opengpa.rag.embedding.EmbeddingCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EmbeddingCacheRepository extends JpaRepository<EmbeddingCacheEntry, String> {
+
+}
@@ -1,13 +1,35 @@
 package org.opengpa.rag.repository;
 
 import org.opengpa.rag.service.RagChunk;
-import org.opengpa.rag.service.RagDocument;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface RagChunkRepository extends JpaRepository<RagChunk, String> {
 
-}
\ No newline at end of file
+    List<RagChunk> findByDocumentDocumentIdAndIndexedFalseOrderByIndex(String documentId);
+
+    @Query("select c from RagChunk c join fetch c.document where c.chunkId in :chunkIds")
+    List<RagChunk> findWithDocumentByChunkIdIn(@Param("chunkIds") Collection<String> chunkIds);
+
+    @Query("select c.chunkId as chunkId, c.content as content from RagChunk c where c.document.username = :username")
+    List<ChunkContent> findContentByUsername(@Param("username") String username);
+
+    @Transactional
+    @Modifying
+    @Query("update RagChunk c set c.indexed = true where c.chunkId in :chunkIds")
+    int markIndexed(@Param("chunkIds") List<String> chunkIds);
+
+    interface ChunkContent {
+        String getChunkId();
+
+        String getContent();
+    }
+}
@@ -2,7 +2,11 @@ package org.opengpa.rag.repository;
 
 import org.opengpa.rag.service.RagDocument;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -11,5 +15,11 @@ public interface RagDocumentRepository extends JpaRepository<RagDocument, String
 
     public List<RagDocument> findByUsernameOrderByFilename(String userId);
     List<RagDocument> findByUsernameAndProgressLessThan(String username, float progress);
+    List<RagDocument> findByProgressLessThan(float progress);
 
-}
\ No newline at end of file
+    @Transactional
+    @Modifying
+    @Query("update RagDocument d set d.progress = :progress where d.documentId = :documentId")
+    int updateProgress(@Param("documentId") String documentId, @Param("progress") float progress);
+
+}
@@ -0,0 +1,136 @@
+package org.opengpa.rag.search;
+
+import org.opengpa.core.util.TextTokenizer;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index of chunks, ranked with BM25. Chunks can be added and removed at any time, and
+ * searches run concurrently with each other.
+ */
+public class Bm25Index {
+
+    private static final double K1 = 1.2;
+
+    private static final double B = 0.75;
+
+    // Term frequencies of the chunks containing each term
+    private final Map<String, Map<String, Integer>> postings = new HashMap<>();
+
+    // Distinct terms of each chunk, to remove it from the postings
+    private final Map<String, String[]> chunkTerms = new HashMap<>();
+
+    private final Map<String, Integer> chunkLengths = new HashMap<>();
+
+    private long totalLength;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void add(String chunkId, CharSequence text) {
+        List<String> tokens = TextTokenizer.tokenize(text);
+        Map<String, Integer> frequencies = new HashMap<>();
+        tokens.forEach(token -> frequencies.merge(token, 1, Integer::sum));
+
+        lock.writeLock().lock();
+        try {
+            removeChunk(chunkId);
+            frequencies.forEach((term, frequency) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(chunkId, frequency));
+            chunkTerms.put(chunkId, frequencies.keySet().toArray(String[]::new));
+            chunkLengths.put(chunkId, tokens.size());
+            totalLength += tokens.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Collection<String> chunkIds) {
+        lock.writeLock().lock();
+        try {
+            chunkIds.forEach(this::removeChunk);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return chunkLengths.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the ids of the chunks matching at least one term of the query, by decreasing score
+     */
+    public List<ScoredChunk> search(CharSequence query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(TextTokenizer.tokenize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Map<String, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int chunkCount = chunkLengths.size();
+            if (chunkCount == 0) {
+                return List.of();
+            }
+            double averageLength = Math.max((double) totalLength / chunkCount, 1);
+
+            for (String term : terms) {
+                Map<String, Integer> termPostings = postings.get(term);
+                if (termPostings == null) {
+                    continue;
+                }
+
+                int documentFrequency = termPostings.size();
+                double idf = Math.log(1 + (chunkCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+                termPostings.forEach((chunkId, frequency) -> {
+                    double lengthRatio = chunkLengths.get(chunkId) / averageLength;
+                    double score = idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * lengthRatio));
+                    scores.merge(chunkId, score, Double::sum);
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Keep the best chunks in a min-heap of the requested size
+        PriorityQueue<ScoredChunk> best = new PriorityQueue<>(Comparator.comparingDouble(ScoredChunk::score));
+        scores.forEach((chunkId, score) -> {
+            if (best.size() < limit) {
+                best.add(new ScoredChunk(chunkId, score));
+            } else if (score > best.peek().score()) {
+                best.poll();
+                best.add(new ScoredChunk(chunkId, score));
+            }
+        });
+
+        List<ScoredChunk> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(ScoredChunk::score).reversed());
+        return result;
+    }
+
+    private void removeChunk(String chunkId) {
+        String[] terms = chunkTerms.remove(chunkId);
+        if (terms == null) {
+            return;
+        }
+
+        for (String term : terms) {
+            Map<String, Integer> termPostings = postings.get(term);
+            termPostings.remove(chunkId);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= chunkLengths.remove(chunkId);
+    }
+
+    public record ScoredChunk(String chunkId, double score) {
+    }
+}
@@ -0,0 +1,96 @@
+package org.opengpa.rag.search;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.util.*;
+
+/**
+ * Retrieves chunks from both the vector store and a lexical index, and fuses the two rankings with reciprocal
+ * rank fusion: each chunk scores the sum of 1 / (k + rank) over the rankings it appears in.
+ *
+ * The lexical side searches the keywords when provided, since they are usually more precise than the query
+ * written for the vector side. The similarity threshold only applies to the vector side.
+ */
+public class HybridRetriever {
+
+    private final VectorStore vectorStore;
+
+    private final int candidates;
+
+    private final int rrfK;
+
+    /**
+     * @param candidates number of chunks retrieved from each side before the fusion
+     * @param rrfK       rank constant of the fusion, higher values flatten the difference between ranks
+     */
+    public HybridRetriever(VectorStore vectorStore, int candidates, int rrfK) {
+        this.vectorStore = vectorStore;
+        this.candidates = candidates;
+        this.rrfK = rrfK;
+    }
+
+    /**
+     * Search the chunks matching the filter in the vector store, and matching the keywords or the query in the
+     * lexical index if any. Hits found only by the lexical index do not have a document.
+     */
+    public List<SearchHit> search(String query, String keywords, Filter.Expression filter, Bm25Index lexicalIndex,
+                                  int topK, double similarityThreshold) {
+        int limit = Math.max(candidates, topK);
+
+        List<Document> vectorResults = vectorStore.similaritySearch(SearchRequest.builder()
+                .query(query)
+                .topK(limit)
+                .similarityThreshold(similarityThreshold)
+                .filterExpression(filter)
+                .build());
+        if (vectorResults == null) {
+            vectorResults = List.of();
+        }
+
+        List<String> lexicalRanking = List.of();
+        if (lexicalIndex != null) {
+            String lexicalQuery = keywords != null && !keywords.isBlank() ? keywords : query;
+            lexicalRanking = lexicalIndex.search(lexicalQuery, limit).stream()
+                    .map(Bm25Index.ScoredChunk::chunkId)
+                    .toList();
+        }
+
+        Map<String, Document> documents = new HashMap<>();
+        vectorResults.forEach(document -> documents.putIfAbsent(document.getId(), document));
+        List<String> vectorRanking = vectorResults.stream().map(Document::getId).toList();
+
+        return fuse(List.of(vectorRanking, lexicalRanking), rrfK, topK).entrySet().stream()
+                .map(entry -> new SearchHit(entry.getKey(), entry.getValue(), documents.get(entry.getKey())))
+                .toList();
+    }
+
+    /**
+     * Fuse rankings of ids, returning the best ids with their score by decreasing score. Ties keep the order
+     * in which ids were first seen.
+     */
+    static LinkedHashMap<String, Double> fuse(List<List<String>> rankings, int k, int limit) {
+        Map<String, Double> scores = new LinkedHashMap<>();
+        for (List<String> ranking : rankings) {
+            Set<String> seen = new HashSet<>();
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                String id = ranking.get(rank);
+                if (seen.add(id)) {
+                    scores.merge(id, 1.0 / (k + rank + 1), Double::sum);
+                }
+            }
+        }
+
+        LinkedHashMap<String, Double> fused = new LinkedHashMap<>();
+        scores.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .limit(limit)
+                .forEach(entry -> fused.put(entry.getKey(), entry.getValue()));
+        return fused;
+    }
+
+    public record SearchHit(String chunkId, double score, Document document) {
+    }
+}
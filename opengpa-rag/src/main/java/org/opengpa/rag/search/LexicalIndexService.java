@@ -0,0 +1,103 @@
+package org.opengpa.rag.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.opengpa.rag.repository.RagChunkRepository;
+import org.opengpa.rag.service.RagChunk;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lexical indexes of the chunks, one per user. The index of a user is built from the stored chunks on its
+ * first search, and then kept up to date as documents are ingested and deleted. Only the indexes of the users
+ * who searched last are kept in memory, an evicted index is built again on its next search.
+ */
+@Service
+@Slf4j
+public class LexicalIndexService {
+
+    private static final int MAX_USERS = 64;
+
+    private final RagChunkRepository ragChunkRepository;
+
+    private final int maxUsers;
+
+    private final Map<String, LoadedIndex> indexes = new ConcurrentHashMap<>();
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Autowired
+    public LexicalIndexService(RagChunkRepository ragChunkRepository) {
+        this(ragChunkRepository, MAX_USERS);
+    }
+
+    LexicalIndexService(RagChunkRepository ragChunkRepository, int maxUsers) {
+        this.ragChunkRepository = ragChunkRepository;
+        this.maxUsers = maxUsers;
+    }
+
+    public Bm25Index getIndex(String username) {
+        LoadedIndex loadedIndex = indexes.computeIfAbsent(username, this::load);
+        loadedIndex.lastUsed = clock.incrementAndGet();
+        if (indexes.size() > maxUsers) {
+            evictLeastRecentlyUsed();
+        }
+        return loadedIndex.index;
+    }
+
+    public void addChunks(String username, List<RagChunk> chunks) {
+        // Indexes not loaded yet will read the chunks with the others, and loads in progress are awaited
+        indexes.computeIfPresent(username, (user, loadedIndex) -> {
+            chunks.forEach(chunk -> loadedIndex.index.add(chunk.getChunkId(), chunk.getContent()));
+            return loadedIndex;
+        });
+    }
+
+    public void removeChunks(String username, Collection<String> chunkIds) {
+        indexes.computeIfPresent(username, (user, loadedIndex) -> {
+            loadedIndex.index.remove(chunkIds);
+            return loadedIndex;
+        });
+    }
+
+    int getLoadedCount() {
+        return indexes.size();
+    }
+
+    private LoadedIndex load(String username) {
+        Bm25Index index = new Bm25Index();
+        ragChunkRepository.findContentByUsername(username)
+                .forEach(chunk -> index.add(chunk.getChunkId(), chunk.getContent()));
+        log.debug("Loaded the lexical index of {} with {} chunks", username, index.size());
+        return new LoadedIndex(index);
+    }
+
+    private void evictLeastRecentlyUsed() {
+        // A scan is cheap compared to the load of an index, and the number of indexes is small
+        while (indexes.size() > maxUsers) {
+            indexes.entrySet().stream()
+                    .min(Comparator.comparingLong(entry -> entry.getValue().lastUsed))
+                    .ifPresent(entry -> {
+                        indexes.remove(entry.getKey(), entry.getValue());
+                        log.debug("Evicted the lexical index of {}", entry.getKey());
+                    });
+        }
+    }
+
+    private static final class LoadedIndex {
+
+        private final Bm25Index index;
+
+        private volatile long lastUsed;
+
+        LoadedIndex(Bm25Index index) {
+            this.index = index;
+        }
+    }
+}
@@ -17,6 +17,10 @@ public class RagChunk {
     @Column(columnDefinition = "TEXT")
     private String content;
 
+    // Set once the chunk is stored in the vector store
+    @Column(columnDefinition = "boolean default false")
+    private boolean indexed;
+
     @ManyToOne
     @JoinColumn(name = "document_id")
     private RagDocument document;
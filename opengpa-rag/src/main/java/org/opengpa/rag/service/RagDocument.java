@@ -21,6 +21,9 @@ public class RagDocument {
     private String contentType;
     private float progress;
 
+    @Column(columnDefinition = "integer default 0")
+    private int chunkCount;
+
     @OneToMany(mappedBy = "document", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<RagChunk> chunks = new ArrayList<>();
 }
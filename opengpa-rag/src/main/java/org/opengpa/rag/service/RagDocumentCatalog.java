@@ -0,0 +1,69 @@
+package org.opengpa.rag.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.opengpa.rag.repository.RagDocumentRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Catalog of the documents of each user, as rendered in the prompt of the agents. The catalog of a user is
+ * read once and kept until one of the user's documents is ingested or deleted.
+ *
+ * The same immutable instance is returned until then, which lets the prompt cache reuse its rendering.
+ */
+@Component
+@Slf4j
+public class RagDocumentCatalog {
+
+    private static final int MAX_USERS = 1024;
+
+    private static final Map<String, Object> EMPTY_CATALOG = Map.of("documents", List.of());
+
+    private final RagDocumentRepository ragDocumentRepository;
+
+    private final Map<String, Map<String, Object>> catalogs = new ConcurrentHashMap<>();
+
+    public RagDocumentCatalog(RagDocumentRepository ragDocumentRepository) {
+        this.ragDocumentRepository = ragDocumentRepository;
+    }
+
+    public Map<String, Object> getCatalog(String username) {
+        if (username == null) {
+            return EMPTY_CATALOG;
+        }
+
+        Map<String, Object> catalog = catalogs.get(username);
+        if (catalog == null) {
+            if (catalogs.size() >= MAX_USERS) {
+                log.debug("Document catalog holds {} users, clearing it", catalogs.size());
+                catalogs.clear();
+            }
+            catalog = catalogs.computeIfAbsent(username, this::load);
+        }
+        return catalog;
+    }
+
+    // Evicted after the commit, so that the catalog is never loaded again before the change is visible
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDocumentEvent(RagDocumentEvent event) {
+        if (event.username() != null) {
+            catalogs.remove(event.username());
+        }
+    }
+
+    private Map<String, Object> load(String username) {
+        List<Map<String, String>> documents = new ArrayList<>();
+        for (RagDocument ragDocument : ragDocumentRepository.findByUsernameOrderByFilename(username)) {
+            // Title and description are optional, and immutable maps reject null values
+            Map<String, String> document = new HashMap<>();
+            document.put("filename", ragDocument.getFilename());
+            document.put("title", ragDocument.getTitle());
+            document.put("description", ragDocument.getDescription());
+            documents.add(Collections.unmodifiableMap(document));
+        }
+        return Map.of("documents", Collections.unmodifiableList(documents));
+    }
+}
@@ -0,0 +1,12 @@
+package org.opengpa.rag.service;
+
+/**
+ * Published by {@link RagService} when a document of a user is ingested or deleted.
+ */
+public record RagDocumentEvent(Type type, String username, String documentId) {
+
+    public enum Type {
+        INGESTED,
+        DELETED
+    }
+}
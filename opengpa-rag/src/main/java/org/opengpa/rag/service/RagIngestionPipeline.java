@@ -0,0 +1,330 @@
+package org.opengpa.rag.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.opengpa.rag.config.RagConfig;
+import org.opengpa.rag.repository.RagChunkRepository;
+import org.opengpa.rag.repository.RagDocumentRepository;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Indexes the chunks of the ingested documents in the vector store.
+ *
+ * The chunks are persisted before a document is submitted. A feeder thread loads the chunks not yet indexed
+ * and pushes them to a bounded queue, consumed by parallel workers which send them to the vector store in
+ * batches. The batch size adapts to the failures of the embedding model, and the chunks of a failed batch are
+ * queued again after a backoff, a chunk failing on its own being retried a bounded number of times before it is
+ * counted as failed. Each indexed chunk is flagged in the database, so that the ingestion of an incomplete
+ * document resumes after a restart.
+ */
+@Component
+@Slf4j
+public class RagIngestionPipeline {
+
+    private final VectorStore vectorStore;
+
+    private final RagDocumentRepository ragDocumentRepository;
+
+    private final RagChunkRepository ragChunkRepository;
+
+    private final RagConfig ragConfig;
+
+    // Documents waiting for the feeder, they only hold an id
+    private final BlockingQueue<String> pendingDocuments = new LinkedBlockingQueue<>();
+
+    private final Set<String> scheduledDocuments = ConcurrentHashMap.newKeySet();
+
+    private final BlockingQueue<PendingChunk> pendingChunks;
+
+    private final Map<String, DocumentProgress> documentsInProgress = new ConcurrentHashMap<>();
+
+    private final AtomicInteger batchSize;
+
+    private final ExecutorService executor;
+
+    private final ScheduledExecutorService retryScheduler;
+
+    public RagIngestionPipeline(VectorStore vectorStore, RagDocumentRepository ragDocumentRepository,
+                                RagChunkRepository ragChunkRepository, RagConfig ragConfig) {
+        this.vectorStore = vectorStore;
+        this.ragDocumentRepository = ragDocumentRepository;
+        this.ragChunkRepository = ragChunkRepository;
+        this.ragConfig = ragConfig;
+        this.pendingChunks = new ArrayBlockingQueue<>(ragConfig.getChunkQueueSize());
+        this.batchSize = new AtomicInteger(Math.min(ragConfig.getInitialBatchSize(), ragConfig.getMaxBatchSize()));
+
+        this.executor = Executors.newFixedThreadPool(ragConfig.getEmbeddingWorkers() + 1,
+                Thread.ofPlatform().name("rag-ingestion-", 0).daemon().factory());
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("rag-ingestion-retry").daemon().factory());
+        this.executor.execute(this::feed);
+        for (int i = 0; i < ragConfig.getEmbeddingWorkers(); i++) {
+            this.executor.execute(this::index);
+        }
+    }
+
+    /**
+     * Schedule the indexing of the chunks of a document which are not indexed yet
+     */
+    public void submit(String documentId) {
+        if (scheduledDocuments.add(documentId)) {
+            pendingDocuments.add(documentId);
+        }
+    }
+
+    /**
+     * Stop indexing a document, e.g. because it is being deleted
+     */
+    public void cancel(String documentId) {
+        pendingDocuments.remove(documentId);
+        scheduledDocuments.remove(documentId);
+        DocumentProgress progress = documentsInProgress.remove(documentId);
+        if (progress != null) {
+            progress.cancelled = true;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeIncompleteDocuments() {
+        if (!ragConfig.isResumeOnStartup()) {
+            return;
+        }
+
+        List<RagDocument> documents = ragDocumentRepository.findByProgressLessThan(1.0f);
+        if (!documents.isEmpty()) {
+            log.info("Resuming the ingestion of {} documents", documents.size());
+        }
+        documents.forEach(document -> submit(document.getDocumentId()));
+    }
+
+    int getBatchSize() {
+        return batchSize.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Chunks in flight are not flagged as indexed and will be indexed again at the next start
+        executor.shutdownNow();
+        retryScheduler.shutdownNow();
+    }
+
+    private void feed() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                String documentId = pendingDocuments.take();
+                try {
+                    feedDocument(documentId);
+                } catch (RuntimeException e) {
+                    log.error("Failed to load the chunks of document {}", documentId, e);
+                    scheduledDocuments.remove(documentId);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void feedDocument(String documentId) throws InterruptedException {
+        Optional<RagDocument> document = ragDocumentRepository.findById(documentId);
+        if (document.isEmpty() || !scheduledDocuments.contains(documentId)) {
+            scheduledDocuments.remove(documentId);
+            return;
+        }
+
+        List<RagChunk> chunks = ragChunkRepository.findByDocumentDocumentIdAndIndexedFalseOrderByIndex(documentId);
+        int total = Math.max(document.get().getChunkCount(), chunks.size());
+        DocumentProgress progress = new DocumentProgress(documentId, total, total - chunks.size());
+        documentsInProgress.put(documentId, progress);
+        if (!scheduledDocuments.contains(documentId)) {
+            // Cancelled while its chunks were loading
+            documentsInProgress.remove(documentId, progress);
+            return;
+        }
+        log.debug("RagIngestionPipeline - Indexing {} chunks of document {}", chunks.size(), documentId);
+
+        if (chunks.isEmpty()) {
+            complete(progress);
+            return;
+        }
+
+        Map<String, Object> documentAttributes = documentAttributes(document.get());
+        for (RagChunk chunk : chunks) {
+            if (progress.cancelled) {
+                return;
+            }
+
+            Map<String, Object> chunkAttributes = chunkAttributes(documentAttributes, chunk.getIndex());
+            pendingChunks.put(new PendingChunk(progress, new Document(chunk.getChunkId(), chunk.getContent(), chunkAttributes), 0));
+        }
+    }
+
+    private void index() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<PendingChunk> batch = new ArrayList<>();
+                batch.add(pendingChunks.take());
+                pendingChunks.drainTo(batch, batchSize.get() - 1);
+
+                batch.removeIf(chunk -> chunk.progress().cancelled);
+                try {
+                    if (!batch.isEmpty()) {
+                        indexBatch(batch);
+                    }
+                } catch (RuntimeException e) {
+                    log.error("Failed to index {} chunks", batch.size(), e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void indexBatch(List<PendingChunk> batch) {
+        try {
+            vectorStore.add(batch.stream().map(PendingChunk::document).toList());
+            batchSize.updateAndGet(size -> Math.min(size + 1, ragConfig.getMaxBatchSize()));
+        } catch (RuntimeException e) {
+            if (batch.size() > 1) {
+                // The batch may be too large for the model, its chunks are indexed again in smaller batches
+                int size = batchSize.updateAndGet(s -> Math.max(s / 2, 1));
+                log.debug("RagIngestionPipeline - Failed to index a batch of {} chunks, reducing batch size to {}", batch.size(), size);
+                batch.forEach(chunk -> retry(chunk, chunk.retries()));
+                return;
+            }
+
+            PendingChunk chunk = batch.get(0);
+            if (chunk.retries() < ragConfig.getIndexRetries()) {
+                log.debug("RagIngestionPipeline - Failed to index chunk {} of document {}, retrying", chunk.document().getId(), chunk.progress().documentId);
+                retry(chunk, chunk.retries() + 1);
+            } else {
+                log.warn("Failed to index chunk {} of document {}", chunk.document().getId(), chunk.progress().documentId, e);
+                record(chunk.progress(), 0, 1);
+            }
+            return;
+        }
+
+        try {
+            ragChunkRepository.markIndexed(batch.stream().map(chunk -> chunk.document().getId()).toList());
+        } catch (RuntimeException e) {
+            // The chunks are not flagged as indexed and will be indexed again at the next start
+            log.error("Failed to record {} indexed chunks", batch.size(), e);
+            batch.forEach(chunk -> record(chunk.progress(), 0, 1));
+            return;
+        }
+
+        Map<DocumentProgress, List<String>> chunksByDocument = new HashMap<>();
+        for (PendingChunk chunk : batch) {
+            chunksByDocument.computeIfAbsent(chunk.progress(), k -> new ArrayList<>()).add(chunk.document().getId());
+        }
+        chunksByDocument.forEach((progress, chunkIds) -> {
+            if (progress.cancelled) {
+                // The document was deleted while its chunks were being indexed
+                vectorStore.delete(chunkIds);
+            } else {
+                record(progress, chunkIds.size(), 0);
+            }
+        });
+    }
+
+    private void retry(PendingChunk chunk, int retries) {
+        long delay = ragConfig.getIndexRetryBackoffMs() << Math.min(chunk.retries(), 10);
+        PendingChunk retriedChunk = new PendingChunk(chunk.progress(), chunk.document(), retries);
+        try {
+            retryScheduler.schedule(() -> {
+                if (retriedChunk.progress().cancelled) {
+                    return;
+                }
+                try {
+                    pendingChunks.put(retriedChunk);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // The pipeline is shutting down, the chunk will be indexed again at the next start
+        }
+    }
+
+    private void record(DocumentProgress progress, int indexed, int failed) {
+        int done = progress.indexed.addAndGet(indexed);
+        int processed = done + progress.failed.addAndGet(failed);
+        if (processed >= progress.total) {
+            complete(progress);
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long lastUpdate = progress.lastUpdate.get();
+        if (indexed > 0 && now - lastUpdate >= ragConfig.getProgressIntervalMs() && progress.lastUpdate.compareAndSet(lastUpdate, now)) {
+            ragDocumentRepository.updateProgress(progress.documentId, done / (float) progress.total);
+        }
+    }
+
+    private void complete(DocumentProgress progress) {
+        if (documentsInProgress.remove(progress.documentId, progress)) {
+            scheduledDocuments.remove(progress.documentId);
+
+            if (progress.failed.get() > 0) {
+                // The remaining chunks are indexed again at the next start
+                log.warn("Indexed {} of {} chunks of document {}", progress.indexed.get(), progress.total, progress.documentId);
+                ragDocumentRepository.updateProgress(progress.documentId, progress.indexed.get() / (float) progress.total);
+            } else {
+                ragDocumentRepository.updateProgress(progress.documentId, 1.0f);
+                log.debug("RagIngestionPipeline - Processing of document {} complete", progress.documentId);
+            }
+        }
+    }
+
+    static Map<String, Object> documentAttributes(RagDocument document) {
+        Map<String, Object> documentAttributes = new HashMap<>();
+        documentAttributes.put("filename", document.getFilename());
+        documentAttributes.put("title", document.getTitle());
+        documentAttributes.put("description", document.getDescription());
+        documentAttributes.put("contentType", document.getContentType());
+        documentAttributes.put("username", document.getUsername());
+        documentAttributes.put("documentId", document.getDocumentId());
+
+        // Vector store documents reject null values
+        documentAttributes.values().removeIf(Objects::isNull);
+        return Collections.unmodifiableMap(documentAttributes);
+    }
+
+    static Map<String, Object> chunkAttributes(Map<String, Object> documentAttributes, Integer chunkIndex) {
+        Map<String, Object> chunkAttributes = new HashMap<>(documentAttributes);
+        chunkAttributes.put("chunk_index", chunkIndex);
+        return chunkAttributes;
+    }
+
+    private record PendingChunk(DocumentProgress progress, Document document, int retries) {
+    }
+
+    private static final class DocumentProgress {
+
+        private final String documentId;
+
+        private final int total;
+
+        private final AtomicInteger indexed;
+
+        private final AtomicInteger failed = new AtomicInteger();
+
+        private final AtomicLong lastUpdate = new AtomicLong();
+
+        private volatile boolean cancelled;
+
+        DocumentProgress(String documentId, int total, int indexed) {
+            this.documentId = documentId;
+            this.total = total;
+            this.indexed = new AtomicInteger(indexed);
+        }
+    }
+}
@@ -2,22 +2,23 @@ package org.opengpa.rag.service;
 
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.text.PDFTextStripper;
+import org.opengpa.core.util.PdfPageExtractor;
+import org.opengpa.rag.chunker.Chunker;
+import org.opengpa.rag.config.RagConfig;
 import org.opengpa.rag.repository.RagChunkRepository;
 import org.opengpa.rag.repository.RagDocumentRepository;
+import org.opengpa.rag.search.HybridRetriever;
+import org.opengpa.rag.search.LexicalIndexService;
 import org.springframework.ai.document.Document;
-import org.springframework.ai.vectorstore.SearchRequest;
 import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -25,19 +26,36 @@ import java.util.stream.IntStream;
 @Slf4j
 public class RagService {
 
-    public static final int CHUNK_SIZE = 1000;
-    public static final int CHUNK_OVERLAP = 0;
-
     private final VectorStore vectorStore;
     private final RagDocumentRepository ragDocumentRepository;
     private final RagChunkRepository ragChunkRepository;
 
-    private final ExecutorService executorService = Executors.newCachedThreadPool();
+    private final RagIngestionPipeline ingestionPipeline;
+
+    private final PdfPageExtractor pdfPageExtractor = new PdfPageExtractor();
+
+    private final Chunker chunker;
+
+    private final LexicalIndexService lexicalIndexService;
+
+    private final HybridRetriever retriever;
+
+    private final RagConfig ragConfig;
 
-    public RagService(VectorStore vectorStore, RagDocumentRepository ragDocumentRepository, RagChunkRepository ragChunkRepository, ApplicationEventPublisher eventPublisher) {
+    private final ApplicationEventPublisher eventPublisher;
+
+    public RagService(VectorStore vectorStore, RagDocumentRepository ragDocumentRepository, RagChunkRepository ragChunkRepository,
+                      RagIngestionPipeline ingestionPipeline, LexicalIndexService lexicalIndexService, RagConfig ragConfig,
+                      ApplicationEventPublisher eventPublisher) {
         this.vectorStore = vectorStore;
         this.ragDocumentRepository = ragDocumentRepository;
         this.ragChunkRepository = ragChunkRepository;
+        this.ingestionPipeline = ingestionPipeline;
+        this.lexicalIndexService = lexicalIndexService;
+        this.ragConfig = ragConfig;
+        this.eventPublisher = eventPublisher;
+        this.retriever = new HybridRetriever(vectorStore, ragConfig.getSearchCandidates(), ragConfig.getRrfK());
+        this.chunker = ragConfig.getChunkingStrategy().create(ragConfig.getChunkSize(), ragConfig.getChunkOverlap());
     }
 
     public List<RagDocument> listDocuments() {
@@ -54,11 +72,15 @@ public class RagService {
 
     @Transactional
     public void deleteDocument(String documentId) {
+        ingestionPipeline.cancel(documentId);
         ragDocumentRepository.findById(documentId).ifPresent(document -> {
-            vectorStore.delete(document.getChunks().stream()
+            List<String> chunkIds = document.getChunks().stream()
                     .map(RagChunk::getChunkId)
-                    .collect(Collectors.toList()));
+                    .collect(Collectors.toList());
+            vectorStore.delete(chunkIds);
+            lexicalIndexService.removeChunks(document.getUsername(), chunkIds);
             ragDocumentRepository.delete(document);
+            eventPublisher.publishEvent(new RagDocumentEvent(RagDocumentEvent.Type.DELETED, document.getUsername(), documentId));
         });
     }
 
@@ -66,18 +88,7 @@ public class RagService {
         String documentId = UUID.randomUUID().toString();
         log.debug("RagService - Processing document fileName={} documentId={}", filename, documentId);
 
-        Map<String, Object> documentAttributes = new HashMap<>();
-        documentAttributes.put("filename", filename);
-        documentAttributes.put("title", title);
-        documentAttributes.put("description", description);
-        documentAttributes.put("contentType", contentType);
-        documentAttributes.put("username", username);
-        documentAttributes.put("documentId", documentId);
-
-        String textContent = extractText(content, contentType);
-        log.debug("RagService - Extracted content with length={}", textContent.length());
-
-        List<Document> chunks = extractChunks(textContent, documentAttributes);
+        List<String> chunks = extractChunks(content, contentType);
         log.debug("RagService - Generated {} chunks", chunks.size());
 
         RagDocument ragDocument = new RagDocument();
@@ -87,52 +98,27 @@ public class RagService {
         ragDocument.setTitle(title);
         ragDocument.setDescription(description);
         ragDocument.setUsername(username);
-        ragDocumentRepository.save(ragDocument);
-
-        CompletableFuture.runAsync(() -> {
-            try {
-                indexChunks(chunks, ragDocument);
-            } catch (Exception e) {
-                log.error("Error during index chunks", e);
-            }
-        }, executorService);
-
-        return ragDocument;
-    }
-
-    private void indexChunks(List<Document> chunks, RagDocument ragDocument) {
-        int totalDocuments = chunks.size();
-        int batchSize = 10;
-
-        for (int i = 0; i < totalDocuments; i += batchSize) {
-            List<Document> batch = chunks.subList(i, Math.min(i + batchSize, totalDocuments));
-            vectorStore.add(batch);
-            float progress = Math.min(i + batchSize, totalDocuments) / (float) totalDocuments;
-            ragDocument.setProgress(progress);
-            ragDocumentRepository.saveAndFlush(ragDocument);
-
-            log.debug("RagService - Ingest chunk batch " + (i / batchSize + 1) + " of " + (int) Math.ceil((double) totalDocuments / batchSize));
-        }
-
-        ragDocument.setProgress((float) 1);
-        ragDocumentRepository.saveAndFlush(ragDocument);
+        ragDocument.setChunkCount(chunks.size());
 
+        // Chunks are persisted before indexing so that the ingestion can resume after a restart
         List<RagChunk> chunkEntities = IntStream.range(0, chunks.size())
                 .mapToObj(index -> {
-                    Document d = chunks.get(index);
                     RagChunk chunk = new RagChunk();
-                    chunk.setChunkId(d.getId());
-                    chunk.setContent(d.getText());
+                    chunk.setChunkId(UUID.randomUUID().toString());
+                    chunk.setContent(chunks.get(index));
                     chunk.setDocument(ragDocument);
                     chunk.setIndex(index);
                     return chunk;
                 })
                 .collect(Collectors.toList());
-
         ragDocument.setChunks(chunkEntities);
-        ragDocumentRepository.saveAndFlush(ragDocument);
+        ragDocumentRepository.save(ragDocument);
+        lexicalIndexService.addChunks(username, chunkEntities);
+        eventPublisher.publishEvent(new RagDocumentEvent(RagDocumentEvent.Type.INGESTED, username, documentId));
+
+        ingestionPipeline.submit(documentId);
 
-        log.debug("RagService - Processing of document {} complete", ragDocument.getDocumentId());
+        return ragDocument;
     }
 
     public List<RagDocument> getIncompleteDocuments(String username) {
@@ -140,65 +126,72 @@ public class RagService {
     }
 
     public List<Document> searchDocuments(String username, String query) {
-        SearchRequest searchRequest = SearchRequest.builder().query(query).filterExpression(String.format("username == '%s'", username)).build();
-        return vectorStore.similaritySearch(searchRequest);
+        return searchDocuments(username, query, null);
     }
 
-    private String extractText(byte[] content, String contentType) {
-        if (contentType.equals("application/pdf")) {
-            return parsePDF(content);
-        } else if (contentType.equals("text/plain")) {
-            return new String(content);
-        } else {
-            throw new UnsupportedOperationException("Unsupported content type: " + contentType);
+    /**
+     * Search the chunks of the user's documents, fusing the vector search of the query with a lexical search of
+     * the keywords, or of the query when there are no keywords.
+     */
+    public List<Document> searchDocuments(String username, String query, String keywords) {
+        if (username == null) {
+            return List.of();
         }
-    }
 
-    private List<Document> extractChunks(String textContent, Map<String, Object> documentAttributes) {
-        List<Document> documents = new ArrayList<>();
-        int position = 0;
-        int chunkIndex = 0;
-
-        while (position < textContent.length()) {
-            // Determine the end of the current chunk
-            int end = Math.min(position + CHUNK_SIZE, textContent.length());
-            String chunk = textContent.substring(position, end);
-
-            // Adjust chunk to end at a sentence if possible
-            if (end < textContent.length()) {
-                int lastPeriod = chunk.lastIndexOf('.');
-                if (lastPeriod > CHUNK_SIZE / 2) {
-                    end = position + lastPeriod + 1;
-                    chunk = textContent.substring(position, end);
-                }
+        List<HybridRetriever.SearchHit> hits = retriever.search(query, keywords,
+                new FilterExpressionBuilder().eq("username", username).build(),
+                ragConfig.isLexicalSearch() ? lexicalIndexService.getIndex(username) : null,
+                ragConfig.getSearchTopK(), ragConfig.getSimilarityThreshold());
+
+        // Chunks found by the lexical index only are read from the database
+        List<String> missingIds = hits.stream()
+                .filter(hit -> hit.document() == null)
+                .map(HybridRetriever.SearchHit::chunkId)
+                .toList();
+        Map<String, RagChunk> missingChunks = getChunks(missingIds).stream()
+                .collect(Collectors.toMap(RagChunk::getChunkId, chunk -> chunk));
+
+        List<Document> documents = new ArrayList<>(hits.size());
+        for (HybridRetriever.SearchHit hit : hits) {
+            if (hit.document() != null) {
+                documents.add(hit.document());
+            } else if (missingChunks.containsKey(hit.chunkId())) {
+                RagChunk chunk = missingChunks.get(hit.chunkId());
+                documents.add(new Document(chunk.getChunkId(), chunk.getContent(), RagIngestionPipeline.chunkAttributes(
+                        RagIngestionPipeline.documentAttributes(chunk.getDocument()), chunk.getIndex())));
             }
-
-            // Create document with chunk
-            Map<String, Object> chunkAttributes = new HashMap<>(documentAttributes);
-            chunkAttributes.put("chunk_index", chunkIndex);
-
-            Document doc = new Document(chunk.trim(), chunkAttributes);
-            documents.add(doc);
-
-            // Move to next chunk, ensuring progress
-            position = Math.max(end - CHUNK_OVERLAP, position + 1);
-            chunkIndex++;
         }
-
         return documents;
     }
 
-    private String parsePDF(byte[] content) {
-        try (PDDocument document = PDDocument.load(new ByteArrayInputStream(content))) {
-            PDFTextStripper stripper = new PDFTextStripper();
-            return stripper.getText(document);
-        } catch (IOException e) {
-            log.error("Failed to parse PDF", e);
-            throw new RuntimeException("Failed to parse PDF", e);
+    private List<String> extractChunks(byte[] content, String contentType) {
+        if (contentType.equals("application/pdf")) {
+            // Pages are chunked as they are extracted, the text of the whole document is never built
+            try (PdfPageExtractor.Pages pages = pdfPageExtractor.open(new ByteArrayInputStream(content))) {
+                log.debug("RagService - Extracting {} pages", pages.getPageCount());
+                return chunker.chunk(pages);
+            } catch (IOException | UncheckedIOException e) {
+                log.error("Failed to parse PDF", e);
+                throw new RuntimeException("Failed to parse PDF", e);
+            }
+        } else if (contentType.equals("text/plain")) {
+            return chunker.chunk(new String(content));
+        } else {
+            throw new UnsupportedOperationException("Unsupported content type: " + contentType);
         }
     }
 
     public Optional<RagChunk> getChunk(String chunkId) {
         return ragChunkRepository.findById(chunkId);
     }
+
+    /**
+     * Get the existing chunks among the given ids, with their document, in a single query
+     */
+    public List<RagChunk> getChunks(Collection<String> chunkIds) {
+        if (chunkIds.isEmpty()) {
+            return List.of();
+        }
+        return ragChunkRepository.findWithDocumentByChunkIdIn(chunkIds);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package org.opengpa.rag.action;
+
+import org.junit.jupiter.api.Test;
+import org.opengpa.core.action.ActionResult;
+import org.opengpa.core.agent.Agent;
+import org.opengpa.rag.service.RagChunk;
+import org.opengpa.rag.service.RagDocument;
+import org.opengpa.rag.service.RagDocumentCatalog;
+import org.opengpa.rag.service.RagService;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.document.Document;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RagActionTest {
+
+    private static final String FOUND_ID = "0b8c6f0e-8f4e-4c1b-9d2a-1f6e3c7a9b01";
+
+    private static final String FETCHED_ID = "5d2e9a41-3c6b-4e8f-a7d0-2b9c8e1f4a62";
+
+    private static final String UNKNOWN_ID = "9f1a7c3e-6b2d-4a5e-8c9f-0d3b6e2a1c74";
+
+    @Test
+    void resolvesReferencesFromSearchResultsAndSingleBatch() {
+        RagService ragService = mock(RagService.class);
+        ChatModel chatModel = mock(ChatModel.class);
+
+        when(ragService.searchDocuments("john", "vpn error", "ERR-4012")).thenReturn(List.of(
+                new Document(FOUND_ID, "Renew the VPN certificate.", Map.of("documentId", "doc-1", "title", "IT handbook"))));
+
+        RagDocument document = new RagDocument();
+        document.setDocumentId("doc-2");
+        document.setTitle("FAQ");
+        RagChunk chunk = new RagChunk();
+        chunk.setChunkId(FETCHED_ID);
+        chunk.setContent("Restart the VPN client.");
+        chunk.setDocument(document);
+        when(ragService.getChunks(List.of(FETCHED_ID, UNKNOWN_ID))).thenReturn(List.of(chunk));
+
+        String answer = String.format("Renew the certificate [%s], then restart [%s] [%s] [%s].",
+                FOUND_ID, FETCHED_ID, FOUND_ID, UNKNOWN_ID);
+        when(chatModel.call(any(Prompt.class))).thenReturn(new ChatResponse(List.of(new Generation(new AssistantMessage(answer)))));
+
+        ActionResult result = new RagAction(chatModel, ragService, mock(RagDocumentCatalog.class)).applyStringParams(mock(Agent.class),
+                Map.of("query", "vpn error", "keywords", "ERR-4012"), Map.of("username", "john"));
+
+        List<RagActionChunkResult> chunks = ((RagActionResult) result.getResult()).getChunks();
+        assertEquals(List.of(FOUND_ID, FETCHED_ID), chunks.stream().map(RagActionChunkResult::getId).toList());
+        assertEquals("IT handbook", chunks.get(0).getDocumentTitle());
+        assertEquals("doc-2", chunks.get(1).getDocumentId());
+
+        verify(ragService).getChunks(List.of(FETCHED_ID, UNKNOWN_ID));
+        verify(ragService, never()).getChunk(any());
+    }
+}
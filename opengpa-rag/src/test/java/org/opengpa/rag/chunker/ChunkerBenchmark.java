@@ -0,0 +1,110 @@
+package org.opengpa.rag.chunker;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chunking throughput on a large text provided page by page, reported in chunks per second.
+ *
+ * The legacy variant is the substring based chunking RagService used to do on the whole text. The main
+ * method enables the GC profiler, which reports the allocation rate as gc.alloc.rate.norm.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChunkerBenchmark {
+
+    @Param({"1000", "10000"})
+    public int pageCount;
+
+    @Param({"SENTENCE", "PARAGRAPH", "TOKEN"})
+    public ChunkingStrategy strategy;
+
+    private List<String> pages;
+
+    private String text;
+
+    private Chunker chunker;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Chunks {
+        public long chunks;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            chunks = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        pages = new ArrayList<>(pageCount);
+        for (int i = 0; i < pageCount; i++) {
+            pages.add(page(random));
+        }
+        text = String.join("", pages);
+
+        // Token chunks of 256 tokens are about as long as chunks of 1000 characters
+        chunker = strategy == ChunkingStrategy.TOKEN ? strategy.create(256, 25) : strategy.create(1000, 100);
+    }
+
+    @Benchmark
+    public void chunker(Chunks chunks, Blackhole blackhole) {
+        chunker.chunk(pages.iterator(), chunk -> {
+            chunks.chunks++;
+            blackhole.consume(chunk);
+        });
+    }
+
+    @Benchmark
+    public void legacy(Chunks chunks, Blackhole blackhole) {
+        int position = 0;
+        while (position < text.length()) {
+            int end = Math.min(position + 1000, text.length());
+            String chunk = text.substring(position, end);
+            if (end < text.length()) {
+                int lastPeriod = chunk.lastIndexOf('.');
+                if (lastPeriod > 500) {
+                    end = position + lastPeriod + 1;
+                    chunk = text.substring(position, end);
+                }
+            }
+            chunks.chunks++;
+            blackhole.consume(chunk.trim());
+            position = Math.max(end, position + 1);
+        }
+    }
+
+    private static String page(Random random) {
+        StringBuilder page = new StringBuilder(3000);
+        while (page.length() < 3000) {
+            int words = 5 + random.nextInt(20);
+            for (int i = 0; i < words; i++) {
+                page.append(i == 0 ? "Lorem" : " ipsum").append(random.nextInt(100));
+            }
+            page.append(random.nextInt(8) == 0 ? ".\n\n" : ". ");
+        }
+        return page.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ChunkerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,113 @@
+package org.opengpa.rag.chunker;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkerTest {
+
+    @Test
+    void testSentenceChunksEndAtSentences() {
+        Chunker chunker = new SentenceChunker(100, 0);
+
+        List<String> chunks = chunker.chunk(text(20));
+
+        assertTrue(chunks.size() > 1);
+        for (String chunk : chunks) {
+            assertTrue(chunk.length() <= 100);
+            assertTrue(chunk.endsWith("."), chunk);
+        }
+        assertEquals(text(20).replace(" ", ""), String.join("", chunks).replace(" ", ""));
+    }
+
+    @Test
+    void testSentenceChunksOverlap() {
+        Chunker chunker = new SentenceChunker(100, 40);
+
+        List<String> chunks = chunker.chunk(text(20));
+
+        for (int i = 1; i < chunks.size(); i++) {
+            String previous = chunks.get(i - 1);
+            String chunk = chunks.get(i);
+            assertTrue(chunk.startsWith("Sentence number"), chunk);
+            // The chunk starts with the last sentences of the previous chunk
+            String firstSentence = chunk.substring(0, chunk.indexOf('.') + 1);
+            assertTrue(previous.contains(firstSentence), previous + " / " + chunk);
+            assertTrue(previous.length() - previous.indexOf(firstSentence) <= 40, previous + " / " + chunk);
+        }
+    }
+
+    @Test
+    void testLongWordsAreSplit() {
+        Chunker chunker = new SentenceChunker(10, 0);
+
+        List<String> chunks = chunker.chunk("abcdefghijklmnopqrstuvwxyz");
+
+        assertEquals(List.of("abcdefghij", "klmnopqrst", "uvwxyz"), chunks);
+    }
+
+    @Test
+    void testParagraphChunksEndAtParagraphs() {
+        Chunker chunker = new ParagraphChunker(120, 0);
+        String text = "First paragraph. It has two sentences.\n\nSecond paragraph, which is a bit longer. It also has two sentences.\n\nThird paragraph.";
+
+        List<String> chunks = chunker.chunk(text);
+
+        assertEquals(List.of(
+                "First paragraph. It has two sentences.\n\nSecond paragraph, which is a bit longer. It also has two sentences.",
+                "Third paragraph."), chunks);
+    }
+
+    @Test
+    void testTokenChunksRespectBudget() {
+        Chunker chunker = new TokenChunker(20, 5);
+
+        List<String> chunks = chunker.chunk(text(30));
+
+        assertTrue(chunks.size() > 1);
+        for (String chunk : chunks) {
+            assertTrue(estimateTokens(chunk) <= 20, chunk);
+        }
+        assertTrue(chunks.get(chunks.size() - 1).endsWith("number 29."));
+    }
+
+    @Test
+    void testPartsAreChunkedLikeTheWholeText() {
+        String text = text(50);
+        List<String> parts = new ArrayList<>();
+        for (int i = 0; i < text.length(); i += 37) {
+            parts.add(text.substring(i, Math.min(i + 37, text.length())));
+        }
+
+        for (ChunkingStrategy strategy : ChunkingStrategy.values()) {
+            Chunker chunker = strategy.create(60, 10);
+            assertEquals(chunker.chunk(text), chunker.chunk(parts.iterator()), strategy.name());
+        }
+    }
+
+    @Test
+    void testInvalidOverlap() {
+        assertThrows(IllegalArgumentException.class, () -> new SentenceChunker(100, 100));
+        assertThrows(IllegalArgumentException.class, () -> new TokenChunker(10, 10));
+    }
+
+    private static String text(int sentences) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < sentences; i++) {
+            builder.append("Sentence number ").append(i).append(". ");
+        }
+        return builder.toString().trim();
+    }
+
+    private static int estimateTokens(String chunk) {
+        int tokens = 0;
+        for (String word : chunk.split("\\s+")) {
+            String letters = word.replaceAll("[^\\p{L}\\p{N}]", "");
+            tokens += (letters.length() + 3) / 4 + (word.length() - letters.length());
+        }
+        return tokens;
+    }
+}
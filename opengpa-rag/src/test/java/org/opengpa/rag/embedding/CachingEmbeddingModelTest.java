@@ -0,0 +1,148 @@
+package org.opengpa.rag.embedding;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opengpa.rag.repository.EmbeddingCacheRepository;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.answer;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CachingEmbeddingModelTest {
+
+    private FakeEmbeddingModel delegate;
+
+    private EmbeddingCacheRepository repository;
+
+    private final Map<String, EmbeddingCacheEntry> storedEntries = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        delegate = new FakeEmbeddingModel();
+        repository = mock(EmbeddingCacheRepository.class);
+        when(repository.findAllById(anyIterable())).thenAnswer(answer((Iterable<String> hashes) -> {
+            List<EmbeddingCacheEntry> entries = new ArrayList<>();
+            for (String hash : hashes) {
+                Optional.ofNullable(storedEntries.get(hash)).ifPresent(entries::add);
+            }
+            return entries;
+        }));
+        when(repository.saveAll(anyIterable())).thenAnswer(answer((Iterable<EmbeddingCacheEntry> entries) -> {
+            for (EmbeddingCacheEntry entry : entries) {
+                storedEntries.put(entry.getHash(), entry);
+            }
+            return null;
+        }));
+    }
+
+    @Test
+    void testOnlyMissesAreEmbedded() {
+        EmbeddingCache cache = new EmbeddingCache(repository, "test", 100);
+        CachingEmbeddingModel model = new CachingEmbeddingModel(delegate, () -> cache);
+
+        List<float[]> first = model.embed(documents("alpha", "beta", "alpha"), EmbeddingOptionsBuilder.builder().build(), new TokenCountBatchingStrategy());
+        assertEquals(List.of("alpha", "beta"), delegate.embeddedTexts);
+        assertEquals(3, first.size());
+        assertArrayEquals(first.get(0), first.get(2));
+        assertArrayEquals(FakeEmbeddingModel.embedding("beta"), first.get(1));
+
+        delegate.embeddedTexts.clear();
+        List<float[]> second = model.embed(documents("beta", "gamma", "alpha"), EmbeddingOptionsBuilder.builder().build(), new TokenCountBatchingStrategy());
+        assertEquals(List.of("gamma"), delegate.embeddedTexts);
+        assertArrayEquals(FakeEmbeddingModel.embedding("gamma"), second.get(1));
+        assertArrayEquals(first.get(0), second.get(2));
+
+        assertEquals(2, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+    }
+
+    @Test
+    void testEmbeddingsAreReadFromTheRepository() {
+        CachingEmbeddingModel model = new CachingEmbeddingModel(delegate, () -> new EmbeddingCache(repository, "test", 1));
+        model.embed(documents("alpha", "beta"), EmbeddingOptionsBuilder.builder().build(), new TokenCountBatchingStrategy());
+        assertEquals(2, storedEntries.size());
+
+        // A new cache with an empty memory reads the stored embeddings
+        EmbeddingCache cache = new EmbeddingCache(repository, "test", 1);
+        CachingEmbeddingModel restarted = new CachingEmbeddingModel(delegate, () -> cache);
+        delegate.embeddedTexts.clear();
+
+        List<float[]> embeddings = restarted.embed(documents("beta", "alpha"), EmbeddingOptionsBuilder.builder().build(), new TokenCountBatchingStrategy());
+
+        assertTrue(delegate.embeddedTexts.isEmpty());
+        assertArrayEquals(FakeEmbeddingModel.embedding("beta"), embeddings.get(0));
+        assertArrayEquals(FakeEmbeddingModel.embedding("alpha"), embeddings.get(1));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testNamespaceIsPartOfTheKey() {
+        CachingEmbeddingModel model = new CachingEmbeddingModel(delegate, () -> new EmbeddingCache(repository, "model-a", 10));
+        CachingEmbeddingModel otherModel = new CachingEmbeddingModel(delegate, () -> new EmbeddingCache(repository, "model-b", 10));
+
+        model.embed(documents("alpha"), EmbeddingOptionsBuilder.builder().build(), new TokenCountBatchingStrategy());
+        otherModel.embed(documents("alpha"), EmbeddingOptionsBuilder.builder().build(), new TokenCountBatchingStrategy());
+
+        assertEquals(List.of("alpha", "alpha"), delegate.embeddedTexts);
+    }
+
+    @Test
+    void testRepositoryFailuresAreMisses() {
+        when(repository.findAllById(anyIterable())).thenThrow(new IllegalStateException("Database unavailable"));
+        when(repository.saveAll(anyIterable())).thenThrow(new IllegalStateException("Database unavailable"));
+        CachingEmbeddingModel model = new CachingEmbeddingModel(delegate, () -> new EmbeddingCache(repository, "test", 10));
+
+        assertArrayEquals(FakeEmbeddingModel.embedding("alpha"),
+                model.embed(documents("alpha"), EmbeddingOptionsBuilder.builder().build(), new TokenCountBatchingStrategy()).get(0));
+        assertEquals(List.of("alpha"), delegate.embeddedTexts);
+    }
+
+    @Test
+    void testQueriesAreNotCached() {
+        CachingEmbeddingModel model = new CachingEmbeddingModel(delegate, () -> new EmbeddingCache(repository, "test", 10));
+
+        assertArrayEquals(FakeEmbeddingModel.embedding("alpha"), model.embed("alpha"));
+        model.embed("alpha");
+
+        assertEquals(List.of("alpha", "alpha"), delegate.embeddedTexts);
+        assertTrue(storedEntries.isEmpty());
+        verifyNoInteractions(repository);
+    }
+
+    private static List<Document> documents(String... texts) {
+        return Arrays.stream(texts).map(Document::new).toList();
+    }
+
+    /**
+     * Embeds a text as its length and the hash code of its content, and records the embedded texts
+     */
+    static class FakeEmbeddingModel implements EmbeddingModel {
+
+        final List<String> embeddedTexts = Collections.synchronizedList(new ArrayList<>());
+
+        static float[] embedding(String text) {
+            return new float[]{text.length(), text.hashCode()};
+        }
+
+        @Override
+        public EmbeddingResponse call(EmbeddingRequest request) {
+            List<Embedding> embeddings = new ArrayList<>();
+            for (String text : request.getInstructions()) {
+                embeddedTexts.add(text);
+                embeddings.add(new Embedding(embedding(text), embeddings.size()));
+            }
+            return new EmbeddingResponse(embeddings);
+        }
+
+        @Override
+        public float[] embed(Document document) {
+            return embed(document.getText());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.opengpa.rag.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.opengpa.rag.repository.RagChunkRepository;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class HybridRetrieverTest {
+
+    private Bm25Index index;
+
+    private VectorStore vectorStore;
+
+    @BeforeEach
+    void setUp() {
+        index = new Bm25Index();
+        index.add("invoice", "Invoices are sent on the first day of each month to the billing contact.");
+        index.add("refund", "Refunds are processed within 14 days after the return of the product.");
+        index.add("vpn", "Configure the VPN client with the certificate provided by the IT department.");
+        index.add("vpn-faq", "The VPN disconnects after 8 hours, reconnect the VPN to renew the session.");
+
+        vectorStore = mock(VectorStore.class);
+    }
+
+    @Test
+    void bm25RanksMatchingChunksByScore() {
+        List<Bm25Index.ScoredChunk> results = index.search("vpn session", 10);
+
+        assertEquals(List.of("vpn-faq", "vpn"), results.stream().map(Bm25Index.ScoredChunk::chunkId).toList());
+        assertTrue(results.get(0).score() > results.get(1).score());
+        assertTrue(index.search("the of", 10).isEmpty());
+    }
+
+    @Test
+    void bm25RemovesChunks() {
+        index.remove(List.of("vpn-faq"));
+        index.add("vpn", "Invoices and refunds.");
+
+        assertEquals(3, index.size());
+        assertTrue(index.search("vpn", 10).isEmpty());
+        assertEquals(List.of("vpn"), index.search("invoices refunds", 1).stream().map(Bm25Index.ScoredChunk::chunkId).toList());
+    }
+
+    @Test
+    void fusionFavorsChunksRankedByBothSides() {
+        LinkedHashMap<String, Double> fused = HybridRetriever.fuse(List.of(
+                List.of("a", "b", "c"),
+                List.of("c", "d", "b")), 60, 3);
+
+        assertEquals(List.of("c", "b", "a"), List.copyOf(fused.keySet()));
+        assertEquals(1.0 / 62 + 1.0 / 63, fused.get("b"), 1e-9);
+    }
+
+    @Test
+    void keywordsDriveTheLexicalSide() {
+        when(vectorStore.similaritySearch(any(SearchRequest.class))).thenReturn(List.of(
+                new Document("refund", "Refunds are processed within 14 days.", Map.of())));
+        HybridRetriever retriever = new HybridRetriever(vectorStore, 10, 60);
+
+        List<HybridRetriever.SearchHit> hits = retriever.search("How do I get my money back?", "refunds, invoices",
+                new FilterExpressionBuilder().eq("username", "john").build(), index, 2, 0.5);
+
+        assertEquals(List.of("refund", "invoice"), hits.stream().map(HybridRetriever.SearchHit::chunkId).toList());
+        assertNotNull(hits.get(0).document());
+        assertNull(hits.get(1).document());
+
+        ArgumentCaptor<SearchRequest> request = ArgumentCaptor.forClass(SearchRequest.class);
+        verify(vectorStore).similaritySearch(request.capture());
+        assertEquals(10, request.getValue().getTopK());
+        assertEquals(0.5, request.getValue().getSimilarityThreshold());
+        assertNotNull(request.getValue().getFilterExpression());
+    }
+
+    @Test
+    void lexicalIndexesOfLeastRecentUsersAreEvicted() {
+        RagChunkRepository ragChunkRepository = mock(RagChunkRepository.class);
+        when(ragChunkRepository.findContentByUsername(anyString())).thenAnswer(invocation -> List.of(
+                chunkContent(invocation.getArgument(0) + "-chunk", "Configure the VPN client")));
+        LexicalIndexService lexicalIndexService = new LexicalIndexService(ragChunkRepository, 2);
+
+        Bm25Index john = lexicalIndexService.getIndex("john");
+        lexicalIndexService.getIndex("jane");
+        assertSame(john, lexicalIndexService.getIndex("john"));
+        lexicalIndexService.getIndex("jack");
+
+        // Jane searched the least recently, her index is loaded again on her next search
+        assertEquals(2, lexicalIndexService.getLoadedCount());
+        assertSame(john, lexicalIndexService.getIndex("john"));
+        verify(ragChunkRepository, times(1)).findContentByUsername("jane");
+        assertEquals(1, lexicalIndexService.getIndex("jane").size());
+        verify(ragChunkRepository, times(2)).findContentByUsername("jane");
+        assertEquals(2, lexicalIndexService.getLoadedCount());
+    }
+
+    private static RagChunkRepository.ChunkContent chunkContent(String chunkId, String content) {
+        return new RagChunkRepository.ChunkContent() {
+            @Override
+            public String getChunkId() {
+                return chunkId;
+            }
+
+            @Override
+            public String getContent() {
+                return content;
+            }
+        };
+    }
+}
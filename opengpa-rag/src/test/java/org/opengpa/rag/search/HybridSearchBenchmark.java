@@ -0,0 +1,170 @@
+package org.opengpa.rag.search;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.vectorstore.SimpleVectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Offline recall and latency of the vector, lexical and hybrid searches on the fixture corpus of
+ * rag/search-fixture.json, hidden among random distractor chunks built from the same vocabulary.
+ *
+ * No model is called: the vector side embeds hashed character trigrams, which stands in for the embedding
+ * model. Recall values are therefore only comparable between the modes of a same run. Arguments are the
+ * number of distractor chunks (5000) and the number of chunks returned (5).
+ */
+public class HybridSearchBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+
+    private static final int MEASURED_ROUNDS = 20;
+
+    private static final int CANDIDATES = 24;
+
+    private static final int RRF_K = 60;
+
+    private static final String USERNAME = "benchmark";
+
+    public static void main(String[] args) throws IOException {
+        int distractorCount = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int topK = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        JsonNode fixture;
+        try (InputStream inputStream = HybridSearchBenchmark.class.getResourceAsStream("/rag/search-fixture.json")) {
+            fixture = new ObjectMapper().readTree(inputStream);
+        }
+
+        Map<String, String> chunks = new LinkedHashMap<>();
+        fixture.get("chunks").forEach(chunk -> chunks.put(chunk.get("id").asText(), chunk.get("text").asText()));
+        chunks.putAll(distractors(chunks.values(), distractorCount));
+
+        Bm25Index lexicalIndex = new Bm25Index();
+        chunks.forEach(lexicalIndex::add);
+
+        SimpleVectorStore vectorStore = SimpleVectorStore.builder(new TrigramEmbeddingModel()).build();
+        vectorStore.add(chunks.entrySet().stream()
+                .map(chunk -> new Document(chunk.getKey(), chunk.getValue(), Map.of("username", USERNAME)))
+                .toList());
+
+        HybridRetriever retriever = new HybridRetriever(vectorStore, CANDIDATES, RRF_K);
+        Filter.Expression filter = new FilterExpressionBuilder().eq("username", USERNAME).build();
+
+        Map<String, Function<JsonNode, List<String>>> modes = new LinkedHashMap<>();
+        modes.put("vector", query -> chunkIds(retriever.search(query.get("query").asText(), null, filter, null, topK, 0.0)));
+        modes.put("lexical", query -> lexicalIndex.search(query.get("keywords").asText(), topK).stream()
+                .map(Bm25Index.ScoredChunk::chunkId)
+                .toList());
+        modes.put("hybrid", query -> chunkIds(retriever.search(query.get("query").asText(), query.get("keywords").asText(),
+                filter, lexicalIndex, topK, 0.0)));
+
+        System.out.printf("%d chunks, %d queries, top %d%n%n", chunks.size(), fixture.get("queries").size(), topK);
+        System.out.printf("%-8s %10s %10s %10s%n", "mode", "recall", "mean ms", "p95 ms");
+        modes.forEach((mode, search) -> run(mode, search, fixture.get("queries")));
+    }
+
+    private static void run(String mode, Function<JsonNode, List<String>> search, JsonNode queries) {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            queries.forEach(search::apply);
+        }
+
+        double recall = 0;
+        List<Long> latencies = new ArrayList<>();
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            for (JsonNode query : queries) {
+                long start = System.nanoTime();
+                List<String> results = search.apply(query);
+                latencies.add(System.nanoTime() - start);
+
+                if (round == 0) {
+                    Set<String> relevant = new HashSet<>();
+                    query.get("relevant").forEach(id -> relevant.add(id.asText()));
+                    recall += results.stream().filter(relevant::contains).count() / (double) relevant.size();
+                }
+            }
+        }
+
+        Collections.sort(latencies);
+        double mean = latencies.stream().mapToLong(Long::longValue).average().orElse(0) / 1e6;
+        double p95 = latencies.get((int) Math.ceil(latencies.size() * 0.95) - 1) / 1e6;
+        System.out.printf("%-8s %10.3f %10.3f %10.3f%n", mode, recall / queries.size(), mean, p95);
+    }
+
+    private static List<String> chunkIds(List<HybridRetriever.SearchHit> hits) {
+        return hits.stream().map(HybridRetriever.SearchHit::chunkId).toList();
+    }
+
+    private static Map<String, String> distractors(Collection<String> texts, int count) {
+        List<String> words = texts.stream()
+                .flatMap(text -> Arrays.stream(text.split("\\s+")))
+                .toList();
+
+        Random random = new Random(42);
+        Map<String, String> distractors = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            StringBuilder text = new StringBuilder();
+            int length = 15 + random.nextInt(15);
+            for (int j = 0; j < length; j++) {
+                text.append(words.get(random.nextInt(words.size()))).append(' ');
+            }
+            distractors.put("distractor-" + i, text.toString().trim());
+        }
+        return distractors;
+    }
+
+    /**
+     * Embeds a text as the normalized counts of its hashed character trigrams
+     */
+    private static class TrigramEmbeddingModel implements EmbeddingModel {
+
+        private static final int DIMENSIONS = 512;
+
+        @Override
+        public EmbeddingResponse call(EmbeddingRequest request) {
+            List<Embedding> embeddings = new ArrayList<>();
+            for (String text : request.getInstructions()) {
+                embeddings.add(new Embedding(embed(text), embeddings.size()));
+            }
+            return new EmbeddingResponse(embeddings);
+        }
+
+        @Override
+        public float[] embed(Document document) {
+            return embed(document.getText());
+        }
+
+        @Override
+        public float[] embed(String text) {
+            String normalized = " " + text.toLowerCase(Locale.ROOT) + " ";
+            float[] embedding = new float[DIMENSIONS];
+            for (int i = 0; i + 3 <= normalized.length(); i++) {
+                embedding[Math.floorMod(normalized.substring(i, i + 3).hashCode(), DIMENSIONS)]++;
+            }
+
+            double norm = 0;
+            for (float value : embedding) {
+                norm += value * value;
+            }
+            norm = Math.max(Math.sqrt(norm), 1e-9);
+            for (int i = 0; i < DIMENSIONS; i++) {
+                embedding[i] /= (float) norm;
+            }
+            return embedding;
+        }
+
+        @Override
+        public int dimensions() {
+            return DIMENSIONS;
+        }
+    }
+}
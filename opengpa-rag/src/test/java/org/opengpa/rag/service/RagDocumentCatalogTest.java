@@ -0,0 +1,49 @@
+package org.opengpa.rag.service;
+
+import org.junit.jupiter.api.Test;
+import org.opengpa.rag.repository.RagDocumentRepository;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RagDocumentCatalogTest {
+
+    @Test
+    void catalogIsCachedUntilDocumentsChange() {
+        RagDocumentRepository repository = mock(RagDocumentRepository.class);
+        RagDocument document = new RagDocument();
+        document.setFilename("handbook.pdf");
+        document.setTitle("Handbook");
+        when(repository.findByUsernameOrderByFilename("john")).thenReturn(List.of(document));
+        RagDocumentCatalog catalog = new RagDocumentCatalog(repository);
+
+        Map<String, Object> first = catalog.getCatalog("john");
+        Map<String, Object> second = catalog.getCatalog("john");
+
+        assertSame(first, second);
+        Map<?, ?> rendered = (Map<?, ?>) ((List<?>) first.get("documents")).get(0);
+        assertEquals("handbook.pdf", rendered.get("filename"));
+        assertEquals("Handbook", rendered.get("title"));
+        assertNull(rendered.get("description"));
+        assertThrows(UnsupportedOperationException.class, () -> first.put("documents", List.of()));
+        verify(repository, times(1)).findByUsernameOrderByFilename("john");
+
+        catalog.onDocumentEvent(new RagDocumentEvent(RagDocumentEvent.Type.DELETED, "jane", "other"));
+        assertSame(first, catalog.getCatalog("john"));
+
+        catalog.onDocumentEvent(new RagDocumentEvent(RagDocumentEvent.Type.INGESTED, "john", "new"));
+        assertNotSame(first, catalog.getCatalog("john"));
+        verify(repository, times(2)).findByUsernameOrderByFilename("john");
+    }
+
+    @Test
+    void anonymousUsersHaveNoDocuments() {
+        RagDocumentRepository repository = mock(RagDocumentRepository.class);
+
+        assertEquals(Map.of("documents", List.of()), new RagDocumentCatalog(repository).getCatalog(null));
+        verifyNoInteractions(repository);
+    }
+}
@@ -0,0 +1,188 @@
+package org.opengpa.rag.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opengpa.rag.config.RagConfig;
+import org.opengpa.rag.repository.RagChunkRepository;
+import org.opengpa.rag.repository.RagDocumentRepository;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.VectorStore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RagIngestionPipelineTest {
+
+    private VectorStore vectorStore;
+
+    private RagDocumentRepository ragDocumentRepository;
+
+    private RagChunkRepository ragChunkRepository;
+
+    private RagIngestionPipeline pipeline;
+
+    private final List<String> storedChunkIds = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() {
+        vectorStore = mock(VectorStore.class);
+        ragDocumentRepository = mock(RagDocumentRepository.class);
+        ragChunkRepository = mock(RagChunkRepository.class);
+
+        doAnswer(invocation -> {
+            List<Document> documents = invocation.getArgument(0);
+            documents.forEach(document -> storedChunkIds.add(document.getId()));
+            return null;
+        }).when(vectorStore).add(anyList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) {
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    void testIndexesAllChunks() {
+        pipeline = new RagIngestionPipeline(vectorStore, ragDocumentRepository, ragChunkRepository, new RagConfig());
+        RagDocument document = givenDocument("doc-1", 25, 25);
+
+        pipeline.submit("doc-1");
+
+        verify(ragDocumentRepository, timeout(5000)).updateProgress("doc-1", 1.0f);
+        assertEquals(25, storedChunkIds.size());
+        assertEquals(25, storedChunkIds.stream().distinct().count());
+        verify(ragChunkRepository, atLeastOnce()).markIndexed(anyList());
+        assertEquals(document.getChunkCount(), storedChunkIds.size());
+    }
+
+    @Test
+    void testBatchSizeDecreasesOnFailures() {
+        RagConfig ragConfig = new RagConfig();
+        ragConfig.setEmbeddingWorkers(1);
+        ragConfig.setInitialBatchSize(16);
+        ragConfig.setIndexRetryBackoffMs(10);
+        pipeline = new RagIngestionPipeline(vectorStore, ragDocumentRepository, ragChunkRepository, ragConfig);
+
+        // The embedding model rejects batches of more than 2 chunks
+        doAnswer(invocation -> {
+            List<Document> documents = invocation.getArgument(0);
+            if (documents.size() > 2) {
+                throw new IllegalStateException("Too many tokens");
+            }
+            documents.forEach(document -> storedChunkIds.add(document.getId()));
+            return null;
+        }).when(vectorStore).add(anyList());
+        givenDocument("doc-1", 20, 20);
+
+        pipeline.submit("doc-1");
+
+        verify(ragDocumentRepository, timeout(5000)).updateProgress("doc-1", 1.0f);
+        assertEquals(20, storedChunkIds.size());
+        assertTrue(pipeline.getBatchSize() < 16);
+    }
+
+    @Test
+    void testResumesIncompleteDocuments() {
+        pipeline = new RagIngestionPipeline(vectorStore, ragDocumentRepository, ragChunkRepository, new RagConfig());
+        RagDocument document = givenDocument("doc-1", 10, 4);
+        when(ragDocumentRepository.findByProgressLessThan(1.0f)).thenReturn(List.of(document));
+
+        pipeline.resumeIncompleteDocuments();
+
+        verify(ragDocumentRepository, timeout(5000)).updateProgress("doc-1", 1.0f);
+        assertEquals(4, storedChunkIds.size());
+    }
+
+    @Test
+    void testFailedChunksLeaveDocumentIncomplete() {
+        RagConfig ragConfig = new RagConfig();
+        ragConfig.setIndexRetryBackoffMs(10);
+        pipeline = new RagIngestionPipeline(vectorStore, ragDocumentRepository, ragChunkRepository, ragConfig);
+        doThrow(new IllegalStateException("Embedding model unavailable")).when(vectorStore).add(anyList());
+        givenDocument("doc-1", 3, 3);
+
+        pipeline.submit("doc-1");
+
+        verify(ragDocumentRepository, timeout(5000)).updateProgress("doc-1", 0.0f);
+        verify(ragDocumentRepository, never()).updateProgress("doc-1", 1.0f);
+        verify(ragChunkRepository, never()).markIndexed(anyList());
+
+        // Each chunk is sent once on its own and retried before being counted as failed
+        verify(vectorStore, atLeast(3 * (ragConfig.getIndexRetries() + 1))).add(anyList());
+    }
+
+    @Test
+    void testTransientFailuresAreRetried() {
+        RagConfig ragConfig = new RagConfig();
+        ragConfig.setIndexRetryBackoffMs(10);
+        pipeline = new RagIngestionPipeline(vectorStore, ragDocumentRepository, ragChunkRepository, ragConfig);
+
+        // The embedding model is unavailable for the first calls
+        AtomicInteger calls = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (calls.incrementAndGet() <= 4) {
+                throw new IllegalStateException("Rate limited");
+            }
+            List<Document> documents = invocation.getArgument(0);
+            documents.forEach(document -> storedChunkIds.add(document.getId()));
+            return null;
+        }).when(vectorStore).add(anyList());
+        givenDocument("doc-1", 10, 10);
+
+        pipeline.submit("doc-1");
+
+        verify(ragDocumentRepository, timeout(5000)).updateProgress("doc-1", 1.0f);
+        assertEquals(10, storedChunkIds.stream().distinct().count());
+    }
+
+    @Test
+    void testDocumentCompletesWhenChunksCannotBeFlagged() {
+        pipeline = new RagIngestionPipeline(vectorStore, ragDocumentRepository, ragChunkRepository, new RagConfig());
+        doThrow(new IllegalStateException("Database unavailable")).when(ragChunkRepository).markIndexed(anyList());
+        givenDocument("doc-1", 3, 3);
+
+        pipeline.submit("doc-1");
+
+        // The document is no longer in progress and can be submitted again
+        verify(ragDocumentRepository, timeout(5000)).updateProgress("doc-1", 0.0f);
+        pipeline.submit("doc-1");
+        verify(ragDocumentRepository, timeout(5000).times(2)).updateProgress("doc-1", 0.0f);
+    }
+
+    private RagDocument givenDocument(String documentId, int chunkCount, int pendingChunks) {
+        RagDocument document = new RagDocument();
+        document.setDocumentId(documentId);
+        document.setUsername("johndoe");
+        document.setFilename(documentId + ".txt");
+        document.setTitle("Title");
+        document.setDescription("Description");
+        document.setContentType("text/plain");
+        document.setChunkCount(chunkCount);
+
+        List<RagChunk> chunks = IntStream.range(chunkCount - pendingChunks, chunkCount)
+                .mapToObj(index -> {
+                    RagChunk chunk = new RagChunk();
+                    chunk.setChunkId(documentId + "-" + index);
+                    chunk.setIndex(index);
+                    chunk.setContent("Chunk " + index);
+                    chunk.setDocument(document);
+                    return chunk;
+                })
+                .toList();
+
+        when(ragDocumentRepository.findById(documentId)).thenReturn(Optional.of(document));
+        when(ragChunkRepository.findByDocumentDocumentIdAndIndexedFalseOrderByIndex(documentId)).thenReturn(chunks);
+        return document;
+    }
+}
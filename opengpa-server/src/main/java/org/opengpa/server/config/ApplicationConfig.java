@@ -14,7 +14,24 @@ public class ApplicationConfig {
     boolean logPrompt = false;
     File logFolder;
 
+    // Stream LLM responses and dispatch actions as soon as they are complete
+    boolean streamLlm = false;
+
     private boolean closedBeta;
     private List<String> inviteCodes;
 
+    // Asynchronous step execution
+    private int stepThreads = 8;
+    private int stepQueueSize = 64;
+    private long stepJobRetentionSeconds = 600;
+
+    // Actions executed in parallel within a step, 0 threads to execute them sequentially
+    private int parallelActionThreads = 16;
+    private int parallelActionsPerAction = 4;
+
+    // Server-sent task events
+    private int eventThreads = 4;
+    private int eventBufferSize = 256;
+    private long eventTimeoutSeconds = 1800;
+
 }
@@ -0,0 +1,26 @@
+package org.opengpa.server.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.File;
+
+@Configuration
+@ConfigurationProperties(prefix = "opengpa.server.workspace")
+@Data
+public class WorkspaceConfig {
+
+    // Folder holding the content of the documents, the blobs it contains are deleted at startup. It must not
+    // be shared by two running instances, by default each instance creates its own temporary folder
+    private File root;
+
+    // Maximum size of the documents of a single workspace, least recently used ones are evicted first
+    private long quotaBytes = 1024L * 1024 * 1024;
+
+    // In-heap cache of the most recently used documents
+    private long cacheBytes = 32L * 1024 * 1024;
+
+    // Larger documents are always read from disk
+    private long maxCachedDocumentBytes = 1024L * 1024;
+}
@@ -3,19 +3,22 @@ package org.opengpa.server.controller;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.IOUtils;
 import org.opengpa.core.agent.AgentStep;
 import org.opengpa.core.workspace.Document;
 import org.opengpa.core.workspace.Workspace;
 import org.opengpa.server.dto.InputDTO;
 import org.opengpa.server.dto.StepDTO;
+import org.opengpa.server.dto.StepJobDTO;
 import org.opengpa.server.dto.TaskDTO;
 import org.opengpa.server.exceptions.DocumentNotFoundException;
+import org.opengpa.server.mapper.StepJobMapper;
 import org.opengpa.server.mapper.StepMapper;
 import org.opengpa.server.mapper.TaskMapper;
+import org.opengpa.server.model.StepJob;
 import org.opengpa.server.model.Task;
+import org.opengpa.server.service.StepJobService;
+import org.opengpa.server.service.TaskEventService;
 import org.opengpa.server.service.TaskService;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -25,14 +28,18 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
 import java.security.Principal;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
@@ -42,10 +49,16 @@ public class TasksController {
 
     private final TaskService taskService;
 
+    private final StepJobService stepJobService;
+
+    private final TaskEventService taskEventService;
+
     private final Workspace workspace;
 
-    public TasksController(TaskService taskService, Workspace workspace) {
+    public TasksController(TaskService taskService, StepJobService stepJobService, TaskEventService taskEventService, Workspace workspace) {
         this.taskService = taskService;
+        this.stepJobService = stepJobService;
+        this.taskEventService = taskEventService;
         this.workspace = workspace;
     }
 
@@ -82,6 +95,36 @@ public class TasksController {
         return StepMapper.toDTO(agentStep);
     }
 
+    @PostMapping(value = "/{task_id}", params = "async=true")
+    public ResponseEntity<StepJobDTO> progressTaskAsync(Principal principal, @PathVariable("task_id") String taskId, @Valid @RequestBody InputDTO inputDTO) {
+        log.debug("progressTaskAsync username={} taskId={}", principal.getName(), taskId);
+        StepJob job = stepJobService.submit(principal.getName(), taskId, inputDTO.getMessage(), inputDTO.getStateData(), new HashMap<>());
+
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/tasks/{task_id}/jobs/{job_id}")
+                .buildAndExpand(taskId, job.getJobId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(StepJobMapper.toDTO(job));
+    }
+
+    @GetMapping(value = "/{task_id}/jobs/{job_id}")
+    public CompletableFuture<StepJobDTO> getStepJob(Principal principal,
+                                                    @PathVariable("task_id") String taskId,
+                                                    @PathVariable("job_id") String jobId,
+                                                    @RequestParam(value = "wait", defaultValue = "0") long waitMillis) {
+        log.debug("getStepJob username={} taskId={} jobId={} wait={}", principal.getName(), taskId, jobId, waitMillis);
+        return stepJobService.awaitJob(principal.getName(), taskId, jobId, waitMillis).thenApply(StepJobMapper::toDTO);
+    }
+
+    @GetMapping(value = "/{task_id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTaskEvents(Principal principal, @PathVariable("task_id") String taskId) {
+        log.debug("streamTaskEvents username={} taskId={}", principal.getName(), taskId);
+
+        // Check the user owns the task before subscribing
+        taskService.getTask(principal.getName(), taskId);
+        return taskEventService.subscribe(taskId);
+    }
+
     @GetMapping(value = "/{task_id}/steps")
     public List<StepDTO> listSteps(Principal principal, @PathVariable("task_id") String taskId) {
         log.debug("listSteps username={} taskId={}", principal.getName(), taskId);
@@ -98,14 +141,12 @@ public class TasksController {
             // Check that the user owns the task
             Task task = taskService.getTask(principal.getName(), taskId);
 
-            // Convert the MultipartFile to a byte array
-            InputStream inputStream = file.getInputStream();
-            byte[] fileContent = new byte[(int) file.getSize()];
-            IOUtils.readFully(inputStream, fileContent);
-
-            // Add the document to the workspace
-            Document document = workspace.addDocument(taskId, file.getOriginalFilename(), fileContent,
-                    Collections.singletonMap("uploadedBy", principal.getName()));
+            // Stream the uploaded file to the workspace without loading it in memory
+            Document document;
+            try (InputStream inputStream = file.getInputStream()) {
+                document = workspace.addDocument(taskId, file.getOriginalFilename(), inputStream,
+                        Collections.singletonMap("uploadedBy", principal.getName()));
+            }
 
             // Return the document metadata along with a CREATED status code
             return ResponseEntity.status(HttpStatus.CREATED).body(document);
@@ -126,10 +167,16 @@ public class TasksController {
             throw new DocumentNotFoundException(artifactId);
         }
 
-        byte[] artifactContent = workspace.getDocumentContent(taskId, artifactId);
-        Resource resource = new ByteArrayResource(artifactContent);
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType("application/octet-stream"))
+        // The resource is streamed to the response, the content is not loaded in memory
+        Resource resource = workspace.getDocumentResource(taskId, artifactId)
+                .orElseThrow(() -> new DocumentNotFoundException(artifactId));
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/octet-stream"));
+        if (document.get().getChecksum() != null) {
+            response.eTag(document.get().getChecksum());
+        }
+        return response
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + document.get().getName() + "\"")
                 .body(resource);
     }
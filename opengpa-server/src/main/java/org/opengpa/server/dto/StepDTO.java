@@ -17,5 +17,9 @@ public class StepDTO {
 
     ResultDTO result;
 
+    List<ActionDTO> parallelActions;
+
+    List<ResultDTO> parallelResults;
+
     List<DocumentDTO> documents;
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package org.opengpa.server.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.time.ZonedDateTime;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StepJobDTO {
+    private String id;
+    private String taskId;
+    private String status;
+    private ZonedDateTime created;
+    private ZonedDateTime completed;
+    private String error;
+    private StepDTO step;
+}
@@ -0,0 +1,24 @@
+package org.opengpa.server.mapper;
+
+import org.opengpa.server.dto.StepJobDTO;
+import org.opengpa.server.model.StepJob;
+
+public class StepJobMapper {
+
+    public static StepJobDTO toDTO(StepJob job) {
+        StepJobDTO stepJobDTO = new StepJobDTO();
+        stepJobDTO.setId(job.getJobId());
+        stepJobDTO.setTaskId(job.getTaskId());
+        stepJobDTO.setStatus(job.getStatus().toString());
+        stepJobDTO.setCreated(job.getCreated());
+        stepJobDTO.setCompleted(job.getCompleted());
+        stepJobDTO.setError(job.getError());
+
+        // The step is only available once the job is completed
+        if (job.getStatus() == StepJob.Status.COMPLETED) {
+            stepJobDTO.setStep(StepMapper.toDTO(job.getFuture().join()));
+        }
+
+        return stepJobDTO;
+    }
+}
@@ -1,32 +1,40 @@
 package org.opengpa.server.mapper;
 
+import org.opengpa.core.action.ActionResult;
+import org.opengpa.core.agent.ActionInvocation;
 import org.opengpa.core.agent.AgentStep;
 import org.opengpa.server.dto.ActionDTO;
+import org.opengpa.server.dto.DocumentDTO;
 import org.opengpa.server.dto.ResultDTO;
 import org.opengpa.server.dto.StepDTO;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class StepMapper {
 
     public static StepDTO toDTO(AgentStep step) {
         StepDTO stepDTO = new StepDTO();
 
         // Here are ActionInvocation -> ActionDTO conversion
-        ActionDTO actionDTO = new ActionDTO();
-        actionDTO.setName(step.getAction().getName());
-        actionDTO.setParameters(step.getAction().getParameters());
+        ActionDTO actionDTO = toActionDTO(step.getAction());
         actionDTO.setFinal(step.isFinal());
         actionDTO.setReasoning(step.getReasoning());
 
         // Here are ActionResult -> ResultDTO conversion
-        ResultDTO resultDTO = new ResultDTO();
-        resultDTO.setStatus(step.getResult().getStatus().toString());
-        resultDTO.setError(step.getResult().getError());
-        resultDTO.setSummary(step.getResult().getSummary());
-        resultDTO.setStateData(step.getResult().getStateData());
-        resultDTO.setDetails(step.getResult().getResult());
+        ResultDTO resultDTO = toResultDTO(step.getResult());
 
         // List all artifcats created in this step
-        stepDTO.setDocuments(step.getResult().getDocuments().stream().map(DocumentMapper::toDocumentDTO).toList());
+        List<DocumentDTO> documents = new ArrayList<>(step.getResult().getDocuments().stream().map(DocumentMapper::toDocumentDTO).toList());
+
+        // Actions executed in parallel with the main one, with their results in the same order
+        if (step.getParallelActions() != null && step.getParallelResults() != null) {
+            stepDTO.setParallelActions(step.getParallelActions().stream().map(StepMapper::toActionDTO).toList());
+            stepDTO.setParallelResults(step.getParallelResults().stream().map(StepMapper::toResultDTO).toList());
+            step.getParallelResults().forEach(result ->
+                    result.getDocuments().stream().map(DocumentMapper::toDocumentDTO).forEach(documents::add));
+        }
+        stepDTO.setDocuments(documents);
 
         // Setting ActionDTO for StepDTO
         stepDTO.setInput(step.getInput());
@@ -35,4 +43,21 @@ public class StepMapper {
 
         return stepDTO;
     }
+
+    private static ActionDTO toActionDTO(ActionInvocation action) {
+        ActionDTO actionDTO = new ActionDTO();
+        actionDTO.setName(action.getName());
+        actionDTO.setParameters(action.getParameters());
+        return actionDTO;
+    }
+
+    private static ResultDTO toResultDTO(ActionResult result) {
+        ResultDTO resultDTO = new ResultDTO();
+        resultDTO.setStatus(result.getStatus().toString());
+        resultDTO.setError(result.getError());
+        resultDTO.setSummary(result.getSummary());
+        resultDTO.setStateData(result.getStateData());
+        resultDTO.setDetails(result.getResult());
+        return resultDTO;
+    }
 }
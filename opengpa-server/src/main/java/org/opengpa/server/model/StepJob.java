@@ -0,0 +1,39 @@
+package org.opengpa.server.model;
+
+import lombok.Builder;
+import lombok.Data;
+import org.opengpa.core.agent.AgentStep;
+
+import java.time.ZonedDateTime;
+import java.util.concurrent.CompletableFuture;
+
+@Data
+@Builder
+public class StepJob {
+
+  public enum Status {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+  }
+
+  private String jobId;
+
+  private String taskId;
+
+  private String username;
+
+  private ZonedDateTime created;
+
+  // Updated by the worker thread executing the step
+  private volatile ZonedDateTime completed;
+
+  @Builder.Default
+  private volatile Status status = Status.PENDING;
+
+  private volatile String error;
+
+  private CompletableFuture<AgentStep> future;
+
+}
@@ -0,0 +1,131 @@
+package org.opengpa.server.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.opengpa.core.agent.AgentStep;
+import org.opengpa.server.config.ApplicationConfig;
+import org.opengpa.server.exceptions.ResourceNotFoundException;
+import org.opengpa.server.exceptions.ServiceUnavailableException;
+import org.opengpa.server.model.StepJob;
+import org.springframework.stereotype.Service;
+
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+/**
+ * Executes task steps in the background so that HTTP requests do not wait for the LLM and the actions.
+ *
+ * Steps run on a bounded pool, a submission is rejected when the pool and its queue are full. Jobs are
+ * kept in memory until some time after their completion so that clients can fetch their result.
+ */
+@Service
+@Slf4j
+public class StepJobService {
+
+    // Upper bound for a client waiting on a job, to release long polling requests regularly
+    private static final long MAX_WAIT_MILLIS = 30_000;
+
+    private final TaskService taskService;
+
+    private final long retentionSeconds;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, StepJob> jobs = new ConcurrentHashMap<>();
+
+    public StepJobService(TaskService taskService, ApplicationConfig applicationConfig) {
+        this.taskService = taskService;
+        this.retentionSeconds = applicationConfig.getStepJobRetentionSeconds();
+        this.executor = new ThreadPoolExecutor(
+                applicationConfig.getStepThreads(),
+                applicationConfig.getStepThreads(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(applicationConfig.getStepQueueSize()),
+                Thread.ofPlatform().name("step-worker-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Submit the next step of a task for background execution.
+     *
+     * @throws ServiceUnavailableException if too many steps are already waiting for execution
+     */
+    public StepJob submit(String username, String taskId, String userInput, Map<String, String> stateData, Map<String, String> context) {
+        // Fails early if the task does not exist or does not belong to the user
+        taskService.getTask(username, taskId);
+        purgeExpiredJobs();
+
+        StepJob job = StepJob.builder()
+                .jobId(UUID.randomUUID().toString())
+                .taskId(taskId)
+                .username(username)
+                .created(ZonedDateTime.now())
+                .build();
+
+        try {
+            // The job future completes only once the status has been updated
+            CompletableFuture<AgentStep> future = CompletableFuture
+                    .supplyAsync(() -> {
+                        job.setStatus(StepJob.Status.RUNNING);
+                        return taskService.nextStep(username, taskId, userInput, stateData, context);
+                    }, executor)
+                    .whenComplete((step, error) -> complete(job, error));
+            job.setFuture(future);
+        } catch (RejectedExecutionException e) {
+            log.warn("Rejected step for task {}, {} steps queued", taskId, executor.getQueue().size());
+            throw new ServiceUnavailableException("Too many steps in progress, please retry later.");
+        }
+
+        jobs.put(job.getJobId(), job);
+        return job;
+    }
+
+    public StepJob getJob(String username, String taskId, String jobId) {
+        StepJob job = jobs.get(jobId);
+        if (job == null || !job.getUsername().equals(username) || !job.getTaskId().equals(taskId)) {
+            throw new ResourceNotFoundException("Job not found: " + jobId);
+        }
+        return job;
+    }
+
+    /**
+     * Get a job once it is done, or once the given wait time has elapsed, without blocking the caller.
+     */
+    public CompletableFuture<StepJob> awaitJob(String username, String taskId, String jobId, long waitMillis) {
+        StepJob job = getJob(username, taskId, jobId);
+        if (waitMillis <= 0 || job.getFuture().isDone()) {
+            return CompletableFuture.completedFuture(job);
+        }
+
+        return job.getFuture()
+                .copy()
+                .orTimeout(Math.min(waitMillis, MAX_WAIT_MILLIS), TimeUnit.MILLISECONDS)
+                .handle((step, error) -> job);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void complete(StepJob job, Throwable error) {
+        job.setCompleted(ZonedDateTime.now());
+        if (error == null) {
+            job.setStatus(StepJob.Status.COMPLETED);
+            return;
+        }
+
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        log.error("Step of task {} failed", job.getTaskId(), cause);
+        job.setError(cause.getMessage());
+        job.setStatus(StepJob.Status.FAILED);
+    }
+
+    private void purgeExpiredJobs() {
+        ZonedDateTime expiry = ZonedDateTime.now().minusSeconds(retentionSeconds);
+        jobs.values().removeIf(job -> job.getCompleted() != null && job.getCompleted().isBefore(expiry));
+    }
+}
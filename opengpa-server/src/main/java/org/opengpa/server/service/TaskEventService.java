@@ -0,0 +1,235 @@
+package org.opengpa.server.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.opengpa.core.action.ActionResult;
+import org.opengpa.core.agent.ActionInvocation;
+import org.opengpa.core.agent.Agent;
+import org.opengpa.core.agent.AgentListener;
+import org.opengpa.server.config.ApplicationConfig;
+import org.opengpa.server.dto.AbstractStreamEventDTO;
+import org.opengpa.server.dto.ActionStreamEventDTO;
+import org.opengpa.server.dto.SystemOuputStreamEventDTO;
+import org.opengpa.server.dto.UserInputStreamEventDTO;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes the progress of tasks to clients subscribed with server-sent events.
+ *
+ * Each subscriber has a bounded buffer drained by a small pool of sender threads. A subscriber that does
+ * not keep up and fills its buffer is disconnected, it can reconnect and fetch the steps it missed.
+ */
+@Service
+@Slf4j
+public class TaskEventService {
+
+    private static final String AGENT_OWNER = "agent";
+
+    private final int bufferSize;
+
+    private final long timeoutMillis;
+
+    private final ExecutorService executor;
+
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    public TaskEventService(ApplicationConfig applicationConfig) {
+        this.bufferSize = applicationConfig.getEventBufferSize();
+        this.timeoutMillis = TimeUnit.SECONDS.toMillis(applicationConfig.getEventTimeoutSeconds());
+        this.executor = Executors.newFixedThreadPool(applicationConfig.getEventThreads(),
+                Thread.ofPlatform().name("task-events-", 0).daemon().factory());
+    }
+
+    /**
+     * Subscribe to the events of a task, the caller is expected to have checked the task ownership
+     */
+    public SseEmitter subscribe(String taskId) {
+        SseEmitter emitter = createEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(taskId, emitter, new ArrayBlockingQueue<>(bufferSize));
+        subscribers.computeIfAbsent(taskId, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        return emitter;
+    }
+
+    public void publish(String taskId, String eventName, AbstractStreamEventDTO event) {
+        Set<Subscriber> taskSubscribers = subscribers.get(taskId);
+        if (taskSubscribers == null) {
+            return;
+        }
+
+        PendingEvent pendingEvent = new PendingEvent(eventName, event);
+        for (Subscriber subscriber : taskSubscribers) {
+            if (!subscriber.queue.offer(pendingEvent)) {
+                log.warn("Subscriber of task {} is too slow, closing its event stream", taskId);
+                remove(subscriber);
+                subscriber.queue.clear();
+                subscriber.emitter.complete();
+                continue;
+            }
+            scheduleDrain(subscriber);
+        }
+    }
+
+    /**
+     * Create a listener forwarding the progress of an agent to the subscribers of its task
+     */
+    public AgentListener listenerFor(String taskId, String username) {
+        return new AgentListener() {
+            @Override
+            public void onUserInput(Agent agent, String userInput) {
+                if (userInput == null || userInput.isEmpty() || !hasSubscribers(taskId)) return;
+                publish(taskId, "userInput", UserInputStreamEventDTO.builder()
+                        .owner(username)
+                        .summary(userInput)
+                        .taskId(taskId)
+                        .documents(List.of())
+                        .timestamp(ZonedDateTime.now())
+                        .build());
+            }
+
+            @Override
+            public void onReasoning(Agent agent, String reasoning) {
+                if (!hasSubscribers(taskId)) return;
+                publish(taskId, "reasoning", SystemOuputStreamEventDTO.builder()
+                        .owner(AGENT_OWNER)
+                        .summary(reasoning)
+                        .taskId(taskId)
+                        .timestamp(ZonedDateTime.now())
+                        .build());
+            }
+
+            @Override
+            public void onReasoningDelta(Agent agent, String delta) {
+                if (!hasSubscribers(taskId)) return;
+                publish(taskId, "reasoningDelta", SystemOuputStreamEventDTO.builder()
+                        .owner(AGENT_OWNER)
+                        .summary(delta)
+                        .taskId(taskId)
+                        .timestamp(ZonedDateTime.now())
+                        .build());
+            }
+
+            @Override
+            public void onActionStarted(Agent agent, ActionInvocation action) {
+                if (!hasSubscribers(taskId)) return;
+                publish(taskId, "actionStarted", ActionStreamEventDTO.builder()
+                        .owner(AGENT_OWNER)
+                        .summary(String.format("Executing action %s", action.getName()))
+                        .taskId(taskId)
+                        .action(action.getName())
+                        .documents(List.of())
+                        .timestamp(ZonedDateTime.now())
+                        .build());
+            }
+
+            @Override
+            public void onActionCompleted(Agent agent, ActionInvocation action, ActionResult result) {
+                if (!hasSubscribers(taskId)) return;
+                publish(taskId, "actionCompleted", ActionStreamEventDTO.builder()
+                        .owner(AGENT_OWNER)
+                        .summary(result.getSummary())
+                        .taskId(taskId)
+                        .action(action.getName())
+                        .result(result.getResult())
+                        .documents(result.getDocuments())
+                        .timestamp(ZonedDateTime.now())
+                        .build());
+            }
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(taskSubscribers -> taskSubscribers.forEach(s -> s.emitter.complete()));
+        executor.shutdown();
+    }
+
+    SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    boolean hasSubscribers(String taskId) {
+        return subscribers.containsKey(taskId);
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            PendingEvent event;
+            while ((event = subscriber.queue.poll()) != null) {
+                subscriber.emitter.send(SseEmitter.event()
+                        .name(event.name())
+                        .data(event.data(), MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client is gone or the emitter was completed, the subscriber is never drained again
+            log.debug("Event stream of task {} closed: {}", subscriber.taskId, e.getMessage());
+            remove(subscriber);
+            subscriber.queue.clear();
+            return;
+        } catch (RuntimeException e) {
+            // Such as an event which cannot be serialized, the stream is closed rather than left stalled
+            log.warn("Failed to send an event of task {}, closing its stream", subscriber.taskId, e);
+            remove(subscriber);
+            subscriber.queue.clear();
+            subscriber.emitter.completeWithError(e);
+            return;
+        }
+
+        subscriber.draining.set(false);
+
+        // An event may have been queued between the last poll and the reset of the flag
+        if (!subscriber.queue.isEmpty()) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.taskId, (taskId, taskSubscribers) -> {
+            taskSubscribers.remove(subscriber);
+            return taskSubscribers.isEmpty() ? null : taskSubscribers;
+        });
+    }
+
+    private record PendingEvent(String name, AbstractStreamEventDTO data) {
+    }
+
+    private static final class Subscriber {
+
+        private final String taskId;
+
+        private final SseEmitter emitter;
+
+        private final BlockingQueue<PendingEvent> queue;
+
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(String taskId, SseEmitter emitter, BlockingQueue<PendingEvent> queue) {
+            this.taskId = taskId;
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
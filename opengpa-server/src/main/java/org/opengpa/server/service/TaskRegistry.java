@@ -0,0 +1,90 @@
+package org.opengpa.server.service;
+
+import org.opengpa.core.agent.AgentStep;
+import org.opengpa.server.model.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory registry of the tasks of all users.
+ *
+ * Tasks are indexed by id for constant time lookups and by user for listing. Both indexes are concurrent
+ * maps, so users working on different tasks never contend. Each task carries its own lock, which callers
+ * must hold while running a step so that steps of a same task are never executed concurrently.
+ */
+class TaskRegistry {
+
+    private final Map<String, TaskEntry> tasksById = new ConcurrentHashMap<>();
+
+    private final Map<String, Map<String, TaskEntry>> tasksByUser = new ConcurrentHashMap<>();
+
+    TaskEntry register(String username, Task task) {
+        TaskEntry entry = new TaskEntry(username, task);
+        tasksById.put(task.getTaskId(), entry);
+        tasksByUser.computeIfAbsent(username, u -> new ConcurrentHashMap<>()).put(task.getTaskId(), entry);
+        return entry;
+    }
+
+    /**
+     * Find a task by id, only if it belongs to the given user
+     */
+    Optional<TaskEntry> find(String username, String taskId) {
+        TaskEntry entry = tasksById.get(taskId);
+        if (entry == null || !entry.getUsername().equals(username)) {
+            return Optional.empty();
+        }
+        return Optional.of(entry);
+    }
+
+    List<Task> getTasks(String username) {
+        Map<String, TaskEntry> userTasks = tasksByUser.get(username);
+        if (userTasks == null) {
+            return new ArrayList<>();
+        }
+
+        List<Task> result = new ArrayList<>(userTasks.size());
+        for (TaskEntry entry : userTasks.values()) {
+            result.add(entry.getTask());
+        }
+        return result;
+    }
+
+    static class TaskEntry {
+
+        private final String username;
+
+        private final Task task;
+
+        // Copy on write since steps are appended once per LLM call and read by every listing
+        private final List<AgentStep> steps = new CopyOnWriteArrayList<>();
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        TaskEntry(String username, Task task) {
+            this.username = username;
+            this.task = task;
+        }
+
+        String getUsername() {
+            return username;
+        }
+
+        Task getTask() {
+            return task;
+        }
+
+        List<AgentStep> getSteps() {
+            return steps;
+        }
+
+        ReentrantLock getLock() {
+            return lock;
+        }
+    }
+}
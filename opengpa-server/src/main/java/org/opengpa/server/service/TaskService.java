@@ -1,10 +1,12 @@
 package org.opengpa.server.service;
 
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.opengpa.core.action.Action;
-import org.opengpa.core.agent.Agent;
 import org.opengpa.core.agent.AgentStep;
+import org.opengpa.core.agent.react.ParallelActionExecutor;
 import org.opengpa.core.agent.react.ReActAgent;
+import org.opengpa.core.agent.react.ReActPromptCache;
 import org.opengpa.core.workspace.Workspace;
 import org.opengpa.mcp.McpActionProvider;
 import org.opengpa.server.config.ApplicationConfig;
@@ -24,9 +26,14 @@ import java.util.stream.Collectors;
 @Slf4j
 public class TaskService {
 
-    // lists to hold agents and their respective steps
-    private final HashMap<String, List<Task>> tasks = new HashMap<>();
-    private final HashMap<String, List<AgentStep>> steps = new HashMap<>();
+    // tasks and their respective steps, indexed by id and by user
+    private final TaskRegistry taskRegistry = new TaskRegistry();
+
+    // prompt fragments shared by all the agents created by this service
+    private final ReActPromptCache promptCache = new ReActPromptCache();
+
+    // executor shared by all the agents for the actions of a step executed in parallel
+    private final ParallelActionExecutor parallelActionExecutor;
 
     // dependencies for the service
     private final ChatModel chatModel;
@@ -34,15 +41,21 @@ public class TaskService {
     private final TopicService topicService;
     private final ActionCategoryService actionCategoryService;
     private final ApplicationConfig applicationConfig;
+    private final TaskEventService taskEventService;
 
     @Autowired
     public TaskService(ChatModel chatModel, Workspace workspace, TopicService topicService, 
-                      ActionCategoryService actionCategoryService, ApplicationConfig applicationConfig) {
+                      ActionCategoryService actionCategoryService, ApplicationConfig applicationConfig,
+                      TaskEventService taskEventService) {
         this.chatModel = chatModel;
         this.workspace = workspace;
         this.topicService = topicService;
         this.actionCategoryService = actionCategoryService;
         this.applicationConfig = applicationConfig;
+        this.taskEventService = taskEventService;
+        this.parallelActionExecutor = applicationConfig.getParallelActionThreads() > 0
+                ? new ParallelActionExecutor(applicationConfig.getParallelActionThreads(), applicationConfig.getParallelActionsPerAction())
+                : null;
     }
 
     /**
@@ -68,16 +81,22 @@ public class TaskService {
      * @return The created Task
      */
     public Task plan(String username, String input, Map<String, String> additionalInputs, List<String> enabledCategories) {
-        List<Task> userTasks = tasks.getOrDefault(username, new ArrayList<>());
         additionalInputs.put("username", username);
 
         // Get actions for the enabled categories, or all actions if no categories are specified
         List<Action> selectedActions = actionCategoryService.getActionsByCategories(enabledCategories);
         
-        ReActAgent agent = new ReActAgent(chatModel, workspace, selectedActions, input, additionalInputs);
+        ReActAgent agent = new ReActAgent(chatModel, workspace, selectedActions, input, additionalInputs, promptCache);
         if (applicationConfig.isLogPrompt()) {
             agent.enableLogging(applicationConfig.getLogFolder());
         }
+        if (parallelActionExecutor != null) {
+            agent.enableParallelActions(parallelActionExecutor);
+        }
+        if (applicationConfig.isStreamLlm()) {
+            agent.enableStreaming();
+        }
+        agent.addListener(taskEventService.listenerFor(agent.getId(), username));
 
         Task task = Task.builder()
                 .created(ZonedDateTime.now())
@@ -88,76 +107,68 @@ public class TaskService {
                 .enabledCategories(enabledCategories)
                 .build();
 
-        userTasks.add(task);
-        tasks.put(username, userTasks);
-
+        taskRegistry.register(username, task);
         return task;
     }
 
     @Transactional
     public AgentStep nextStep(String username, String taskId, String userInput, Map<String, String> stateData, Map<String, String> context) {
-        List<Task> userTasks = tasks.get(username);
-        Optional<Task> task = userTasks.stream().filter(a -> a.getTaskId().equals(taskId)).findFirst();
-
-        if (!task.isPresent()) {
-            log.warn("Task with id {} not found", taskId);
-            throw new TaskNotFoundException(taskId.toString());
+        TaskRegistry.TaskEntry entry = getEntry(username, taskId);
+        Task task = entry.getTask();
+
+        // Steps of a same task are serialized, the agent is not meant to run concurrently
+        entry.getLock().lock();
+        try {
+            AgentStep step = task.getAgent().executeNextStep(userInput, stateData, context);
+
+            // Do not add the step if it was already there
+            List<AgentStep> taskSteps = entry.getSteps();
+            if (taskSteps.isEmpty() || !taskSteps.get(taskSteps.size() - 1).getId().equals(step.getId())) {
+                taskSteps.add(step);
+            }
+
+            // If first message, summarize and find a title, otherwise we do it when done.
+            if (taskSteps.size() == 1 || step.isFinal()) {
+                topicService.summarize(task).ifPresent(s -> {
+                    task.setTitle(s.getTitle());
+                    task.setDescription(s.getSummary());
+                });
+            }
+
+            return step;
+        } finally {
+            entry.getLock().unlock();
         }
-
-        AgentStep step = task.get().getAgent().executeNextStep(userInput, stateData, context);
-
-        // Do not add the step if it was already there
-        List<AgentStep> taskSteps = steps.getOrDefault(taskId, new ArrayList<>());
-        if (taskSteps.isEmpty() || !taskSteps.get(taskSteps.size() - 1).getId().equals(step.getId())) {
-            taskSteps.add(step);
-        }
-
-        // If first message, summarize and find a title, otherwise we do it when done.
-        if (steps.isEmpty() || step.isFinal()) {
-            topicService.summarize(task.get()).ifPresent(s -> {
-                task.get().setTitle(s.getTitle());
-                task.get().setDescription(s.getSummary());
-            });
-        }
-
-        steps.put(taskId, taskSteps);
-        return step;
     }
 
     public List<Task> getTasks(String username) {
-        List<Task> userTasks = tasks.getOrDefault(username, new ArrayList<>());
+        List<Task> userTasks = taskRegistry.getTasks(username);
         return userTasks.stream().sorted(Comparator.comparing(task -> task.getAgent().getStartTime())).collect(Collectors.toList()).reversed();
     }
 
-    public List<AgentStep> getSteps(String username, String agentId) {
-        Agent agent = getAgent(username, agentId);
-
-        if (!steps.containsKey(agent.getId())) {
-            return new ArrayList<>();
-        }
-
-        return steps.get(agentId);
+    public List<AgentStep> getSteps(String username, String taskId) {
+        return new ArrayList<>(getEntry(username, taskId).getSteps());
     }
 
     public Task getTask(String username, String taskId) {
-        List<Task> userTasks = tasks.getOrDefault(username, new ArrayList<>());
-        Optional<Task> task = userTasks.stream().filter(a -> a.getTaskId().equals(taskId)).findFirst();
+        return getEntry(username, taskId).getTask();
+    }
 
-        if (!task.isPresent()) {
-            throw new TaskNotFoundException(taskId);
+    @PreDestroy
+    public void shutdown() {
+        if (parallelActionExecutor != null) {
+            parallelActionExecutor.close();
         }
-
-        return task.get();
     }
 
-    private Agent getAgent(String username, String agentId) {
-        List<Task> userTasks = tasks.getOrDefault(username, new ArrayList<>());
-        Optional<Agent> agent = userTasks.stream().filter(a -> a.getTaskId().equals(agentId)).findFirst().map(Task::getAgent);
+    private TaskRegistry.TaskEntry getEntry(String username, String taskId) {
+        Optional<TaskRegistry.TaskEntry> entry = taskRegistry.find(username, taskId);
 
-        if (!agent.isPresent()) {
-            throw new TaskNotFoundException(agentId);
+        if (!entry.isPresent()) {
+            log.warn("Task with id {} not found", taskId);
+            throw new TaskNotFoundException(taskId);
         }
 
-        return agent.get();
+        return entry.get();
     }
 }
\ No newline at end of file
@@ -1,49 +1,190 @@
 package org.opengpa.server.service;
 
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
 import org.opengpa.core.workspace.Document;
 import org.opengpa.core.workspace.Workspace;
 import org.opengpa.server.config.ApplicationConfig;
+import org.opengpa.server.config.WorkspaceConfig;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
+/**
+ * Workspace storing the content of the documents in files, named after the SHA-256 of their content.
+ *
+ * Identical contents are stored once and deleted when no document references them anymore. Small documents
+ * are also kept in a bounded in-heap cache. When a workspace exceeds its quota, its least recently used
+ * documents are evicted.
+ */
 @Component
+@Slf4j
 public class WorkspaceService implements Workspace {
 
-    private final Map<String, List<Document>> documents = new HashMap<>();
+    private final ApplicationConfig applicationConfig;
 
-    private final Map<String, byte[]> documentsContent = new HashMap();
+    private final WorkspaceConfig workspaceConfig;
 
-    private final ApplicationConfig applicationConfig;
+    private final Path root;
+
+    private final boolean temporaryRoot;
+
+    private final Path blobFolder;
+
+    private final Path tmpFolder;
+
+    // Documents of each workspace in insertion order, guarded by this
+    private final Map<String, Map<String, StoredDocument>> workspaces = new HashMap<>();
+
+    private final Map<String, Long> workspaceSizes = new HashMap<>();
+
+    // Number of documents referencing each content file, guarded by this
+    private final Map<String, Integer> references = new HashMap<>();
 
-    public WorkspaceService(ApplicationConfig applicationConfig) {
+    private final ContentCache cache;
+
+    private long accessCounter;
+
+    public WorkspaceService(ApplicationConfig applicationConfig, WorkspaceConfig workspaceConfig) {
         this.applicationConfig = applicationConfig;
+        this.workspaceConfig = workspaceConfig;
+        this.cache = new ContentCache(workspaceConfig.getCacheBytes());
+
+        try {
+            // A folder of its own unless configured, so that another instance never wipes live documents
+            this.temporaryRoot = workspaceConfig.getRoot() == null;
+            this.root = temporaryRoot ? Files.createTempDirectory("opengpa-workspace") : workspaceConfig.getRoot().toPath();
+            this.blobFolder = root.resolve("blobs");
+            this.tmpFolder = root.resolve("tmp");
+
+            // Documents are not persisted across restarts, the content left by a previous run is dropped
+            FileSystemUtils.deleteRecursively(blobFolder);
+            FileSystemUtils.deleteRecursively(tmpFolder);
+            Files.createDirectories(blobFolder);
+            Files.createDirectories(tmpFolder);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to initialize workspace folder " + workspaceConfig.getRoot(), e);
+        }
+        log.info("Storing workspace documents in {}", root);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (temporaryRoot) {
+            try {
+                FileSystemUtils.deleteRecursively(root);
+            } catch (IOException e) {
+                log.warn("Failed to delete workspace folder {}", root, e);
+            }
+        }
     }
 
     @Override
-    public List<Document> getDocuments(String workspaceId) {
-        return documents.getOrDefault(workspaceId, new ArrayList<>());
+    public synchronized List<Document> getDocuments(String workspaceId) {
+        Map<String, StoredDocument> workspace = workspaces.get(workspaceId);
+        if (workspace == null) {
+            return new ArrayList<>();
+        }
+        return workspace.values().stream().map(StoredDocument::document).toList();
     }
 
     @Override
-    public Optional<Document> getDocument(String workspaceId, String name) {
-        List<Document> agentDocs = documents.getOrDefault(workspaceId, new ArrayList<>());
-        return agentDocs.stream()
-                .filter(artifact -> artifact.getName().equals(name))
-                .findFirst();
+    public synchronized Optional<Document> getDocument(String workspaceId, String name) {
+        return Optional.ofNullable(findDocument(workspaceId, name)).map(StoredDocument::document);
     }
 
     @Override
     public Document addDocument(String workspaceId, String name, byte[] content, Map<String, String> metadata) {
-        List<Document> agentDocs = documents.getOrDefault(workspaceId, new ArrayList<>());
+        // The content is written outside of the lock, and moved to its final location under the lock
+        String checksum = sha256(content);
+        Path tmpFile = writeTmpFile(content);
 
+        Document document = store(workspaceId, name, tmpFile, checksum, content.length, metadata);
+        if (content.length <= workspaceConfig.getMaxCachedDocumentBytes()) {
+            cache.put(checksum, content);
+        }
+        return document;
+    }
+
+    /**
+     * Add a document by copying the stream to disk while computing its checksum, the content is never
+     * held in memory.
+     */
+    @Override
+    public Document addDocument(String workspaceId, String name, InputStream content, Map<String, String> metadata) throws IOException {
+        MessageDigest digest = newDigest();
+        Path tmpFile = Files.createTempFile(tmpFolder, "upload-", ".tmp");
+        long size;
+        try {
+            // The stream belongs to the caller, it is not closed here
+            size = Files.copy(new DigestInputStream(content, digest), tmpFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmpFile);
+            throw e;
+        }
+
+        return store(workspaceId, name, tmpFile, HexFormat.of().formatHex(digest.digest()), size, metadata);
+    }
+
+    @Override
+    public byte[] getDocumentContent(String workspaceId, String name) {
+        StoredDocument storedDocument;
+        synchronized (this) {
+            storedDocument = findDocument(workspaceId, name);
+            if (storedDocument == null) {
+                return null;
+            }
+        }
+
+        byte[] content = cache.get(storedDocument.checksum());
+        if (content != null) {
+            return content;
+        }
+
+        try {
+            content = Files.readAllBytes(blobPath(storedDocument.checksum()));
+        } catch (NoSuchFileException e) {
+            // The document was evicted or replaced in the meantime
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read document " + name, e);
+        }
+
+        if (content.length <= workspaceConfig.getMaxCachedDocumentBytes()) {
+            cache.put(storedDocument.checksum(), content);
+        }
+        return content;
+    }
+
+    /**
+     * Get the content of a document as a resource streamed from disk, without loading it in memory
+     */
+    @Override
+    public synchronized Optional<Resource> getDocumentResource(String workspaceId, String name) {
+        StoredDocument storedDocument = findDocument(workspaceId, name);
+        if (storedDocument == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new FileSystemResource(blobPath(storedDocument.checksum())));
+    }
+
+    private Document store(String workspaceId, String name, Path tmpFile, String checksum, long size, Map<String, String> metadata) {
         Document document = Document.builder()
                 .name(name)
                 .workspaceId(workspaceId)
+                .size(size)
+                .checksum(checksum)
                 .metadata(metadata)
                 .build();
 
@@ -55,34 +196,203 @@ public class WorkspaceService implements Workspace {
             }
 
             try {
-                Files.write(Paths.get(agentDirectory.getPath(), name), content);
+                Files.copy(tmpFile, Paths.get(agentDirectory.getPath(), name), StandardCopyOption.REPLACE_EXISTING);
             } catch (IOException e) {
-                e.printStackTrace();
+                log.warn("Failed to save a copy of document {} in the log folder", name, e);
             }
         }
 
-        agentDocs.add(document);
-        documents.put(workspaceId, agentDocs);
-        documentsContent.put(getDocumentKey(workspaceId, name), content);
+        synchronized (this) {
+            storeBlob(checksum, tmpFile);
+
+            Map<String, StoredDocument> workspace = workspaces.computeIfAbsent(workspaceId, k -> new LinkedHashMap<>());
+            StoredDocument previous = workspace.remove(name);
+            if (previous != null) {
+                release(workspaceId, previous);
+            }
+
+            workspace.put(name, new StoredDocument(document, checksum, size, ++accessCounter));
+            workspaceSizes.merge(workspaceId, size, Long::sum);
+            enforceQuota(workspaceId, name);
+        }
 
         return document;
     }
 
-    @Override
-    public byte[] getDocumentContent(String workspaceId, String name) {
-        List<Document> agentDocs = documents.getOrDefault(workspaceId, new ArrayList<>());
-        Optional<Document> document = agentDocs.stream()
-                .filter(artifact -> artifact.getName().equals(name))
-                .findFirst();
-
-        if (document.isPresent()) {
-            return documentsContent.get(getDocumentKey(workspaceId, name));
-        } else {
+    synchronized long getWorkspaceSize(String workspaceId) {
+        return workspaceSizes.getOrDefault(workspaceId, 0L);
+    }
+
+    synchronized int getBlobCount() {
+        return references.size();
+    }
+
+    long getCachedBytes() {
+        return cache.size();
+    }
+
+    private StoredDocument findDocument(String workspaceId, String name) {
+        Map<String, StoredDocument> workspace = workspaces.get(workspaceId);
+        if (workspace == null) {
             return null;
         }
+
+        StoredDocument storedDocument = workspace.get(name);
+        if (storedDocument != null) {
+            storedDocument.lastAccess = ++accessCounter;
+        }
+        return storedDocument;
+    }
+
+    private void enforceQuota(String workspaceId, String addedName) {
+        Map<String, StoredDocument> workspace = workspaces.get(workspaceId);
+        while (workspaceSizes.getOrDefault(workspaceId, 0L) > workspaceConfig.getQuotaBytes() && workspace.size() > 1) {
+            // Evict the least recently used document, but never the one being added
+            StoredDocument eldest = workspace.values().stream()
+                    .filter(d -> !d.document().getName().equals(addedName))
+                    .min(Comparator.comparingLong(d -> d.lastAccess))
+                    .orElseThrow();
+
+            log.warn("Workspace {} exceeds its quota, evicting document {}", workspaceId, eldest.document().getName());
+            workspace.remove(eldest.document().getName());
+            release(workspaceId, eldest);
+        }
+    }
+
+    private void release(String workspaceId, StoredDocument storedDocument) {
+        workspaceSizes.merge(workspaceId, -storedDocument.size(), Long::sum);
+
+        int remaining = references.merge(storedDocument.checksum(), -1, Integer::sum);
+        if (remaining > 0) {
+            return;
+        }
+
+        references.remove(storedDocument.checksum());
+        cache.remove(storedDocument.checksum());
+        try {
+            Files.deleteIfExists(blobPath(storedDocument.checksum()));
+        } catch (IOException e) {
+            log.warn("Failed to delete document content {}", storedDocument.checksum(), e);
+        }
+    }
+
+    private void storeBlob(String checksum, Path tmpFile) {
+        Path blobPath = blobPath(checksum);
+        try {
+            if (references.containsKey(checksum) && Files.exists(blobPath)) {
+                Files.delete(tmpFile);
+            } else {
+                Files.createDirectories(blobPath.getParent());
+                Files.move(tmpFile, blobPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store document content " + checksum, e);
+        }
+        references.merge(checksum, 1, Integer::sum);
+    }
+
+    private Path writeTmpFile(byte[] content) {
+        try {
+            Path tmpFile = Files.createTempFile(tmpFolder, "upload-", ".tmp");
+            Files.write(tmpFile, content);
+            return tmpFile;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write document content", e);
+        }
+    }
+
+    private Path blobPath(String checksum) {
+        return blobFolder.resolve(checksum.substring(0, 2)).resolve(checksum);
+    }
+
+    private static String sha256(byte[] content) {
+        return HexFormat.of().formatHex(newDigest().digest(content));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class StoredDocument {
+
+        private final Document document;
+
+        private final String checksum;
+
+        private final long size;
+
+        private long lastAccess;
+
+        StoredDocument(Document document, String checksum, long size, long lastAccess) {
+            this.document = document;
+            this.checksum = checksum;
+            this.size = size;
+            this.lastAccess = lastAccess;
+        }
+
+        Document document() {
+            return document;
+        }
+
+        String checksum() {
+            return checksum;
+        }
+
+        long size() {
+            return size;
+        }
     }
 
-    private String getDocumentKey(String workspaceId, String name) {
-        return workspaceId + "-" + name;
+    /**
+     * LRU cache of document contents by checksum, bounded by the total size of the cached contents
+     */
+    private static final class ContentCache {
+
+        private final long maxBytes;
+
+        private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        private long bytes;
+
+        ContentCache(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized byte[] get(String checksum) {
+            return entries.get(checksum);
+        }
+
+        synchronized void put(String checksum, byte[] content) {
+            if (content.length > maxBytes) {
+                return;
+            }
+
+            byte[] previous = entries.put(checksum, content);
+            if (previous != null) {
+                bytes -= previous.length;
+            }
+            bytes += content.length;
+
+            Iterator<byte[]> iterator = entries.values().iterator();
+            while (bytes > maxBytes && iterator.hasNext()) {
+                bytes -= iterator.next().length;
+                iterator.remove();
+            }
+        }
+
+        synchronized void remove(String checksum) {
+            byte[] previous = entries.remove(checksum);
+            if (previous != null) {
+                bytes -= previous.length;
+            }
+        }
+
+        synchronized long size() {
+            return bytes;
+        }
     }
 }
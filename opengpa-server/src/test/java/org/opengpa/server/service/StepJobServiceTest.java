@@ -0,0 +1,98 @@
+package org.opengpa.server.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opengpa.core.agent.AgentStep;
+import org.opengpa.server.config.ApplicationConfig;
+import org.opengpa.server.exceptions.ResourceNotFoundException;
+import org.opengpa.server.exceptions.ServiceUnavailableException;
+import org.opengpa.server.exceptions.TaskNotFoundException;
+import org.opengpa.server.model.StepJob;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class StepJobServiceTest {
+
+    private TaskService taskService;
+
+    private StepJobService stepJobService;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        taskService = mock(TaskService.class);
+        when(taskService.getTask(eq("otheruser"), anyString())).thenThrow(new TaskNotFoundException("task-1"));
+        when(taskService.nextStep(anyString(), anyString(), anyString(), any(), anyMap())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            if ("fail".equals(invocation.getArgument(2))) {
+                throw new IllegalStateException("Step failed");
+            }
+            return AgentStep.builder().input(invocation.getArgument(2)).build();
+        });
+
+        ApplicationConfig applicationConfig = new ApplicationConfig();
+        applicationConfig.setStepThreads(1);
+        applicationConfig.setStepQueueSize(1);
+        stepJobService = new StepJobService(taskService, applicationConfig);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        stepJobService.shutdown();
+    }
+
+    @Test
+    void testSubmitAndAwait() throws Exception {
+        StepJob job = stepJobService.submit("testuser", "task-1", "Hello", Map.of(), new HashMap<>());
+        assertNotEquals(StepJob.Status.COMPLETED, job.getStatus());
+
+        // Waiting less than the step duration returns the job still in progress
+        StepJob pending = stepJobService.awaitJob("testuser", "task-1", job.getJobId(), 10).get(5, TimeUnit.SECONDS);
+        assertNull(pending.getCompleted());
+
+        release.countDown();
+        StepJob completed = stepJobService.awaitJob("testuser", "task-1", job.getJobId(), 5000).get(10, TimeUnit.SECONDS);
+        assertEquals(StepJob.Status.COMPLETED, completed.getStatus());
+        assertEquals("Hello", completed.getFuture().join().getInput());
+    }
+
+    @Test
+    void testFailedStep() throws Exception {
+        release.countDown();
+        StepJob job = stepJobService.submit("testuser", "task-1", "fail", Map.of(), new HashMap<>());
+
+        StepJob failed = stepJobService.awaitJob("testuser", "task-1", job.getJobId(), 5000).get(10, TimeUnit.SECONDS);
+        assertEquals(StepJob.Status.FAILED, failed.getStatus());
+        assertEquals("Step failed", failed.getError());
+    }
+
+    @Test
+    void testSubmitIsRejectedWhenSaturated() {
+        // One step running, one queued, the third one is rejected
+        stepJobService.submit("testuser", "task-1", "first", Map.of(), new HashMap<>());
+        stepJobService.submit("testuser", "task-1", "second", Map.of(), new HashMap<>());
+
+        assertThrows(ServiceUnavailableException.class,
+                () -> stepJobService.submit("testuser", "task-1", "third", Map.of(), new HashMap<>()));
+    }
+
+    @Test
+    void testJobsAreOnlyVisibleToTheirOwner() {
+        StepJob job = stepJobService.submit("testuser", "task-1", "Hello", Map.of(), new HashMap<>());
+
+        assertThrows(TaskNotFoundException.class,
+                () -> stepJobService.submit("otheruser", "task-1", "Hello", Map.of(), new HashMap<>()));
+        assertThrows(ResourceNotFoundException.class, () -> stepJobService.getJob("otheruser", "task-1", job.getJobId()));
+        assertThrows(ResourceNotFoundException.class, () -> stepJobService.getJob("testuser", "task-2", job.getJobId()));
+    }
+}
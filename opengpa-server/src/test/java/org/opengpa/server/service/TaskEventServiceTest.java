@@ -0,0 +1,198 @@
+package org.opengpa.server.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.opengpa.core.action.ActionResult;
+import org.opengpa.core.agent.ActionInvocation;
+import org.opengpa.core.agent.AgentListener;
+import org.opengpa.server.config.ApplicationConfig;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskEventServiceTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private TestTaskEventService taskEventService;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        taskEventService.shutdown();
+    }
+
+    @Test
+    void testEventsAreDeliveredInOrder() throws Exception {
+        taskEventService = new TestTaskEventService(16, false);
+        RecordingEmitter emitter = (RecordingEmitter) taskEventService.subscribe("task-1");
+
+        AgentListener listener = taskEventService.listenerFor("task-1", "testuser");
+        ActionInvocation action = ActionInvocation.builder().name("search_web").parameters(Map.of("query", "weather")).build();
+        listener.onUserInput(null, "What's the weather?");
+        listener.onReasoning(null, "I should search the web");
+        listener.onActionStarted(null, action);
+        listener.onActionCompleted(null, action, ActionResult.completed(List.of("sunny"), "It is sunny"));
+
+        assertTrue(emitter.awaitEvents(4));
+        assertEquals(4, emitter.events.size());
+        assertTrue(emitter.events.get(0).contains("event:userInput"));
+        assertTrue(emitter.events.get(1).contains("event:reasoning"));
+        assertTrue(emitter.events.get(2).contains("event:actionStarted"));
+        assertTrue(emitter.events.get(3).contains("event:actionCompleted"));
+    }
+
+    @Test
+    void testReasoningDeltasAreDelivered() throws Exception {
+        taskEventService = new TestTaskEventService(16, false);
+        RecordingEmitter emitter = (RecordingEmitter) taskEventService.subscribe("task-1");
+
+        AgentListener listener = taskEventService.listenerFor("task-1", "testuser");
+        listener.onReasoningDelta(null, "I should ");
+        listener.onReasoningDelta(null, "search");
+        listener.onReasoning(null, "I should search");
+
+        assertTrue(emitter.awaitEvents(3));
+        assertTrue(emitter.events.get(0).contains("event:reasoningDelta"));
+        assertTrue(emitter.events.get(1).contains("event:reasoningDelta"));
+        assertTrue(emitter.events.get(2).contains("event:reasoning\n"));
+    }
+
+    @Test
+    void testEventsAreScopedToTheirTask() throws Exception {
+        taskEventService = new TestTaskEventService(16, false);
+        RecordingEmitter emitter = (RecordingEmitter) taskEventService.subscribe("task-1");
+
+        taskEventService.listenerFor("task-2", "testuser").onReasoning(null, "Other task");
+        taskEventService.listenerFor("task-1", "testuser").onReasoning(null, "This task");
+
+        assertTrue(emitter.awaitEvents(1));
+        Thread.sleep(50);
+        assertEquals(1, emitter.events.size());
+        assertFalse(taskEventService.hasSubscribers("task-2"));
+    }
+
+    @Test
+    void testSlowSubscriberIsDisconnected() {
+        taskEventService = new TestTaskEventService(2, true);
+        RecordingEmitter emitter = (RecordingEmitter) taskEventService.subscribe("task-1");
+        AgentListener listener = taskEventService.listenerFor("task-1", "testuser");
+
+        // The first event blocks the sender, the next two fill the buffer and the fourth overflows it
+        for (int i = 0; i < 4; i++) {
+            listener.onReasoning(null, "Reasoning " + i);
+            if (i == 0) {
+                emitter.awaitSendStarted();
+            }
+        }
+
+        assertFalse(taskEventService.hasSubscribers("task-1"));
+        assertTrue(emitter.completed);
+    }
+
+    @Test
+    void testFailingSubscriberIsClosed() throws Exception {
+        taskEventService = new TestTaskEventService(16, false);
+        RecordingEmitter emitter = (RecordingEmitter) taskEventService.subscribe("task-1");
+        emitter.failure = new IllegalArgumentException("Not writable");
+
+        taskEventService.listenerFor("task-1", "testuser").onReasoning(null, "Reasoning");
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!emitter.completed && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(emitter.completed);
+        assertFalse(taskEventService.hasSubscribers("task-1"));
+    }
+
+    private class TestTaskEventService extends TaskEventService {
+
+        private final boolean blockingSend;
+
+        TestTaskEventService(int bufferSize, boolean blockingSend) {
+            super(config(bufferSize));
+            this.blockingSend = blockingSend;
+        }
+
+        @Override
+        SseEmitter createEmitter(long timeoutMillis) {
+            return new RecordingEmitter(blockingSend);
+        }
+    }
+
+    private class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+
+        private final CountDownLatch sendStarted = new CountDownLatch(1);
+
+        private final boolean blockingSend;
+
+        private volatile boolean completed;
+
+        private volatile RuntimeException failure;
+
+        RecordingEmitter(boolean blockingSend) {
+            this.blockingSend = blockingSend;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sendStarted.countDown();
+            if (failure != null) {
+                throw failure;
+            }
+            if (blockingSend) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            StringBuilder event = new StringBuilder();
+            builder.build().forEach(part -> event.append(part.getData()));
+            events.add(event.toString());
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+
+        @Override
+        public synchronized void completeWithError(Throwable ex) {
+            completed = true;
+        }
+
+        boolean awaitEvents(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (events.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            return events.size() >= count;
+        }
+
+        void awaitSendStarted() {
+            try {
+                assertTrue(sendStarted.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static ApplicationConfig config(int bufferSize) {
+        ApplicationConfig applicationConfig = new ApplicationConfig();
+        applicationConfig.setEventBufferSize(bufferSize);
+        applicationConfig.setEventThreads(2);
+        return applicationConfig;
+    }
+}
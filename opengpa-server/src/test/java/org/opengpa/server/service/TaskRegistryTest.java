@@ -0,0 +1,58 @@
+package org.opengpa.server.service;
+
+import org.junit.jupiter.api.Test;
+import org.opengpa.server.model.Task;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskRegistryTest {
+
+    @Test
+    void findChecksTaskOwner() {
+        TaskRegistry registry = new TaskRegistry();
+        registry.register("alice", Task.builder().taskId("task-1").build());
+
+        assertTrue(registry.find("alice", "task-1").isPresent());
+        assertTrue(registry.find("bob", "task-1").isEmpty());
+        assertTrue(registry.find("alice", "task-2").isEmpty());
+    }
+
+    @Test
+    void getTasksListsOnlyUserTasks() {
+        TaskRegistry registry = new TaskRegistry();
+        registry.register("alice", Task.builder().taskId("task-1").build());
+        registry.register("alice", Task.builder().taskId("task-2").build());
+        registry.register("bob", Task.builder().taskId("task-3").build());
+
+        assertEquals(2, registry.getTasks("alice").size());
+        assertEquals(1, registry.getTasks("bob").size());
+        assertTrue(registry.getTasks("carol").isEmpty());
+    }
+
+    @Test
+    void concurrentRegistrations() throws Exception {
+        TaskRegistry registry = new TaskRegistry();
+        int users = 20;
+        int tasksPerUser = 50;
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int u = 0; u < users; u++) {
+            for (int t = 0; t < tasksPerUser; t++) {
+                String username = "user-" + u;
+                String taskId = username + "-task-" + t;
+                executor.submit(() -> registry.register(username, Task.builder().taskId(taskId).build()));
+            }
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        for (int u = 0; u < users; u++) {
+            assertEquals(tasksPerUser, registry.getTasks("user-" + u).size());
+            assertTrue(registry.find("user-" + u, "user-" + u + "-task-0").isPresent());
+        }
+    }
+}
@@ -6,16 +6,28 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.opengpa.core.action.Action;
 import org.opengpa.core.agent.Agent;
+import org.opengpa.core.agent.AgentListener;
+import org.opengpa.core.agent.AgentStep;
 import org.opengpa.core.agent.react.ReActAgent;
 import org.opengpa.core.workspace.Workspace;
 import org.opengpa.server.config.ApplicationConfig;
+import org.opengpa.server.exceptions.TaskNotFoundException;
 import org.opengpa.server.helper.topic.TopicService;
 import org.opengpa.server.model.Task;
 import org.springframework.ai.chat.model.ChatModel;
 
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -46,6 +58,9 @@ class TaskServiceTest {
     @Mock
     private Action webAction;
 
+    @Mock
+    private TaskEventService taskEventService;
+
     @Mock
     private ReActAgent mockAgent;
 
@@ -54,6 +69,7 @@ class TaskServiceTest {
         MockitoAnnotations.openMocks(this);
         
         when(applicationConfig.isLogPrompt()).thenReturn(false);
+        when(taskEventService.listenerFor(anyString(), anyString())).thenReturn(new AgentListener() {});
         
         // Configure mock actions
         when(coreAction.getName()).thenReturn("core_action");
@@ -85,7 +101,7 @@ class TaskServiceTest {
         when(mockAgent.getId()).thenReturn("test-agent-id");
         when(mockAgent.getTask()).thenReturn("Test task");
         
-        taskService = new TaskService(chatModel, workspace, topicService, actionCategoryService, applicationConfig);
+        taskService = new TaskService(chatModel, workspace, topicService, actionCategoryService, applicationConfig, taskEventService);
     }
 
     @Test
@@ -135,4 +151,84 @@ class TaskServiceTest {
         // Verify that the actionCategoryService was called with the correct categories
         verify(actionCategoryService, times(1)).getActionsByCategories(eq(enabledCategories));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testNextStepWithUnknownTask() {
+        taskService.plan("testuser", "Test task", new HashMap<>());
+
+        assertThrows(TaskNotFoundException.class,
+                () -> taskService.nextStep("testuser", "unknown", "Hello", Map.of(), new HashMap<>()));
+    }
+
+    @Test
+    void testTaskIsNotVisibleToOtherUsers() {
+        Task task = taskService.plan("testuser", "Test task", new HashMap<>());
+
+        assertThrows(TaskNotFoundException.class, () -> taskService.getTask("otheruser", task.getTaskId()));
+        assertTrue(taskService.getTasks("otheruser").isEmpty());
+    }
+
+    @Test
+    void testConcurrentStepsOnManyTasks() throws Exception {
+        int users = 10;
+        int tasksPerUser = 5;
+        int stepsPerTask = 20;
+
+        // Each task gets an agent that records overlapping executions
+        Map<String, AtomicInteger> running = new ConcurrentHashMap<>();
+        AtomicInteger overlaps = new AtomicInteger();
+        List<Task> tasks = new ArrayList<>();
+        Map<String, String> owners = new HashMap<>();
+        for (int u = 0; u < users; u++) {
+            for (int t = 0; t < tasksPerUser; t++) {
+                String username = "user-" + u;
+                Task task = taskService.plan(username, "Task " + t, new HashMap<>());
+                AtomicInteger counter = new AtomicInteger();
+                running.put(task.getTaskId(), counter);
+                task.setAgent(concurrencyCheckingAgent(task.getTaskId(), counter, overlaps));
+                tasks.add(task);
+                owners.put(task.getTaskId(), username);
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int s = 0; s < stepsPerTask; s++) {
+            for (Task task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return taskService.nextStep(owners.get(task.getTaskId()), task.getTaskId(), "Continue", Map.of(), new HashMap<>());
+                }));
+            }
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(0, overlaps.get());
+        for (Task task : tasks) {
+            assertEquals(stepsPerTask, taskService.getSteps(owners.get(task.getTaskId()), task.getTaskId()).size());
+        }
+        for (int u = 0; u < users; u++) {
+            assertEquals(tasksPerUser, taskService.getTasks("user-" + u).size());
+        }
+    }
+
+    private static Agent concurrencyCheckingAgent(String taskId, AtomicInteger running, AtomicInteger overlaps) {
+        Agent agent = mock(Agent.class);
+        when(agent.getId()).thenReturn(taskId);
+        when(agent.getStartTime()).thenReturn(new Date());
+        when(agent.executeNextStep(anyString(), anyMap(), anyMap())).thenAnswer(invocation -> {
+            if (running.incrementAndGet() > 1) {
+                overlaps.incrementAndGet();
+            }
+            Thread.sleep(1);
+            running.decrementAndGet();
+            return AgentStep.builder().input(invocation.getArgument(0)).build();
+        });
+        return agent;
+    }
+}
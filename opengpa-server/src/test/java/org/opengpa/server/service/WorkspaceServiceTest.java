@@ -0,0 +1,158 @@
+package org.opengpa.server.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opengpa.core.workspace.Document;
+import org.opengpa.server.config.ApplicationConfig;
+import org.opengpa.server.config.WorkspaceConfig;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WorkspaceServiceTest {
+
+    @TempDir
+    Path root;
+
+    private WorkspaceConfig workspaceConfig;
+
+    @BeforeEach
+    void setUp() {
+        workspaceConfig = new WorkspaceConfig();
+        workspaceConfig.setRoot(root.toFile());
+    }
+
+    @Test
+    void testInstancesWithoutRootDoNotShareTheirFolder() {
+        // Without the in-heap cache, the content is read from the folder
+        WorkspaceConfig uncached = new WorkspaceConfig();
+        uncached.setCacheBytes(0);
+        WorkspaceService first = new WorkspaceService(new ApplicationConfig(), uncached);
+        first.addDocument("task-1", "notes.txt", bytes("Hello"), Map.of());
+
+        WorkspaceService second = new WorkspaceService(new ApplicationConfig(), new WorkspaceConfig());
+        try {
+            assertArrayEquals(bytes("Hello"), first.getDocumentContent("task-1", "notes.txt"));
+        } finally {
+            first.shutdown();
+            second.shutdown();
+        }
+    }
+
+    @Test
+    void testAddAndReadDocument() throws Exception {
+        WorkspaceService workspaceService = new WorkspaceService(new ApplicationConfig(), workspaceConfig);
+
+        Document document = workspaceService.addDocument("task-1", "notes.txt", bytes("Hello"), Map.of("uploadedBy", "testuser"));
+
+        assertEquals("notes.txt", document.getName());
+        assertEquals(1, workspaceService.getDocuments("task-1").size());
+        assertTrue(workspaceService.getDocument("task-1", "notes.txt").isPresent());
+        assertArrayEquals(bytes("Hello"), workspaceService.getDocumentContent("task-1", "notes.txt"));
+        assertNull(workspaceService.getDocumentContent("task-2", "notes.txt"));
+
+        Optional<Resource> resource = workspaceService.getDocumentResource("task-1", "notes.txt");
+        assertTrue(resource.isPresent());
+        try (InputStream inputStream = resource.get().getInputStream()) {
+            assertArrayEquals(bytes("Hello"), inputStream.readAllBytes());
+        }
+    }
+
+    @Test
+    void testIdenticalContentIsStoredOnce() {
+        WorkspaceService workspaceService = new WorkspaceService(new ApplicationConfig(), workspaceConfig);
+
+        workspaceService.addDocument("task-1", "a.txt", bytes("Same content"), Map.of());
+        workspaceService.addDocument("task-2", "b.txt", bytes("Same content"), Map.of());
+        assertEquals(1, workspaceService.getBlobCount());
+
+        // Replacing one document keeps the content of the other one
+        workspaceService.addDocument("task-1", "a.txt", bytes("New content"), Map.of());
+        assertEquals(2, workspaceService.getBlobCount());
+        assertArrayEquals(bytes("Same content"), workspaceService.getDocumentContent("task-2", "b.txt"));
+        assertArrayEquals(bytes("New content"), workspaceService.getDocumentContent("task-1", "a.txt"));
+        assertEquals(1, workspaceService.getDocuments("task-1").size());
+    }
+
+    @Test
+    void testAddDocumentFromStream() throws Exception {
+        WorkspaceService workspaceService = new WorkspaceService(new ApplicationConfig(), workspaceConfig);
+        byte[] content = new byte[3 * 1024 * 1024];
+        new Random(42).nextBytes(content);
+
+        InputStream inputStream = spy(new ByteArrayInputStream(content));
+        Document document = workspaceService.addDocument("task-1", "large.bin", inputStream, Map.of());
+
+        assertEquals(content.length, document.getSize());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)), document.getChecksum());
+        verify(inputStream, never()).close();
+
+        // Content above the cache threshold is read back from disk
+        try (ReadableByteChannel channel = workspaceService.openDocumentChannel("task-1", "large.bin").orElseThrow();
+             InputStream stored = Channels.newInputStream(channel)) {
+            assertArrayEquals(content, stored.readAllBytes());
+        }
+        assertEquals(0, workspaceService.getCachedBytes());
+
+        // The same content added from a byte array or a channel is stored once
+        Document copy = workspaceService.addDocument("task-2", "copy.bin", content, Map.of());
+        workspaceService.addDocument("task-3", "channel.bin", Channels.newChannel(new ByteArrayInputStream(content)), Map.of());
+        assertEquals(document.getChecksum(), copy.getChecksum());
+        assertEquals(1, workspaceService.getBlobCount());
+    }
+
+    @Test
+    void testQuotaEvictsLeastRecentlyUsedDocuments() {
+        workspaceConfig.setQuotaBytes(25);
+        WorkspaceService workspaceService = new WorkspaceService(new ApplicationConfig(), workspaceConfig);
+
+        workspaceService.addDocument("task-1", "first.txt", bytes("0123456789"), Map.of());
+        workspaceService.addDocument("task-1", "second.txt", bytes("abcdefghij"), Map.of());
+        workspaceService.getDocumentContent("task-1", "first.txt");
+        workspaceService.addDocument("task-1", "third.txt", bytes("ABCDEFGHIJ"), Map.of());
+
+        assertTrue(workspaceService.getDocument("task-1", "first.txt").isPresent());
+        assertTrue(workspaceService.getDocument("task-1", "second.txt").isEmpty());
+        assertTrue(workspaceService.getDocument("task-1", "third.txt").isPresent());
+        assertEquals(20, workspaceService.getWorkspaceSize("task-1"));
+        assertEquals(2, workspaceService.getBlobCount());
+
+        // Other workspaces have their own quota
+        workspaceService.addDocument("task-2", "other.txt", bytes("0123456789"), Map.of());
+        assertEquals(2, workspaceService.getDocuments("task-1").size());
+    }
+
+    @Test
+    void testCacheIsBounded() {
+        workspaceConfig.setCacheBytes(15);
+        workspaceConfig.setMaxCachedDocumentBytes(10);
+        WorkspaceService workspaceService = new WorkspaceService(new ApplicationConfig(), workspaceConfig);
+
+        workspaceService.addDocument("task-1", "first.txt", bytes("0123456789"), Map.of());
+        workspaceService.addDocument("task-1", "second.txt", bytes("abcdefghij"), Map.of());
+        workspaceService.addDocument("task-1", "large.txt", bytes("This document is too large to be cached"), Map.of());
+
+        assertTrue(workspaceService.getCachedBytes() <= 15);
+        assertArrayEquals(bytes("0123456789"), workspaceService.getDocumentContent("task-1", "first.txt"));
+        assertArrayEquals(bytes("This document is too large to be cached"), workspaceService.getDocumentContent("task-1", "large.txt"));
+        assertTrue(workspaceService.getCachedBytes() <= 15);
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+}